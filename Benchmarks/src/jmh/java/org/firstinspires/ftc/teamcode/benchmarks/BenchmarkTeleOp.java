@@ -0,0 +1,58 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.all_purpose.TelemetryRecorder;
+import org.firstinspires.ftc.teamcode.base.HumanOperated;
+import org.firstinspires.ftc.teamcode.simulation.SimTelemetry;
+import org.firstinspires.ftc.teamcode.simulation.SimulatedRobot;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+/**
+ * Same controls as NormalControlTwoDrivers, wired to a simulated robot, with
+ * the protected steps made public so they can be benchmarked one by one.
+ * The telemetry goes nowhere, printing would be most of what gets measured.
+ */
+public class BenchmarkTeleOp extends HumanOperated {
+    public final SimulatedRobot robot = new SimulatedRobot();
+
+    public BenchmarkTeleOp() {
+        // Millions of loops per second would only measure the disk
+        TelemetryRecorder.ENABLED = false;
+
+        hardwareMap = robot.hardwareMap;
+        telemetry = new SimTelemetry(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {}
+        }));
+        gamepad1 = new Gamepad();
+        gamepad2 = new Gamepad();
+    }
+
+    @Override
+    protected void runTeleOp() {
+        useDefaultMovementControls();
+        useDefaultLauncherControls(player.player2);
+        SetMotorPower();
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Exposed steps
+    //------------------------------------------------------------------------------------------------
+    public void movementControls() {
+        useDefaultMovementControls();
+    }
+
+    /** The wheel powers into the output cache, then out to the (simulated) hubs. */
+    public void writeWheelPowers() {
+        SetMotorPower();
+        hardwareManager.flushOutputs();
+    }
+
+    /** Sum of the 4 wheel powers, so JMH can't throw the work away. */
+    public double wheelPowerSum() {
+        return frontLeftWheelP + frontRightWheelP + backLeftWheelP + backRightWheelP;
+    }
+}
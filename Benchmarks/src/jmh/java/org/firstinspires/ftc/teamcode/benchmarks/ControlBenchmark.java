@@ -0,0 +1,54 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.all_purpose.LatencyHistogram;
+import org.firstinspires.ftc.teamcode.commands.CommandScheduler;
+import org.firstinspires.ftc.teamcode.commands.RaceGroup;
+import org.firstinspires.ftc.teamcode.commands.SequentialGroup;
+import org.firstinspires.ftc.teamcode.commands.WaitUntilCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The bookkeeping that runs every cycle on top of the robot code itself.
+ * Both of these should be a few ns/op and allocate nothing (check -prof gc).
+ */
+@State(Scope.Thread)
+public class ControlBenchmark {
+    private LatencyHistogram histogram;
+    private CommandScheduler scheduler;
+    private long sample = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        histogram = new LatencyHistogram();
+
+        // Something shaped like an autonomous: a sequence with a race inside,
+        // none of which ever finishes, so every tick does the same work
+        scheduler = new CommandScheduler();
+        scheduler.schedule(new SequentialGroup(
+                new RaceGroup(
+                        new WaitUntilCommand(() -> false),
+                        new WaitUntilCommand(() -> false)
+                ),
+                new WaitUntilCommand(() -> false)
+        ));
+        scheduler.schedule(new WaitUntilCommand(() -> false));
+    }
+
+    @Benchmark
+    public long recordLatency() {
+        // Spread over the buckets like real loop times (~1 to 30 ms)
+        sample = (sample * 6364136223846793005L + 1442695040888963407L);
+        histogram.record(1000 + ((sample >>> 40) % 30000));
+        return histogram.getCount();
+    }
+
+    @Benchmark
+    public boolean schedulerTick() {
+        scheduler.tick();
+        return scheduler.isBusy();
+    }
+}
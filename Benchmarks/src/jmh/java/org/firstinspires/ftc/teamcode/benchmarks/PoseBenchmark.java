@@ -0,0 +1,122 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import com.bylazar.field.FieldManager;
+import com.bylazar.field.PanelsField;
+import com.bylazar.field.Style;
+
+import org.firstinspires.ftc.teamcode._pedroPathing.PoseTrail;
+import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
+import org.firstinspires.ftc.teamcode.all_purpose.Localizer;
+import org.firstinspires.ftc.teamcode.simulation.SimMotor;
+import org.firstinspires.ftc.teamcode.simulation.SimulatedRobot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The pose math and the field drawing, the parts of a cycle that do real arithmetic.
+ *
+ *      refreshSensors     -> snapshot of the simulated hubs + the MecanumLocalizer's pose exponential
+ *      poseFix            -> Localizer.addPoseFix(): history lookup, gating, correction replayed on the history
+ *      drawPoseHistory    -> what Drawing.drawPoseHistory() runs: decimating a long history and drawing it
+ *
+ * The wheels and the heading move a little every call, so the localizer never
+ * takes its "didn't move" shortcut.
+ */
+@State(Scope.Thread)
+public class PoseBenchmark {
+    /** About as many poses as Pedro's history keeps. */
+    private static final int HISTORY_POINTS = 1500;
+
+    private SimulatedRobot robot;
+    private HardwareManager hardwareManager;
+    private SimMotor[] wheels;
+    private int step = 0;
+    private double fixX;
+    private double fixY;
+    private double fixHeading;
+    private long fixNanos;
+
+    private PoseTrail trail;
+    private FieldManager field;
+    private Style style;
+    private double[] historyX;
+    private double[] historyY;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        robot = new SimulatedRobot();
+        hardwareManager = new HardwareManager(robot.hardwareMap);
+        wheels = new SimMotor[] {robot.frontLeftWheel, robot.frontRightWheel, robot.backLeftWheel, robot.backRightWheel};
+
+        // A history spaced like real cycles, so a late fix lands in the middle of it
+        for (int i = 0; i < Localizer.HISTORY_SIZE; i++) {
+            moveRobot();
+            hardwareManager.refreshSensors();
+            // The fixes are from this cycle's frame, ~60 ms back
+            if (i == Localizer.HISTORY_SIZE - 12)
+                fixNanos = hardwareManager.sensors.getTimestampNanos();
+            Thread.sleep(5);
+        }
+        // Where the tags say the robot is: a few cm off from the odometry
+        fixX = hardwareManager.localizer.getX() + 0.03;
+        fixY = hardwareManager.localizer.getY() - 0.02;
+        fixHeading = hardwareManager.localizer.getHeading() + 0.01;
+
+        trail = new PoseTrail();
+        field = PanelsField.INSTANCE.getField();
+        style = new Style("", "#4CAF50", 0.75);
+        // A drive across the field and back, in inches like Pedro, with a stop in the middle
+        historyX = new double[HISTORY_POINTS];
+        historyY = new double[HISTORY_POINTS];
+        for (int i = 0; i < HISTORY_POINTS; i++) {
+            double t = (double) i / HISTORY_POINTS;
+            double progress = Math.abs(t - 0.5) < 0.1 ? 0.4 : t;
+            historyX[i] = 72 + 60 * Math.sin(progress * Math.PI);
+            historyY[i] = 24 + 96 * progress;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // Stops the IMU reader thread
+        hardwareManager.close();
+    }
+
+    private void moveRobot() {
+        step++;
+        double wobble = (step & 63) / 64.0;
+        for (int i = 0; i < wheels.length; i++) {
+            // Left wheels a bit faster: driving forward and turning a little
+            double speed = (i % 2 == 0) ? 12 + wobble : 10;
+            wheels[i].advanceShaft(speed * 0.005, speed, 1);
+        }
+        robot.imu.setTrueHeading(step * 0.001, 0.2);
+    }
+
+    @Benchmark
+    public double refreshSensors() {
+        moveRobot();
+        hardwareManager.refreshSensors();
+        return hardwareManager.localizer.getX();
+    }
+
+    @Benchmark
+    public double poseFix() {
+        step++;
+        Localizer localizer = hardwareManager.localizer;
+        // Always the same frame, with a bit of noise
+        double noise = 0.005 * ((step & 7) / 8.0);
+        localizer.addPoseFix(fixX + noise, fixY - noise, fixHeading, fixNanos, 1.2);
+        return localizer.getX();
+    }
+
+    @Benchmark
+    public int drawPoseHistory() {
+        // Pedro hands out NEW arrays every frame, the copies make the B/op the same as on the robot
+        return trail.draw(field, historyX.clone(), historyY.clone(), style, 1);
+    }
+}
@@ -0,0 +1,68 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The TeleOp hot path, from one step up to the whole `loop()`.
+ *
+ *      movementControls   -> stick shaping, the drive / strafe / rotate mixing and desaturation
+ *      wheelPowers        -> the same, then SetMotorPower and flushOutputs (where the battery
+ *                            compensation scales and limits the four wheel powers)
+ *      fullLoop           -> sensors, controls, launcher, outputs and profiler, on the simulated hubs
+ *
+ * The sticks move a little every call so nothing can be folded into a constant,
+ * and so the output cache actually has something to write once in a while.
+ */
+@State(Scope.Thread)
+public class TeleOpBenchmark {
+    private BenchmarkTeleOp teleOp;
+    private int step = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        teleOp = new BenchmarkTeleOp();
+        teleOp.init();
+        teleOp.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // Stops the IMU reader thread
+        teleOp.stop();
+    }
+
+    private void moveSticks() {
+        step++;
+        float wobble = (step & 63) / 64f;
+        teleOp.gamepad1.left_stick_y = -0.8f + 0.1f * wobble;
+        teleOp.gamepad1.left_stick_x = 0.3f * wobble;
+        teleOp.gamepad1.right_stick_x = 0.5f - 0.2f * wobble;
+    }
+
+    @Benchmark
+    public double movementControls() {
+        moveSticks();
+        teleOp.movementControls();
+        return teleOp.wheelPowerSum();
+    }
+
+    @Benchmark
+    public double wheelPowers() {
+        moveSticks();
+        teleOp.movementControls();
+        teleOp.writeWheelPowers();
+        return teleOp.wheelPowerSum();
+    }
+
+    @Benchmark
+    public double fullLoop() {
+        moveSticks();
+        teleOp.loop();
+        return teleOp.wheelPowerSum();
+    }
+}
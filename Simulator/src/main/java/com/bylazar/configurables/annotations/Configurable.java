@@ -0,0 +1,6 @@
+package com.bylazar.configurables.annotations;
+
+/**
+ * Desktop stand-in for the Panels annotation, there is no Panels to configure from here.
+ */
+public @interface Configurable {}
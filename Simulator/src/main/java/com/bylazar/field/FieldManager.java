@@ -0,0 +1,16 @@
+package com.bylazar.field;
+
+/**
+ * Desktop stand-in for the Panels field manager, draws nothing.
+ */
+public class FieldManager {
+    public void setStyle(Style style) {}
+
+    public void moveCursor(double x, double y) {}
+
+    public void line(double x, double y) {}
+
+    public void circle(double radius) {}
+
+    public void update() {}
+}
@@ -0,0 +1,15 @@
+package com.bylazar.field;
+
+/**
+ * Desktop stand-in for the Panels field. The real one sends the drawings to the
+ * dashboard in a browser, which a desktop run doesn't have. Same API as what TeamCode uses.
+ */
+public class PanelsField {
+    public static final PanelsField INSTANCE = new PanelsField();
+
+    private final FieldManager field = new FieldManager();
+
+    public FieldManager getField() {
+        return field;
+    }
+}
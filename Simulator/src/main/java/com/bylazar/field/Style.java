@@ -0,0 +1,8 @@
+package com.bylazar.field;
+
+/**
+ * Desktop stand-in for a Panels drawing style, nothing is drawn with it.
+ */
+public class Style {
+    public Style(String fill, String outline, double outlineWidth) {}
+}
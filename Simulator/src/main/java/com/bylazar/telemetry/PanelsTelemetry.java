@@ -0,0 +1,15 @@
+package com.bylazar.telemetry;
+
+/**
+ * Desktop stand-in for Panels. The real one runs a web server on the Control Hub,
+ * which the benchmarks don't need (and can't start). Same API as what TeamCode uses.
+ */
+public class PanelsTelemetry {
+    public static final PanelsTelemetry INSTANCE = new PanelsTelemetry();
+
+    private final TelemetryManager telemetry = new TelemetryManager();
+
+    public TelemetryManager getTelemetry() {
+        return telemetry;
+    }
+}
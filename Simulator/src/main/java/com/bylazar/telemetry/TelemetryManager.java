@@ -0,0 +1,14 @@
+package com.bylazar.telemetry;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+/**
+ * Desktop stand-in for the Panels telemetry manager, does nothing.
+ */
+public class TelemetryManager {
+    public void debug(String... lines) {}
+
+    public void update() {}
+
+    public void update(Telemetry telemetry) {}
+}
@@ -0,0 +1,131 @@
+package org.firstinspires.ftc.teamcode.simulation;
+
+import org.firstinspires.ftc.teamcode.all_purpose.LatencyHistogram;
+import org.firstinspires.ftc.teamcode.all_purpose.TelemetryLog;
+import org.firstinspires.ftc.teamcode.all_purpose.TelemetryRecorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Desktop tool that reads back a `TelemetryRecorder` file (pulled off the
+ * Control Hub from FIRST/recordings) and reconstructs the run:
+ *
+ *      ./gradlew :Simulator:replay --args="Auto_20250101_120000.bin [out.csv]"
+ *
+ * - Prints a summary: how long it ran, how regular the loop was, cycles that
+ *   never made it into the file, the lowest battery voltage and where the robot ended.
+ * - Writes every cycle as one CSV line (time in seconds from the start), to plot
+ *   in a spreadsheet. Defaults to the same name with `.csv`.
+ *
+ * Runs on any computer with Java, no robot needed.
+ */
+public class LogReplay {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: LogReplay <recording.bin> [output.csv]");
+            return;
+        }
+
+        File input = new File(args[0]);
+        File output = args.length > 1
+                ? new File(args[1])
+                : new File(input.getPath().replaceAll("\\.bin$", "") + ".csv");
+
+        LatencyHistogram loopTimes = new LatencyHistogram();
+        TelemetryLog.Record record = new TelemetryLog.Record();
+        long firstNanos = 0;
+        long lastNanos = 0;
+        long records = 0;
+        long missingCycles = 0;
+        int lastCycle = -1;
+        float lowestBattery = Float.MAX_VALUE;
+
+        try (TelemetryLog log = new TelemetryLog(input);
+             PrintWriter csv = new PrintWriter(output, "UTF-8")) {
+
+            csv.println(header());
+            while (log.next(record)) {
+                if (records == 0)
+                    firstNanos = record.timestampNanos;
+                else
+                    loopTimes.record((record.timestampNanos - lastNanos) / 1000);
+
+                if (lastCycle >= 0 && record.cycle > lastCycle + 1)
+                    missingCycles += record.cycle - lastCycle - 1;
+                if (record.batteryVoltage > 0)
+                    lowestBattery = Math.min(lowestBattery, record.batteryVoltage);
+
+                csv.println(line(record, (record.timestampNanos - firstNanos) / 1e9));
+
+                lastNanos = record.timestampNanos;
+                lastCycle = record.cycle;
+                records++;
+            }
+
+            System.out.println("Recording started " + new Date(log.getStartMillis()));
+        }
+
+        System.out.println(String.format(Locale.US, "%d cycles over %.2f s, %d cycles missing",
+                records, (lastNanos - firstNanos) / 1e9, missingCycles));
+        System.out.println(String.format(Locale.US, "Loop period: p50 %.2f  p95 %.2f  p99 %.2f  max %.2f ms",
+                loopTimes.getPercentile(50) / 1000.0,
+                loopTimes.getPercentile(95) / 1000.0,
+                loopTimes.getPercentile(99) / 1000.0,
+                loopTimes.getMax() / 1000.0));
+        if (lowestBattery != Float.MAX_VALUE)
+            System.out.println(String.format(Locale.US, "Lowest battery: %.2f V", lowestBattery));
+        if (records > 0) {
+            System.out.println(String.format(Locale.US, "Last odometry: x %.3f  y %.3f  heading %.3f, last IMU heading %.1f deg",
+                    record.odometryX, record.odometryY, record.odometryHeading, record.headingDegrees));
+            if (!Float.isNaN(record.poseX))
+                System.out.println(String.format(Locale.US, "Last follower pose: x %.2f  y %.2f  heading %.3f",
+                        record.poseX, record.poseY, record.poseHeading));
+        }
+        System.out.println("Wrote " + output);
+    }
+
+    private static final String[] MOTOR_NAMES = {"frontLeft", "frontRight", "backLeft", "backRight", "launcher"};
+    private static final String[] SERVO_NAMES = {"flinger", "stopper"};
+
+    private static String header() {
+        StringBuilder line = new StringBuilder("time,cycle");
+        for (String name : MOTOR_NAMES)
+            line.append(',').append(name).append("Position");
+        for (String name : MOTOR_NAMES)
+            line.append(',').append(name).append("Velocity");
+        line.append(",headingDegrees");
+        for (String name : MOTOR_NAMES)
+            line.append(',').append(name).append("Power");
+        for (String name : SERVO_NAMES)
+            line.append(',').append(name).append("Position");
+        line.append(",launcherTarget,battery,poseX,poseY,poseHeading,odometryX,odometryY,odometryHeading");
+        return line.toString();
+    }
+
+    private static String line(TelemetryLog.Record record, double seconds) {
+        StringBuilder line = new StringBuilder();
+        line.append(String.format(Locale.US, "%.6f", seconds)).append(',').append(record.cycle);
+        for (int i = 0; i < TelemetryRecorder.MOTOR_COUNT; i++)
+            line.append(',').append(record.positions[i]);
+        for (int i = 0; i < TelemetryRecorder.MOTOR_COUNT; i++)
+            line.append(',').append(record.velocities[i]);
+        line.append(',').append(record.headingDegrees);
+        for (int i = 0; i < TelemetryRecorder.MOTOR_COUNT; i++)
+            line.append(',').append(record.powers[i]);
+        for (int i = 0; i < TelemetryRecorder.SERVO_COUNT; i++)
+            line.append(',').append(record.servoPositions[i]);
+        line.append(',').append(record.launcherTargetVelocity)
+                .append(',').append(record.batteryVoltage)
+                .append(',').append(record.poseX)
+                .append(',').append(record.poseY)
+                .append(',').append(record.poseHeading)
+                .append(',').append(record.odometryX)
+                .append(',').append(record.odometryY)
+                .append(',').append(record.odometryHeading);
+        return line.toString();
+    }
+}
@@ -0,0 +1,202 @@
+package org.firstinspires.ftc.teamcode.simulation;
+
+/**
+ * A simple rigid-body model of our robot: a mecanum drivetrain plus the launcher flywheel.
+ * Called at a fixed rate by `SimulatedRobot`, it reads the power of every `SimMotor`,
+ * turns it into forces, and moves the robot, the encoders and the IMU.
+ *
+ * Motor model (per motor, at the shaft):
+ *      torque = STALL_TORQUE * (volts / NOMINAL_VOLTAGE - speed / FREE_SPEED)
+ *      -> full torque when stopped, no torque at free speed. With 0 power and BRAKE,
+ *         this is the back-EMF braking; with 0 power and FLOAT, torque is 0.
+ *
+ * Drivetrain (robot frame, x = forward, y = left, counter-clockwise positive), by CORNER.
+ * A normal mecanum drive, rollers making an X seen from above:
+ *
+ *      FL  \\-----//  FR       wheel speed             force on the robot
+ *          |     |             FL = vx - vy - k*w      Fx = FL + FR + BL + BR
+ *          |     |             FR = vx + vy + k*w      Fy = (-FL + FR + BL - BR) * STRAFE_EFFICIENCY
+ *      BL  //-----\\  BR       BL = vx + vy - k*w      T  = (-FL + FR - BL + BR) * k
+ *                              BR = vx - vy + k*w      k  = (TRACK_WIDTH + WHEEL_BASE) / 2
+ *
+ * The left motors are mounted mirrored, which is why `HardwareManager` reverses them.
+ * The wheels are given by corner: `SimulatedRobot` plugs the right motors in crossed,
+ * like on the robot (see `MecanumKinematics`).
+ */
+public class MecanumPhysics {
+    //------------------------------------------------------------------------------------------------
+    // Robot (SI units)
+    //------------------------------------------------------------------------------------------------
+    public static double ROBOT_MASS = 12;             // kg
+    public static double TRACK_WIDTH = 0.36;          // m, left to right wheel
+    public static double WHEEL_BASE = 0.30;           // m, front to back wheel
+    public static double WHEEL_RADIUS = 0.098 / 2;    // m, same wheels as SelfDriving
+    public static double STRAFE_EFFICIENCY = 0.8;     // rollers lose some of the sideways force
+    public static double ROBOT_INERTIA = ROBOT_MASS * (TRACK_WIDTH * TRACK_WIDTH + WHEEL_BASE * WHEEL_BASE) / 12;
+
+    public static double ROLLING_FRICTION = 6;        // N, constant drag while moving
+    public static double VISCOUS_FRICTION = 4;        // N per m/s
+    public static double TURN_FRICTION = 1.2;         // Nm while turning
+
+    //------------------------------------------------------------------------------------------------
+    // Drive motors (at the wheel, after the gearbox)
+    //------------------------------------------------------------------------------------------------
+    public static double DRIVE_STALL_TORQUE = 2.4;    // Nm
+    public static double DRIVE_STALL_CURRENT = 9.2;   // A
+
+    //------------------------------------------------------------------------------------------------
+    // Launcher
+    //------------------------------------------------------------------------------------------------
+    public static double FLYWHEEL_INERTIA = 0.0009;   // kg m^2
+    public static double LAUNCHER_STALL_TORQUE = 0.15;// Nm
+    public static double LAUNCHER_STALL_CURRENT = 9.2;// A
+    public static double FLYWHEEL_FRICTION = 0.004;   // Nm
+
+    //------------------------------------------------------------------------------------------------
+    // Battery
+    //------------------------------------------------------------------------------------------------
+    public static double NOMINAL_VOLTAGE = 12;
+    public static double BATTERY_OPEN_VOLTAGE = 13;
+    public static double BATTERY_RESISTANCE = 0.03;   // Ohm
+
+    private static final int FL = 0, FR = 1, BL = 2, BR = 3;
+    private static final double[] MOUNT_SIGN = {-1, 1, -1, 1};
+
+    private final SimMotor[] wheels;
+    private final SimMotor launcher;
+    private final SimImu imu;
+    private final SimVoltageSensor battery;
+
+    // Field pose (m, rad) and robot-frame velocity (m/s, rad/s)
+    private double x = 0, y = 0, heading = 0;
+    private double vx = 0, vy = 0, omega = 0;
+    private double flywheelSpeed = 0; // rad/s, shaft frame
+
+    private final double[] wheelSpeeds = new double[4];
+    private final double[] wheelForces = new double[4];
+
+    /** `wheels` = the motors driving the FL, FR, BL and BR corners, in that order. */
+    public MecanumPhysics(SimMotor[] wheels, SimMotor launcher, SimImu imu, SimVoltageSensor battery) {
+        this.wheels = wheels;
+        this.launcher = launcher;
+        this.imu = imu;
+        this.battery = battery;
+        battery.setVoltage(BATTERY_OPEN_VOLTAGE);
+    }
+
+    /** Advances the whole robot by `dt` seconds. */
+    public synchronized void step(double dt) {
+        double volts = battery.getVoltage();
+        double k = (TRACK_WIDTH + WHEEL_BASE) / 2;
+        double totalCurrent = 0;
+
+        // 1. Motor torques -> wheel forces
+        computeWheelSpeeds(k);
+        for (int i = 0; i < 4; i++) {
+            SimMotor motor = wheels[i];
+            double shaftSpeed = MOUNT_SIGN[i] * wheelSpeeds[i] / WHEEL_RADIUS;
+            double torque = motorTorque(motor, shaftSpeed, volts, DRIVE_STALL_TORQUE);
+            wheelForces[i] = MOUNT_SIGN[i] * torque / WHEEL_RADIUS;
+            totalCurrent += Math.abs(torque / DRIVE_STALL_TORQUE * DRIVE_STALL_CURRENT);
+        }
+
+        // 2. Wheel forces -> robot forces
+        double fx = wheelForces[FL] + wheelForces[FR] + wheelForces[BL] + wheelForces[BR];
+        double fy = (-wheelForces[FL] + wheelForces[FR] + wheelForces[BL] - wheelForces[BR]) * STRAFE_EFFICIENCY;
+        double torque = (-wheelForces[FL] + wheelForces[FR] - wheelForces[BL] + wheelForces[BR]) * k;
+
+        // 3. Friction, which can stop the robot but never push it
+        double speed = Math.hypot(vx, vy);
+        if (speed > 1e-4) {
+            double drag = ROLLING_FRICTION + VISCOUS_FRICTION * speed;
+            fx -= drag * vx / speed;
+            fy -= drag * vy / speed;
+        }
+        if (Math.abs(omega) > 1e-4)
+            torque -= TURN_FRICTION * Math.signum(omega);
+
+        // 4. Integrate, robot frame velocities rotate with the robot
+        double ax = fx / ROBOT_MASS + omega * vy;
+        double ay = fy / ROBOT_MASS - omega * vx;
+        double alpha = torque / ROBOT_INERTIA;
+
+        vx = stopAtZero(vx, ax * dt);
+        vy = stopAtZero(vy, ay * dt);
+        omega = stopAtZero(omega, alpha * dt);
+
+        double cos = Math.cos(heading), sin = Math.sin(heading);
+        x += (vx * cos - vy * sin) * dt;
+        y += (vx * sin + vy * cos) * dt;
+        heading += omega * dt;
+
+        // 5. Sensors
+        computeWheelSpeeds(k);
+        for (int i = 0; i < 4; i++) {
+            double shaftSpeed = MOUNT_SIGN[i] * wheelSpeeds[i] / WHEEL_RADIUS;
+            double amps = Math.abs(wheelForces[i] * WHEEL_RADIUS / DRIVE_STALL_TORQUE * DRIVE_STALL_CURRENT);
+            wheels[i].advanceShaft(shaftSpeed * dt, shaftSpeed, amps);
+        }
+        imu.setTrueHeading(heading, omega);
+
+        // 6. Launcher flywheel
+        double launcherTorque = motorTorque(launcher, flywheelSpeed, volts, LAUNCHER_STALL_TORQUE);
+        if (Math.abs(flywheelSpeed) > 1e-3)
+            launcherTorque -= FLYWHEEL_FRICTION * Math.signum(flywheelSpeed);
+        flywheelSpeed = stopAtZero(flywheelSpeed, launcherTorque / FLYWHEEL_INERTIA * dt);
+        double launcherAmps = Math.abs(launcherTorque / LAUNCHER_STALL_TORQUE * LAUNCHER_STALL_CURRENT);
+        launcher.advanceShaft(flywheelSpeed * dt, flywheelSpeed, launcherAmps);
+        totalCurrent += launcherAmps;
+
+        // 7. Battery sag
+        battery.setVoltage(BATTERY_OPEN_VOLTAGE - BATTERY_RESISTANCE * totalCurrent);
+    }
+
+    private void computeWheelSpeeds(double k) {
+        wheelSpeeds[FL] = vx - vy - k * omega;
+        wheelSpeeds[FR] = vx + vy + k * omega;
+        wheelSpeeds[BL] = vx + vy - k * omega;
+        wheelSpeeds[BR] = vx - vy + k * omega;
+    }
+
+    private static double motorTorque(SimMotor motor, double shaftSpeed, double volts, double stallTorque) {
+        double power = motor.getShaftPower();
+        if (power == 0 && !motor.isBraking())
+            return 0;
+
+        return stallTorque * (power * volts / NOMINAL_VOLTAGE - shaftSpeed / motor.getFreeSpeedRadiansPerSecond());
+    }
+
+    /** Adds `delta` to `value`, but friction alone is not allowed to flip the direction. */
+    private static double stopAtZero(double value, double delta) {
+        double next = value + delta;
+        if (value != 0 && Math.signum(next) != Math.signum(value) && Math.abs(next) < 1e-3)
+            return 0;
+        return next;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Ground truth
+    //------------------------------------------------------------------------------------------------
+    public synchronized double getX() {
+        return x;
+    }
+
+    public synchronized double getY() {
+        return y;
+    }
+
+    public synchronized double getHeading() {
+        return heading;
+    }
+
+    public synchronized double getFlywheelSpeed() {
+        return flywheelSpeed;
+    }
+
+    public synchronized void setPose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        vx = vy = omega = 0;
+    }
+}
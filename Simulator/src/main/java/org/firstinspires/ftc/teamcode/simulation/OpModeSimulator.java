@@ -0,0 +1,136 @@
+package org.firstinspires.ftc.teamcode.simulation;
+
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.all_purpose.TelemetryRecorder;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.Locale;
+
+/**
+ * Runs one of OUR OpModes, unmodified, on a `SimulatedRobot`, on a regular computer.
+ * Plays the part of the robot controller app: fills in the hardware map, gamepads
+ * and telemetry, then calls init / start / loop / stop (or `runOpMode()`).
+ *
+ *      ./gradlew :Simulator:run --args="org.firstinspires.ftc.teamcode.self_driving.UselessAuto 30"
+ *
+ * The Simulator module's Gradle build puts TeamCode, the `classes.jar` of the RobotCore,
+ * Hardware and Vision AARs, threetenbp, and Robolectric's `android-all` jar on the classpath
+ * (the SDK uses a few Android classes, like android.opengl.Matrix, even for plain math).
+ * The OpModes built on Pedro Pathing aren't in it, Pedro only ships for Android.
+ * The gamepads are plain `Gamepad` objects, set their fields to "press" buttons.
+ */
+public class OpModeSimulator {
+    public static double LOOP_HZ = 200; // Rough rate of the real event loop for iterative OpModes
+
+    public final SimulatedRobot robot = new SimulatedRobot();
+    public final SimTelemetry telemetry = new SimTelemetry(System.out);
+    public final Gamepad gamepad1 = new Gamepad();
+    public final Gamepad gamepad2 = new Gamepad();
+
+    /** Runs `opMode` for `seconds` of real time, then stops it like the stop button would. */
+    public void run(OpMode opMode, double seconds) throws InterruptedException {
+        // There is no FIRST folder on a computer, record next to where we run instead
+        if (TelemetryRecorder.FOLDER == null)
+            TelemetryRecorder.FOLDER = new File("recordings");
+
+        opMode.hardwareMap = robot.hardwareMap;
+        opMode.telemetry = telemetry;
+        opMode.gamepad1 = gamepad1;
+        opMode.gamepad2 = gamepad2;
+
+        robot.start();
+        try {
+            if (opMode instanceof LinearOpMode) {
+                runLinear((LinearOpMode) opMode, seconds);
+            } else {
+                runIterative(opMode, seconds);
+            }
+        } finally {
+            robot.stop();
+        }
+
+        System.out.println(String.format(Locale.US,
+                "Finished at x = %.3f m, y = %.3f m, heading = %.1f deg (%d physics steps)",
+                robot.physics.getX(),
+                robot.physics.getY(),
+                Math.toDegrees(robot.physics.getHeading()),
+                robot.getStepCount()));
+    }
+
+    private void runIterative(OpMode opMode, double seconds) throws InterruptedException {
+        long periodNanos = (long) (1e9 / LOOP_HZ);
+
+        opMode.init();
+        opMode.start();
+
+        long end = System.nanoTime() + (long) (seconds * 1e9);
+        while (System.nanoTime() < end) {
+            long next = System.nanoTime() + periodNanos;
+            opMode.loop();
+            telemetry.update();
+
+            long wait = next - System.nanoTime();
+            if (wait > 0)
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+        }
+
+        opMode.stop();
+    }
+
+    /**
+     * A LinearOpMode normally gets started by the SDK's OpMode manager. We don't have one,
+     * so the start and stop flags are flipped by hand (they are SDK internals, hence reflection).
+     */
+    private void runLinear(LinearOpMode opMode, double seconds) throws InterruptedException {
+        setInternalFlag(opMode, "isStarted", true);
+
+        Thread opModeThread = new Thread(() -> {
+            try {
+                opMode.runOpMode();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Simulated OpMode");
+        opModeThread.start();
+        opModeThread.join((long) (seconds * 1000));
+
+        setInternalFlag(opMode, "stopRequested", true);
+        opModeThread.interrupt();
+        opModeThread.join(1000);
+    }
+
+    private static void setInternalFlag(OpMode opMode, String name, boolean value) {
+        for (Class<?> type = opMode.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                field.setBoolean(opMode, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                // Keep looking in the superclass
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Can't set " + name + " on " + opMode, e);
+            }
+        }
+        throw new IllegalStateException("This SDK version has no OpMode field named " + name);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Entry point
+    //------------------------------------------------------------------------------------------------
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: OpModeSimulator <OpMode class> [seconds = 30]");
+            return;
+        }
+
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 30;
+        OpMode opMode = (OpMode) Class.forName(args[0]).getDeclaredConstructor().newInstance();
+
+        new OpModeSimulator().run(opMode, seconds);
+    }
+}
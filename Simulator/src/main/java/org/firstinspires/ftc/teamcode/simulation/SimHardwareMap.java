@@ -0,0 +1,59 @@
+package org.firstinspires.ftc.teamcode.simulation;
+
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SDK's `HardwareMap.get()` goes through Android-only code (serial numbers, USB devices)
+ * before it even looks at the devices. This one just looks the device up by name and type,
+ * which is all a simulated robot needs.
+ */
+public class SimHardwareMap extends HardwareMap {
+    public SimHardwareMap() {
+        // No Android context and no OpMode manager on a desktop
+        super(null, null);
+    }
+
+    @Override
+    public <T> T tryGet(Class<? extends T> classOrInterface, String deviceName) {
+        synchronized (lock) {
+            List<HardwareDevice> devices = allDevicesMap.get(deviceName.trim());
+            if (devices == null)
+                return null;
+
+            for (HardwareDevice device : devices) {
+                if (classOrInterface.isInstance(device))
+                    return classOrInterface.cast(device);
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public <T> T get(Class<? extends T> classOrInterface, String deviceName) {
+        T device = tryGet(classOrInterface, deviceName);
+        if (device == null)
+            throw new IllegalArgumentException(String.format(
+                    "Unable to find a simulated %s named \"%s\"", classOrInterface.getSimpleName(), deviceName));
+        return device;
+    }
+
+    @Override
+    public <T> List<T> getAll(Class<? extends T> classOrInterface) {
+        List<T> result = new ArrayList<>();
+        synchronized (lock) {
+            // allDevicesList is only built lazily by the SDK, the map is always there
+            for (List<HardwareDevice> devices : allDevicesMap.values()) {
+                for (HardwareDevice device : devices) {
+                    T match = classOrInterface.isInstance(device) ? classOrInterface.cast(device) : null;
+                    if (match != null && !result.contains(match))
+                        result.add(match);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+package org.firstinspires.ftc.teamcode.simulation;
+
+import com.qualcomm.robotcore.hardware.IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesReference;
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+import org.firstinspires.ftc.robotcore.external.navigation.Quaternion;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+
+/**
+ * An IMU with no hardware behind it. The physics side feeds it the robot heading,
+ * the OpMode side reads it back as yaw, counter-clockwise positive, like the real one.
+ * Optionally waits `readDelayMs` per read to mimic the I2C cost.
+ */
+public class SimImu implements IMU {
+    public static long READ_DELAY_MS = 0;
+
+    private volatile double headingRadians = 0;
+    private volatile double angularVelocityRadians = 0;
+    private volatile double yawOffsetRadians = 0;
+
+    //------------------------------------------------------------------------------------------------
+    // Physics side
+    //------------------------------------------------------------------------------------------------
+    public void setTrueHeading(double radians, double radiansPerSecond) {
+        headingRadians = radians;
+        angularVelocityRadians = radiansPerSecond;
+    }
+
+    private double getYawRadians() {
+        return AngleUnit.normalizeRadians(headingRadians - yawOffsetRadians);
+    }
+
+    private void simulateBusDelay() {
+        if (READ_DELAY_MS <= 0)
+            return;
+
+        try {
+            Thread.sleep(READ_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // IMU
+    //------------------------------------------------------------------------------------------------
+    @Override
+    public boolean initialize(Parameters parameters) {
+        return true;
+    }
+
+    @Override
+    public void resetYaw() {
+        yawOffsetRadians = headingRadians;
+    }
+
+    @Override
+    public YawPitchRollAngles getRobotYawPitchRollAngles() {
+        simulateBusDelay();
+        return new YawPitchRollAngles(AngleUnit.RADIANS, getYawRadians(), 0, 0, System.nanoTime());
+    }
+
+    @Override
+    public Orientation getRobotOrientation(AxesReference reference, AxesOrder order, AngleUnit angleUnit) {
+        simulateBusDelay();
+        return new Orientation(AxesReference.INTRINSIC, AxesOrder.ZYX, AngleUnit.RADIANS,
+                (float) getYawRadians(), 0, 0, System.nanoTime())
+                .toAxesReference(reference)
+                .toAxesOrder(order)
+                .toAngleUnit(angleUnit);
+    }
+
+    @Override
+    public Quaternion getRobotOrientationAsQuaternion() {
+        simulateBusDelay();
+        double half = getYawRadians() / 2;
+        return new Quaternion((float) Math.cos(half), 0, 0, (float) Math.sin(half), System.nanoTime());
+    }
+
+    @Override
+    public AngularVelocity getRobotAngularVelocity(AngleUnit angleUnit) {
+        return new AngularVelocity(AngleUnit.RADIANS, 0, 0, (float) angularVelocityRadians, System.nanoTime())
+                .toAngleUnit(angleUnit);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // HardwareDevice
+    //------------------------------------------------------------------------------------------------
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated IMU";
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "simulation";
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {}
+
+    @Override
+    public void close() {}
+}
@@ -0,0 +1,304 @@
+package org.firstinspires.ftc.teamcode.simulation;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorController;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import com.qualcomm.robotcore.hardware.PIDCoefficients;
+import com.qualcomm.robotcore.hardware.PIDFCoefficients;
+import com.qualcomm.robotcore.hardware.configuration.typecontainers.MotorConfigurationType;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+
+/**
+ * A DcMotorEx with no hardware behind it. The OpMode side sets the power and reads
+ * the encoder like on the real robot, the physics side (`MecanumPhysics`) reads the
+ * power and moves the encoder.
+ *
+ * Like the real motor, `Direction.REVERSE` flips both the power and the encoder,
+ * so the physics side always works in the "shaft" frame.
+ */
+public class SimMotor implements DcMotorEx {
+    private final String name;
+    private final double ticksPerRevolution;
+    private final double freeSpeedRpm;
+
+    private volatile double power = 0;
+    private volatile Direction direction = Direction.FORWARD;
+    private volatile RunMode mode = RunMode.RUN_WITHOUT_ENCODER;
+    private volatile ZeroPowerBehavior zeroPowerBehavior = ZeroPowerBehavior.FLOAT;
+    private volatile boolean enabled = true;
+    private volatile int targetPosition = 0;
+    private volatile int targetPositionTolerance = 5;
+
+    // Shaft frame, written by the physics thread
+    private volatile double shaftTicks = 0;
+    private volatile double shaftTicksPerSecond = 0;
+    private volatile double currentAmps = 0;
+    private volatile double encoderOffset = 0;
+
+    public SimMotor(String name, double ticksPerRevolution, double freeSpeedRpm) {
+        this.name = name;
+        this.ticksPerRevolution = ticksPerRevolution;
+        this.freeSpeedRpm = freeSpeedRpm;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Physics side
+    //------------------------------------------------------------------------------------------------
+
+    /** Commanded power as seen by the shaft (direction applied), 0 when disabled. */
+    public double getShaftPower() {
+        if (!enabled || mode == RunMode.STOP_AND_RESET_ENCODER)
+            return 0;
+        return direction == Direction.REVERSE ? -power : power;
+    }
+
+    public boolean isBraking() {
+        return zeroPowerBehavior == ZeroPowerBehavior.BRAKE;
+    }
+
+    /** Moves the shaft by `radians` and sets its speed, both in the shaft frame. */
+    public void advanceShaft(double radians, double radiansPerSecond, double amps) {
+        shaftTicks += radians / (2 * Math.PI) * ticksPerRevolution;
+        shaftTicksPerSecond = radiansPerSecond / (2 * Math.PI) * ticksPerRevolution;
+        currentAmps = amps;
+    }
+
+    public double getTicksPerRevolution() {
+        return ticksPerRevolution;
+    }
+
+    public double getFreeSpeedRadiansPerSecond() {
+        return freeSpeedRpm / 60.0 * 2 * Math.PI;
+    }
+
+    private double directionSign() {
+        return direction == Direction.REVERSE ? -1 : 1;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // DcMotorSimple
+    //------------------------------------------------------------------------------------------------
+    @Override
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public void setPower(double power) {
+        this.power = Math.max(-1, Math.min(1, power));
+    }
+
+    @Override
+    public double getPower() {
+        return power;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // DcMotor
+    //------------------------------------------------------------------------------------------------
+    @Override
+    public MotorConfigurationType getMotorType() {
+        return MotorConfigurationType.getUnspecifiedMotorType();
+    }
+
+    @Override
+    public void setMotorType(MotorConfigurationType motorType) {}
+
+    @Override
+    public DcMotorController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    @Override
+    public void setZeroPowerBehavior(ZeroPowerBehavior zeroPowerBehavior) {
+        this.zeroPowerBehavior = zeroPowerBehavior;
+    }
+
+    @Override
+    public ZeroPowerBehavior getZeroPowerBehavior() {
+        return zeroPowerBehavior;
+    }
+
+    @Override
+    @Deprecated
+    public void setPowerFloat() {
+        zeroPowerBehavior = ZeroPowerBehavior.FLOAT;
+        power = 0;
+    }
+
+    @Override
+    public boolean getPowerFloat() {
+        return zeroPowerBehavior == ZeroPowerBehavior.FLOAT && power == 0;
+    }
+
+    @Override
+    public void setTargetPosition(int position) {
+        targetPosition = position;
+    }
+
+    @Override
+    public int getTargetPosition() {
+        return targetPosition;
+    }
+
+    @Override
+    public boolean isBusy() {
+        return mode == RunMode.RUN_TO_POSITION
+                && Math.abs(getCurrentPosition() - targetPosition) > targetPositionTolerance;
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        return (int) Math.round(directionSign() * (shaftTicks - encoderOffset));
+    }
+
+    @Override
+    public void setMode(RunMode mode) {
+        if (mode == RunMode.STOP_AND_RESET_ENCODER) {
+            encoderOffset = shaftTicks;
+            power = 0;
+        }
+        this.mode = mode;
+    }
+
+    @Override
+    public RunMode getMode() {
+        return mode;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // DcMotorEx
+    //------------------------------------------------------------------------------------------------
+    @Override
+    public void setMotorEnable() {
+        enabled = true;
+    }
+
+    @Override
+    public void setMotorDisable() {
+        enabled = false;
+    }
+
+    @Override
+    public boolean isMotorEnabled() {
+        return enabled;
+    }
+
+    /** Only RUN_WITHOUT_ENCODER is simulated, velocity control is approximated as open loop. */
+    @Override
+    public void setVelocity(double angularRate) {
+        setPower(angularRate / (ticksPerRevolution * freeSpeedRpm / 60.0));
+    }
+
+    @Override
+    public void setVelocity(double angularRate, AngleUnit unit) {
+        setVelocity(unit.toRadians(angularRate) / (2 * Math.PI) * ticksPerRevolution);
+    }
+
+    @Override
+    public double getVelocity() {
+        return directionSign() * shaftTicksPerSecond;
+    }
+
+    @Override
+    public double getVelocity(AngleUnit unit) {
+        return unit.fromRadians(getVelocity() / ticksPerRevolution * 2 * Math.PI);
+    }
+
+    @Override
+    @Deprecated
+    public void setPIDCoefficients(RunMode mode, PIDCoefficients pidCoefficients) {}
+
+    @Override
+    public void setPIDFCoefficients(RunMode mode, PIDFCoefficients pidfCoefficients) {}
+
+    @Override
+    public void setVelocityPIDFCoefficients(double p, double i, double d, double f) {}
+
+    @Override
+    public void setPositionPIDFCoefficients(double p) {}
+
+    @Override
+    @Deprecated
+    public PIDCoefficients getPIDCoefficients(RunMode mode) {
+        return new PIDCoefficients();
+    }
+
+    @Override
+    public PIDFCoefficients getPIDFCoefficients(RunMode mode) {
+        return new PIDFCoefficients();
+    }
+
+    @Override
+    public void setTargetPositionTolerance(int tolerance) {
+        targetPositionTolerance = tolerance;
+    }
+
+    @Override
+    public int getTargetPositionTolerance() {
+        return targetPositionTolerance;
+    }
+
+    @Override
+    public double getCurrent(CurrentUnit unit) {
+        return unit == CurrentUnit.AMPS ? currentAmps : currentAmps * 1000;
+    }
+
+    @Override
+    public double getCurrentAlert(CurrentUnit unit) {
+        return 0;
+    }
+
+    @Override
+    public void setCurrentAlert(double current, CurrentUnit unit) {}
+
+    @Override
+    public boolean isOverCurrent() {
+        return false;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // HardwareDevice
+    //------------------------------------------------------------------------------------------------
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated Motor " + name;
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "simulation";
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+        direction = Direction.FORWARD;
+        mode = RunMode.RUN_WITHOUT_ENCODER;
+    }
+
+    @Override
+    public void close() {}
+}
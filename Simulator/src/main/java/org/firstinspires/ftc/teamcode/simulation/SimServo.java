@@ -0,0 +1,93 @@
+package org.firstinspires.ftc.teamcode.simulation;
+
+import com.qualcomm.robotcore.hardware.Servo;
+import com.qualcomm.robotcore.hardware.ServoController;
+
+/**
+ * A Servo with no hardware behind it. It simply remembers the last position,
+ * and counts how many times it was written to.
+ */
+public class SimServo implements Servo {
+    private final String name;
+    private volatile double position = 0;
+    private volatile Direction direction = Direction.FORWARD;
+    private volatile double rangeMin = MIN_POSITION;
+    private volatile double rangeMax = MAX_POSITION;
+    private volatile long writeCount = 0;
+
+    public SimServo(String name) {
+        this.name = name;
+    }
+
+    /** How many times `setPosition()` was called, handy to check the output cache. */
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    @Override
+    public ServoController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public void setPosition(double position) {
+        this.position = Math.max(MIN_POSITION, Math.min(MAX_POSITION, position));
+        writeCount++;
+    }
+
+    @Override
+    public double getPosition() {
+        return position;
+    }
+
+    @Override
+    public void scaleRange(double min, double max) {
+        rangeMin = min;
+        rangeMax = max;
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated Servo " + name;
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "simulation";
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+        direction = Direction.FORWARD;
+        rangeMin = MIN_POSITION;
+        rangeMax = MAX_POSITION;
+    }
+
+    @Override
+    public void close() {}
+}
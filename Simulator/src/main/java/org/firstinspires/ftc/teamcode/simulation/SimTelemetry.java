@@ -0,0 +1,328 @@
+package org.firstinspires.ftc.teamcode.simulation;
+
+import org.firstinspires.ftc.robotcore.external.Func;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Driver hub telemetry, printed to the console instead.
+ * Follows the real rules: items are cleared by `update()` unless retained,
+ * and at most one transmission every `getMsTransmissionInterval()`.
+ */
+public class SimTelemetry implements Telemetry {
+    private final PrintStream out;
+    private final ArrayList<SimItem> items = new ArrayList<>();
+    private final SimLog log = new SimLog();
+
+    private boolean autoClear = true;
+    private int msTransmissionInterval = 250;
+    private String itemSeparator = " | ";
+    private String captionValueSeparator = " : ";
+    private long lastTransmitNanos = 0;
+
+    public SimTelemetry(PrintStream out) {
+        this.out = out;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Items
+    //------------------------------------------------------------------------------------------------
+    private class SimItem implements Item {
+        private String caption;
+        private Func<?> value;
+        private boolean retained = false;
+
+        SimItem(String caption, Func<?> value) {
+            this.caption = caption;
+            this.value = value;
+        }
+
+        String render() {
+            Object current = value.value();
+            return caption.isEmpty() ? String.valueOf(current) : caption + captionValueSeparator + current;
+        }
+
+        @Override
+        public String getCaption() {
+            return caption;
+        }
+
+        @Override
+        public Item setCaption(String caption) {
+            this.caption = caption;
+            return this;
+        }
+
+        @Override
+        public Item setValue(String format, Object... args) {
+            final String text = String.format(Locale.US, format, args);
+            value = () -> text;
+            return this;
+        }
+
+        @Override
+        public Item setValue(Object value) {
+            this.value = () -> value;
+            return this;
+        }
+
+        @Override
+        public <T> Item setValue(Func<T> valueProducer) {
+            value = valueProducer;
+            return this;
+        }
+
+        @Override
+        public <T> Item setValue(String format, Func<T> valueProducer) {
+            value = () -> String.format(Locale.US, format, valueProducer.value());
+            return this;
+        }
+
+        @Override
+        public Item setRetained(Boolean retained) {
+            this.retained = retained != null && retained;
+            return this;
+        }
+
+        @Override
+        public boolean isRetained() {
+            return retained;
+        }
+
+        @Override
+        public Item addData(String caption, String format, Object... args) {
+            return SimTelemetry.this.addData(caption, format, args);
+        }
+
+        @Override
+        public Item addData(String caption, Object value) {
+            return SimTelemetry.this.addData(caption, value);
+        }
+
+        @Override
+        public <T> Item addData(String caption, Func<T> valueProducer) {
+            return SimTelemetry.this.addData(caption, valueProducer);
+        }
+
+        @Override
+        public <T> Item addData(String caption, String format, Func<T> valueProducer) {
+            return SimTelemetry.this.addData(caption, format, valueProducer);
+        }
+    }
+
+    /** Lines are flattened into plain items, the console has no columns anyway. */
+    private class SimLine implements Line {
+        @Override
+        public Item addData(String caption, String format, Object... args) {
+            return SimTelemetry.this.addData(caption, format, args);
+        }
+
+        @Override
+        public Item addData(String caption, Object value) {
+            return SimTelemetry.this.addData(caption, value);
+        }
+
+        @Override
+        public <T> Item addData(String caption, Func<T> valueProducer) {
+            return SimTelemetry.this.addData(caption, valueProducer);
+        }
+
+        @Override
+        public <T> Item addData(String caption, String format, Func<T> valueProducer) {
+            return SimTelemetry.this.addData(caption, format, valueProducer);
+        }
+    }
+
+    private class SimLog implements Log {
+        private int capacity = 9;
+        private DisplayOrder displayOrder = DisplayOrder.OLDEST_FIRST;
+
+        @Override
+        public int getCapacity() {
+            return capacity;
+        }
+
+        @Override
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public DisplayOrder getDisplayOrder() {
+            return displayOrder;
+        }
+
+        @Override
+        public void setDisplayOrder(DisplayOrder displayOrder) {
+            this.displayOrder = displayOrder;
+        }
+
+        @Override
+        public void add(String entry) {
+            out.println("[log] " + entry);
+        }
+
+        @Override
+        public void add(String format, Object... args) {
+            add(String.format(Locale.US, format, args));
+        }
+
+        @Override
+        public void clear() {}
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Telemetry
+    //------------------------------------------------------------------------------------------------
+    @Override
+    public Item addData(String caption, String format, Object... args) {
+        return addData(caption, (Object) String.format(Locale.US, format, args));
+    }
+
+    @Override
+    public Item addData(String caption, Object value) {
+        SimItem item = new SimItem(caption, () -> value);
+        items.add(item);
+        return item;
+    }
+
+    @Override
+    public <T> Item addData(String caption, Func<T> valueProducer) {
+        SimItem item = new SimItem(caption, valueProducer);
+        items.add(item);
+        return item;
+    }
+
+    @Override
+    public <T> Item addData(String caption, String format, Func<T> valueProducer) {
+        SimItem item = new SimItem(caption, () -> String.format(Locale.US, format, valueProducer.value()));
+        items.add(item);
+        return item;
+    }
+
+    @Override
+    public boolean removeItem(Item item) {
+        return items.remove(item);
+    }
+
+    @Override
+    public void clear() {
+        for (int i = items.size() - 1; i >= 0; i--) {
+            if (!items.get(i).isRetained())
+                items.remove(i);
+        }
+    }
+
+    @Override
+    public void clearAll() {
+        items.clear();
+    }
+
+    @Override
+    public Object addAction(Runnable action) {
+        return action;
+    }
+
+    @Override
+    public boolean removeAction(Object token) {
+        return true;
+    }
+
+    @Override
+    public void speak(String text) {
+        out.println("[speak] " + text);
+    }
+
+    @Override
+    public void speak(String text, String languageCode, String countryCode) {
+        speak(text);
+    }
+
+    @Override
+    public boolean update() {
+        long now = System.nanoTime();
+        boolean transmitted = false;
+
+        if ((now - lastTransmitNanos) / 1_000_000 >= msTransmissionInterval) {
+            lastTransmitNanos = now;
+            transmitted = true;
+
+            StringBuilder text = new StringBuilder("---- telemetry ----");
+            for (SimItem item : items) {
+                text.append('\n').append(item.render());
+            }
+            out.println(text);
+        }
+
+        if (autoClear)
+            clear();
+        return transmitted;
+    }
+
+    @Override
+    public Line addLine() {
+        return new SimLine();
+    }
+
+    @Override
+    public Line addLine(String lineCaption) {
+        addData("", lineCaption);
+        return new SimLine();
+    }
+
+    @Override
+    public boolean removeLine(Line line) {
+        return false;
+    }
+
+    @Override
+    public boolean isAutoClear() {
+        return autoClear;
+    }
+
+    @Override
+    public void setAutoClear(boolean autoClear) {
+        this.autoClear = autoClear;
+    }
+
+    @Override
+    public int getMsTransmissionInterval() {
+        return msTransmissionInterval;
+    }
+
+    @Override
+    public void setMsTransmissionInterval(int msTransmissionInterval) {
+        this.msTransmissionInterval = msTransmissionInterval;
+    }
+
+    @Override
+    public String getItemSeparator() {
+        return itemSeparator;
+    }
+
+    @Override
+    public void setItemSeparator(String itemSeparator) {
+        this.itemSeparator = itemSeparator;
+    }
+
+    @Override
+    public String getCaptionValueSeparator() {
+        return captionValueSeparator;
+    }
+
+    @Override
+    public void setCaptionValueSeparator(String captionValueSeparator) {
+        this.captionValueSeparator = captionValueSeparator;
+    }
+
+    @Override
+    public void setDisplayFormat(DisplayFormat displayFormat) {}
+
+    @Override
+    public Log log() {
+        return log;
+    }
+}
@@ -0,0 +1,49 @@
+package org.firstinspires.ftc.teamcode.simulation;
+
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+/**
+ * A battery with no hardware behind it. The physics side sags it with the current draw.
+ */
+public class SimVoltageSensor implements VoltageSensor {
+    private volatile double voltage;
+
+    public SimVoltageSensor(double voltage) {
+        this.voltage = voltage;
+    }
+
+    public void setVoltage(double voltage) {
+        this.voltage = voltage;
+    }
+
+    @Override
+    public double getVoltage() {
+        return voltage;
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated Battery";
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "simulation";
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {}
+
+    @Override
+    public void close() {}
+}
@@ -0,0 +1,102 @@
+package org.firstinspires.ftc.teamcode.simulation;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Our robot, without the robot. Builds a `HardwareMap` filled with simulated devices
+ * under the SAME names as the driver hub configuration, so `HardwareManager`
+ * (and every OpMode built on it) can be created unmodified:
+ *
+ *      SimulatedRobot robot = new SimulatedRobot();
+ *      HardwareManager hardwareManager = new HardwareManager(robot.hardwareMap);
+ *      robot.start();   // physics now runs in the background at PHYSICS_HZ
+ *
+ * There are no Lynx hubs in the map, so bulk caching is simply skipped.
+ */
+public class SimulatedRobot {
+    public static int PHYSICS_HZ = 500;
+
+    // Drive motors: goBILDA 312 RPM, same counts per revolution as SelfDriving uses
+    public static double DRIVE_TICKS_PER_REV = 900;
+    public static double DRIVE_FREE_SPEED_RPM = 312;
+    // Launcher: bare 6000 RPM motor
+    public static double LAUNCHER_TICKS_PER_REV = 28;
+    public static double LAUNCHER_FREE_SPEED_RPM = 6000;
+
+    public final HardwareMap hardwareMap;
+    public final MecanumPhysics physics;
+
+    public final SimMotor frontLeftWheel = new SimMotor("FrontLeftM", DRIVE_TICKS_PER_REV, DRIVE_FREE_SPEED_RPM);
+    public final SimMotor frontRightWheel = new SimMotor("FrontRightM", DRIVE_TICKS_PER_REV, DRIVE_FREE_SPEED_RPM);
+    public final SimMotor backLeftWheel = new SimMotor("BackLeftM", DRIVE_TICKS_PER_REV, DRIVE_FREE_SPEED_RPM);
+    public final SimMotor backRightWheel = new SimMotor("BackRightM", DRIVE_TICKS_PER_REV, DRIVE_FREE_SPEED_RPM);
+    public final SimMotor wheelLauncher = new SimMotor("LauncherM", LAUNCHER_TICKS_PER_REV, LAUNCHER_FREE_SPEED_RPM);
+    public final SimServo stopper = new SimServo("StopperS");
+    public final SimServo flinger = new SimServo("FlingerS");
+    public final SimImu imu = new SimImu();
+    public final SimVoltageSensor battery = new SimVoltageSensor(MecanumPhysics.BATTERY_OPEN_VOLTAGE);
+
+    private ScheduledExecutorService physicsThread;
+    private volatile long steps = 0;
+
+    public SimulatedRobot() {
+        hardwareMap = new SimHardwareMap();
+
+        hardwareMap.dcMotor.put("FrontLeftM", frontLeftWheel);
+        hardwareMap.dcMotor.put("FrontRightM", frontRightWheel);
+        hardwareMap.dcMotor.put("BackLeftM", backLeftWheel);
+        hardwareMap.dcMotor.put("BackRightM", backRightWheel);
+        hardwareMap.dcMotor.put("LauncherM", wheelLauncher);
+        hardwareMap.servo.put("StopperS", stopper);
+        hardwareMap.servo.put("FlingerS", flinger);
+        hardwareMap.voltageSensor.put("Control Hub", battery);
+        hardwareMap.put("imu", imu);
+
+        // By corner: like on the robot, BackRightM drives the front right wheel and
+        // FrontRightM the back right one (see MecanumKinematics)
+        physics = new MecanumPhysics(
+                new SimMotor[] {frontLeftWheel, backRightWheel, backLeftWheel, frontRightWheel},
+                wheelLauncher, imu, battery);
+    }
+
+    /** Starts stepping the physics in real time, at a fixed PHYSICS_HZ. */
+    public void start() {
+        if (physicsThread != null)
+            return;
+
+        final double dt = 1.0 / PHYSICS_HZ;
+        physicsThread = Executors.newSingleThreadScheduledExecutor();
+        physicsThread.scheduleAtFixedRate(() -> {
+            physics.step(dt);
+            steps++;
+        }, 0, 1_000_000_000L / PHYSICS_HZ, TimeUnit.NANOSECONDS);
+    }
+
+    public void stop() {
+        if (physicsThread == null)
+            return;
+
+        physicsThread.shutdownNow();
+        physicsThread = null;
+    }
+
+    /**
+     * Steps the physics by hand instead of in real time, for runs that should
+     * give the exact same result every time. Don't mix with `start()`.
+     */
+    public void stepManually(double seconds) {
+        double dt = 1.0 / PHYSICS_HZ;
+        for (double t = 0; t < seconds; t += dt) {
+            physics.step(dt);
+            steps++;
+        }
+    }
+
+    public long getStepCount() {
+        return steps;
+    }
+}
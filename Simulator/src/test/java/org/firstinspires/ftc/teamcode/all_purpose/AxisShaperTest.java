@@ -0,0 +1,89 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * `AxisShaper`: the deadband and the expo on their own, then the slew limit,
+ * cycle by cycle with made up timestamps.
+ */
+public class AxisShaperTest {
+    private static final double EPSILON = 1e-9;
+    private static final long MS = 1_000_000;
+
+    @Test
+    public void deadbandStartsFromZeroJustPastIt() {
+        assertEquals(0, AxisShaper.applyDeadband(0.05, 0.05), EPSILON);
+        assertEquals(0, AxisShaper.applyDeadband(-0.03, 0.05), EPSILON);
+        assertEquals(0.5, AxisShaper.applyDeadband(0.525, 0.05), EPSILON);
+        assertEquals(-1, AxisShaper.applyDeadband(-1, 0.05), EPSILON);
+    }
+
+    @Test
+    public void expoKeepsTheEndsAndSoftensTheMiddle() {
+        assertEquals(1, AxisShaper.applyExpo(1, 0.5), EPSILON);
+        assertEquals(-1, AxisShaper.applyExpo(-1, 0.5), EPSILON);
+        assertEquals(0.5 * 0.5 + 0.5 * 0.125, AxisShaper.applyExpo(0.5, 0.5), EPSILON);
+        assertEquals(0.5, AxisShaper.applyExpo(0.5, 0), EPSILON);
+    }
+
+    @Test
+    public void withoutSlewItFollowsTheStick() {
+        AxisShaper shaper = new AxisShaper().deadband(0.05);
+
+        assertEquals(1, shaper.shape(1, 10 * MS), EPSILON);
+        assertEquals(-1, shaper.shape(-1, 20 * MS), EPSILON);
+    }
+
+    @Test
+    public void speedsUpAtTheRisingRate() {
+        AxisShaper shaper = new AxisShaper().slew(4, 10);
+
+        assertEquals(0, shaper.shape(1, 100 * MS), EPSILON);      // First call, no time passed yet
+        assertEquals(0.4, shaper.shape(1, 200 * MS), EPSILON);    // 4 per second for 0.1 s
+        assertEquals(0.8, shaper.shape(1, 300 * MS), EPSILON);
+        assertEquals(1, shaper.shape(1, 400 * MS), EPSILON);
+    }
+
+    @Test
+    public void slowsDownAtTheFallingRate() {
+        AxisShaper shaper = new AxisShaper().slew(4, 10);
+        shaper.shape(1, 100 * MS);
+        shaper.shape(1, 400 * MS);
+
+        assertEquals(0.5, shaper.shape(0, 450 * MS), EPSILON);    // 10 per second for 0.05 s
+        assertEquals(0, shaper.shape(0, 500 * MS), EPSILON);
+    }
+
+    @Test
+    public void reversingFallsToZeroThenRisesPastIt() {
+        AxisShaper shaper = new AxisShaper().slew(4, 10);
+        shaper.shape(1, 100 * MS);
+        shaper.shape(1, 400 * MS);
+
+        // 0.1 s at 10 per second to get from 1 to 0, the other 0.1 s at 4 per second
+        assertEquals(-0.4, shaper.shape(-1, 600 * MS), EPSILON);
+    }
+
+    @Test
+    public void reversingStopsAtTheFallingRateFirst() {
+        AxisShaper shaper = new AxisShaper().slew(4, 10);
+        shaper.shape(1, 100 * MS);
+        shaper.shape(1, 400 * MS);
+
+        // Not past 0 yet: the rising rate must not be used while slowing down
+        assertEquals(0.5, shaper.shape(-1, 450 * MS), EPSILON);
+    }
+
+    @Test
+    public void resetGoesBackToZero() {
+        AxisShaper shaper = new AxisShaper().slew(4, 10);
+        shaper.shape(1, 100 * MS);
+        shaper.shape(1, 400 * MS);
+        shaper.reset();
+
+        assertEquals(0, shaper.getOutput(), EPSILON);
+        assertEquals(0, shaper.shape(1, 500 * MS), EPSILON);      // Like a first call again
+    }
+}
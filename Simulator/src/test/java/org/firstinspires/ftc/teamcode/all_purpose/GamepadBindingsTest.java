@@ -0,0 +1,157 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * `GamepadBindings`: a real SDK `Gamepad` with its fields flipped by hand,
+ * then one `update()` per "loop".
+ */
+public class GamepadBindingsTest {
+    private static final long MS = 1_000_000;
+
+    private Gamepad gamepad;
+    private GamepadBindings bindings;
+    private long now;
+    private int runs;
+
+    @Before
+    public void setUp() {
+        gamepad = new Gamepad();
+        bindings = new GamepadBindings(gamepad);
+        now = 1000 * MS;
+        runs = 0;
+    }
+
+    private void loop() {
+        now += 20 * MS;
+        bindings.update(now);
+    }
+
+    @Test
+    public void onPressRunsOncePerPress() {
+        bindings.onPress(GamepadBindings.A, () -> runs++);
+
+        gamepad.a = true;
+        loop();
+        loop();
+        loop();
+        assertEquals(1, runs);
+
+        gamepad.a = false;
+        loop();
+        gamepad.a = true;
+        loop();
+        assertEquals(2, runs);
+    }
+
+    @Test
+    public void onReleaseRunsWhenLetGo() {
+        bindings.onRelease(GamepadBindings.B, () -> runs++);
+
+        gamepad.b = true;
+        loop();
+        assertEquals(0, runs);
+        gamepad.b = false;
+        loop();
+        loop();
+        assertEquals(1, runs);
+    }
+
+    @Test
+    public void whileHeldRunsEveryLoop() {
+        bindings.whileHeld(GamepadBindings.RIGHT_BUMPER, () -> runs++);
+
+        gamepad.right_bumper = true;
+        loop();
+        loop();
+        loop();
+        gamepad.right_bumper = false;
+        loop();
+        assertEquals(3, runs);
+    }
+
+    @Test
+    public void laterBindingRunsLastWhenBothAreHeld() {
+        double[] position = {-1};
+        bindings.whileHeld(GamepadBindings.RIGHT_TRIGGER, () -> position[0] = 0)
+                .whileHeld(GamepadBindings.RIGHT_BUMPER, () -> position[0] = 0.25);
+
+        gamepad.right_trigger = 1;
+        gamepad.right_bumper = true;
+        loop();
+        assertEquals(0.25, position[0], 0);
+
+        gamepad.right_bumper = false;
+        loop();
+        assertEquals(0, position[0], 0);
+    }
+
+    @Test
+    public void triggerNeedsToPassTheThreshold() {
+        gamepad.left_trigger = (float) (GamepadBindings.TRIGGER_THRESHOLD / 2);
+        assertEquals(0, GamepadBindings.readButtons(gamepad));
+
+        gamepad.left_trigger = 1;
+        assertEquals(GamepadBindings.LEFT_TRIGGER, GamepadBindings.readButtons(gamepad));
+    }
+
+    @Test
+    public void toggleFlipsOnEveryPress() {
+        boolean[] state = {false};
+        bindings.toggle(GamepadBindings.X, (on) -> state[0] = on);
+
+        gamepad.x = true;
+        loop();
+        assertTrue(state[0]);
+        loop();
+        assertTrue(state[0]);   // Still held, no new press
+        gamepad.x = false;
+        loop();
+        gamepad.x = true;
+        loop();
+        assertFalse(state[0]);
+    }
+
+    @Test
+    public void doubleTapNeedsTwoQuickPresses() {
+        bindings.doubleTap(GamepadBindings.Y, () -> runs++);
+
+        tap();
+        now += (long) (GamepadBindings.DOUBLE_TAP_SECONDS * 1e9);  // Too late for the first one
+        tap();
+        assertEquals(0, runs);
+
+        tap();
+        assertEquals(1, runs);
+    }
+
+    private void tap() {
+        gamepad.y = true;
+        loop();
+        gamepad.y = false;
+        loop();
+    }
+
+    @Test
+    public void gettersSeeTheLastUpdate() {
+        gamepad.a = true;
+        gamepad.dpad_up = true;
+        loop();
+
+        assertTrue(bindings.isHeld(GamepadBindings.A));
+        assertTrue(bindings.wasPressed(GamepadBindings.DPAD_UP));
+        assertTrue(bindings.isAnyHeld(GamepadBindings.B | GamepadBindings.A));
+        assertFalse(bindings.isAnyHeld(GamepadBindings.B | GamepadBindings.X));
+        assertEquals(GamepadBindings.A | GamepadBindings.DPAD_UP, bindings.getButtons());
+
+        loop();
+        assertFalse(bindings.wasPressed(GamepadBindings.DPAD_UP));
+    }
+}
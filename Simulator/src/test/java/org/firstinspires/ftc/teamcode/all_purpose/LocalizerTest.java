@@ -0,0 +1,209 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import org.firstinspires.ftc.teamcode.simulation.SimImu;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * `Localizer.addPoseFix()`: which fixes are taken as is, pulled in part of the way,
+ * or thrown away, and when the pose counts as relocalized.
+ *
+ * The odometry is a `ScriptedLocalizer` moved by hand, with HISTORY_CYCLES poses
+ * CYCLE_NANOS apart, the newest one at the snapshot's time (fix ages are measured from it).
+ */
+public class LocalizerTest {
+    private static final double EPSILON = 1e-9;
+    private static final long CYCLE_NANOS = 10_000_000;
+    private static final int HISTORY_CYCLES = 20;
+
+    /** A localizer whose odometry is whatever the test says. */
+    private static class ScriptedLocalizer extends Localizer {
+        ScriptedLocalizer(SensorSnapshot sensors) {
+            super(sensors);
+        }
+
+        void moveTo(long timestampNanos, double x, double y, double heading) {
+            this.x = x;
+            this.y = y;
+            this.heading = heading;
+            recordPose(timestampNanos);
+        }
+
+        @Override
+        void update() {}
+
+        @Override
+        protected double getSensorHeading() {
+            return 0;
+        }
+    }
+
+    private ScriptedLocalizer localizer;
+    private long now;
+
+    @Before
+    public void setUp() {
+        SensorSnapshot sensors = new SensorSnapshot(new DcMotorEx[0], new ImuReader(new SimImu()));
+        sensors.update();
+        now = sensors.getTimestampNanos();
+        localizer = new ScriptedLocalizer(sensors);
+
+        // Standing still at (0, 0, 0)
+        for (int i = 0; i < HISTORY_CYCLES; i++)
+            localizer.moveTo(cycle(i), 0, 0, 0);
+    }
+
+    /** The time of history entry `i`, 0 = the oldest. */
+    private long cycle(int i) {
+        return now - (HISTORY_CYCLES - 1 - i) * CYCLE_NANOS;
+    }
+
+    private void assertPose(double x, double y, double heading) {
+        assertEquals(x, localizer.getX(), EPSILON);
+        assertEquals(y, localizer.getY(), EPSILON);
+        assertEquals(heading, localizer.getHeading(), EPSILON);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Taken as is
+    //------------------------------------------------------------------------------------------------
+
+    @Test
+    public void firstFixIsTakenAsIs() {
+        assertFalse(localizer.hasFix());
+
+        localizer.addPoseFix(1, 2, 0.5, cycle(10), 1.5);
+
+        assertPose(1, 2, 0.5);
+        assertTrue(localizer.hasFix());
+        assertEquals(1, localizer.getFixCount());
+        assertEquals(1, localizer.getRelocalizeCount());
+    }
+
+    @Test
+    public void firstFixIsReplayedOntoTheMovesSinceIt() {
+        // The robot drove 1 m forward after the frame was taken
+        for (int i = 11; i < HISTORY_CYCLES; i++)
+            localizer.moveTo(cycle(i), (i - 10) / 9.0, 0, 0);
+
+        // The frame says it was facing left back then: the 1 m went to the left
+        localizer.addPoseFix(0, 0, Math.PI / 2, cycle(10), 1);
+
+        assertPose(0, 1, Math.PI / 2);
+    }
+
+    @Test
+    public void relocalizesAfterEnoughRejectionsInARow() {
+        localizer.addPoseFix(0, 0, 0, cycle(10), 0);
+
+        // Pushed 1 m, the odometry didn't see it: at first the fixes look like outliers
+        for (int i = 0; i < Localizer.RELOCALIZE_AFTER_REJECTIONS; i++)
+            localizer.addPoseFix(1, 0, 0, cycle(10), 0);
+        assertPose(0, 0, 0);
+        assertEquals(Localizer.RELOCALIZE_AFTER_REJECTIONS, localizer.getRejectedFixCount());
+
+        localizer.addPoseFix(1, 0, 0, cycle(10), 0);
+        assertPose(1, 0, 0);
+        assertEquals(2, localizer.getRelocalizeCount());
+    }
+
+    @Test
+    public void goodFixEndsTheRejectionStreak() {
+        localizer.addPoseFix(0, 0, 0, cycle(10), 0);
+        for (int i = 0; i < Localizer.RELOCALIZE_AFTER_REJECTIONS - 1; i++)
+            localizer.addPoseFix(1, 0, 0, cycle(10), 0);
+        localizer.addPoseFix(0, 0, 0, cycle(10), 0);
+
+        localizer.addPoseFix(1, 0, 0, cycle(10), 0);
+        assertPose(0, 0, 0);
+        assertEquals(1, localizer.getRelocalizeCount());
+    }
+
+    @Test
+    public void setPoseIsARelocalizationAndForgetsTheHistory() {
+        localizer.setPose(3, 4, 1);
+
+        assertPose(3, 4, 1);
+        assertEquals(1, localizer.getRelocalizeCount());
+
+        // That frame was before the new pose, in the old frame
+        localizer.addPoseFix(3, 4, 1, cycle(10), 0);
+        assertEquals(1, localizer.getRejectedFixCount());
+        assertFalse(localizer.hasFix());
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Pulled in part of the way
+    //------------------------------------------------------------------------------------------------
+
+    @Test
+    public void laterFixesArePulledInByTheGain() {
+        localizer.addPoseFix(0, 0, 0, cycle(10), 0);
+
+        localizer.addPoseFix(0.1, 0, 0.1, cycle(12), Localizer.FIX_FULL_TRUST_RANGE);
+
+        assertPose(0.1 * Localizer.FIX_GAIN, 0, 0.1 * Localizer.FIX_HEADING_GAIN);
+        assertEquals(2, localizer.getFixCount());
+        assertEquals(1, localizer.getRelocalizeCount());
+    }
+
+    @Test
+    public void fartherFixesAreTrustedLess() {
+        localizer.addPoseFix(0, 0, 0, cycle(10), 0);
+
+        localizer.addPoseFix(0, 0.1, 0, cycle(12), 2 * Localizer.FIX_FULL_TRUST_RANGE);
+
+        assertPose(0, 0.1 * Localizer.FIX_GAIN / 2, 0);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Thrown away
+    //------------------------------------------------------------------------------------------------
+
+    @Test
+    public void outlierIsRejected() {
+        localizer.addPoseFix(0, 0, 0, cycle(10), 0);
+
+        localizer.addPoseFix(Localizer.MAX_FIX_JUMP + 0.01, 0, 0, cycle(12), 0);
+        localizer.addPoseFix(0, 0, Math.toRadians(Localizer.MAX_FIX_HEADING_JUMP_DEGREES + 1), cycle(12), 0);
+
+        assertPose(0, 0, 0);
+        assertEquals(2, localizer.getRejectedFixCount());
+        assertEquals(1, localizer.getFixCount());
+    }
+
+    @Test
+    public void fartherTagsAreAllowedMoreError() {
+        localizer.addPoseFix(0, 0, 0, cycle(10), 0);
+
+        // Over MAX_FIX_JUMP, but from 2 m away
+        double jump = Localizer.MAX_FIX_JUMP + Localizer.FIX_JUMP_PER_METER;
+        localizer.addPoseFix(jump, 0, 0, cycle(12), 2);
+
+        assertEquals(0, localizer.getRejectedFixCount());
+        assertTrue(localizer.getX() > 0);
+    }
+
+    @Test
+    public void fixOlderThanTheHistoryIsRejected() {
+        localizer.addPoseFix(1, 1, 0, cycle(0) - CYCLE_NANOS, 0);
+
+        assertPose(0, 0, 0);
+        assertEquals(1, localizer.getRejectedFixCount());
+        assertFalse(localizer.hasFix());
+    }
+
+    @Test
+    public void fixOlderThanMaxAgeIsRejected() {
+        localizer.addPoseFix(1, 1, 0, now - (long) ((Localizer.MAX_FIX_AGE_MS + 1) * 1e6), 0);
+
+        assertPose(0, 0, 0);
+        assertEquals(1, localizer.getRejectedFixCount());
+    }
+}
@@ -0,0 +1,125 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import org.firstinspires.ftc.teamcode.simulation.SimulatedRobot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * `MecanumKinematics`, and that the TeleOp, the `MecanumLocalizer` and the simulator
+ * agree on it: wheel powers mixed like the TeleOp does, driven on a `SimulatedRobot`,
+ * must move the simulated robot the way the sticks say, and the localizer must see that move.
+ *
+ * The physics is stepped by hand, one CYCLE_SECONDS cycle at a time, like an OpMode would.
+ */
+public class MecanumKinematicsTest {
+    private static final double EPSILON = 1e-9;
+    private static final double CYCLE_SECONDS = 0.01;
+
+    private SimulatedRobot robot;
+    private HardwareManager hardwareManager;
+
+    @Before
+    public void setUp() {
+        robot = new SimulatedRobot();
+        hardwareManager = new HardwareManager(robot.hardwareMap);
+    }
+
+    @After
+    public void tearDown() {
+        hardwareManager.close();
+    }
+
+    /** Sets the wheels like `HumanOperated` does for these (robot frame) stick values, for `seconds`. */
+    private void drive(double drive, double strafe, double rotate, double seconds) {
+        for (double t = 0; t < seconds; t += CYCLE_SECONDS) {
+            hardwareManager.refreshSensors();
+            hardwareManager.frontLeftWheel.setPower(MecanumKinematics.frontLeft(drive, strafe, rotate));
+            hardwareManager.frontRightWheel.setPower(MecanumKinematics.frontRight(drive, strafe, rotate));
+            hardwareManager.backLeftWheel.setPower(MecanumKinematics.backLeft(drive, strafe, rotate));
+            hardwareManager.backRightWheel.setPower(MecanumKinematics.backRight(drive, strafe, rotate));
+            hardwareManager.flushOutputs();
+            robot.stepManually(CYCLE_SECONDS);
+        }
+        hardwareManager.refreshSensors();
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Kinematics
+    //------------------------------------------------------------------------------------------------
+
+    @Test
+    public void mixingIsTheTeleOpOne() {
+        // What the TeleOp has always sent: drive - strafe - rotate, drive - strafe + rotate, ...
+        double drive = 0.3, strafe = 0.5, rotate = 0.2;
+        assertEquals(drive - strafe - rotate, MecanumKinematics.frontLeft(drive, strafe, rotate), EPSILON);
+        assertEquals(drive - strafe + rotate, MecanumKinematics.frontRight(drive, strafe, rotate), EPSILON);
+        assertEquals(drive + strafe - rotate, MecanumKinematics.backLeft(drive, strafe, rotate), EPSILON);
+        assertEquals(drive + strafe + rotate, MecanumKinematics.backRight(drive, strafe, rotate), EPSILON);
+    }
+
+    @Test
+    public void wheelsToRobotUndoesRobotToWheels() {
+        double forward = 0.3, left = -0.5, turn = 0.2;
+        double fl = MecanumKinematics.frontLeft(forward, left, turn);
+        double fr = MecanumKinematics.frontRight(forward, left, turn);
+        double bl = MecanumKinematics.backLeft(forward, left, turn);
+        double br = MecanumKinematics.backRight(forward, left, turn);
+
+        assertEquals(forward, MecanumKinematics.forward(fl, fr, bl, br), EPSILON);
+        assertEquals(left, MecanumKinematics.left(fl, fr, bl, br), EPSILON);
+        assertEquals(turn, MecanumKinematics.turn(fl, fr, bl, br), EPSILON);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // TeleOp -> simulator -> localizer
+    //------------------------------------------------------------------------------------------------
+
+    @Test
+    public void teleOpStrafeGoesLeftAndTheLocalizerSeesIt() {
+        drive(0, 0.5, 0, 1);
+
+        // The robot strafed, without driving or turning
+        assertTrue("strafed " + robot.physics.getY(), robot.physics.getY() > 0.2);
+        assertEquals(0, robot.physics.getX(), 0.01);
+        assertEquals(0, robot.physics.getHeading(), 0.01);
+
+        // And the localizer says so too
+        Localizer localizer = hardwareManager.localizer;
+        assertEquals(robot.physics.getY(), localizer.getY(), 0.02);
+        assertEquals(0, localizer.getX(), 0.01);
+        assertEquals(0, localizer.getHeading(), 0.01);
+        assertTrue(localizer.getVelocityY() > 0);
+    }
+
+    @Test
+    public void teleOpStrafeRightGoesRight() {
+        drive(0, -0.5, 0, 1);
+
+        assertTrue(robot.physics.getY() < -0.2);
+        assertEquals(robot.physics.getY(), hardwareManager.localizer.getY(), 0.02);
+    }
+
+    @Test
+    public void teleOpDriveGoesForwardAndTheLocalizerSeesIt() {
+        drive(0.5, 0, 0, 1);
+
+        assertTrue(robot.physics.getX() > 0.2);
+        assertEquals(0, robot.physics.getY(), 0.01);
+        assertEquals(robot.physics.getX(), hardwareManager.localizer.getX(), 0.02);
+        assertEquals(0, hardwareManager.localizer.getY(), 0.01);
+    }
+
+    @Test
+    public void teleOpRotateTurnsCounterClockwiseInPlace() {
+        drive(0, 0, 0.3, 0.5);
+
+        assertTrue(robot.physics.getHeading() > 0.2);
+        assertEquals(0, robot.physics.getX(), 0.01);
+        assertEquals(0, robot.physics.getY(), 0.01);
+        assertTrue(hardwareManager.localizer.getAngularVelocity() > 0);
+    }
+}
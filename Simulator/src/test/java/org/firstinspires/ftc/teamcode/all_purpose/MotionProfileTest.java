@@ -0,0 +1,98 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * `MotionProfile`: starts and ends at rest, gets exactly to the distance,
+ * and never goes over any of its limits on the way.
+ */
+public class MotionProfileTest {
+    private static final double EPSILON = 1e-6;
+    private static final double STEP = 0.001;  // s, sampling step
+
+    @Test
+    public void sCurveStartsAndEndsAtRest() {
+        MotionProfile profile = new MotionProfile(2.5, 1.2, 1.5, 6);
+
+        assertEquals(0, profile.getPosition(0), EPSILON);
+        assertEquals(0, profile.getVelocity(0), EPSILON);
+        assertEquals(2.5, profile.getPosition(profile.getDuration()), EPSILON);
+        assertEquals(0, profile.getVelocity(profile.getDuration()), EPSILON);
+        assertEquals(2.5, profile.getPosition(profile.getDuration() + 1), EPSILON);
+    }
+
+    @Test
+    public void sCurveStaysWithinItsLimits() {
+        assertWithinLimits(new MotionProfile(2.5, 1.2, 1.5, 6), 1.2, 1.5, 6);
+    }
+
+    @Test
+    public void trapezoidStaysWithinItsLimits() {
+        MotionProfile profile = new MotionProfile(2.5, 1.2, 1.5);
+
+        assertWithinLimits(profile, 1.2, 1.5, 0);
+        assertEquals(1.5, profile.getAcceleration(0.1), EPSILON);  // Straight to max acceleration
+    }
+
+    @Test
+    public void shortDistanceLowersThePeakVelocity() {
+        MotionProfile profile = new MotionProfile(0.1, 1.2, 1.5, 6);
+
+        double peak = 0;
+        for (double t = 0; t <= profile.getDuration(); t += STEP)
+            peak = Math.max(peak, profile.getVelocity(t));
+        assertTrue("Never cruises at 1.2 m/s over 10 cm", peak < 1.2);
+        assertEquals(0.1, profile.getPosition(profile.getDuration()), EPSILON);
+    }
+
+    @Test
+    public void negativeDistanceIsMirrored() {
+        MotionProfile forward = new MotionProfile(1.5, 1.2, 1.5, 6);
+        MotionProfile backward = new MotionProfile(-1.5, 1.2, 1.5, 6);
+
+        assertEquals(forward.getDuration(), backward.getDuration(), EPSILON);
+        assertEquals(-1.5, backward.getDistance(), EPSILON);
+        for (double t = 0; t <= forward.getDuration(); t += 0.05) {
+            assertEquals(-forward.getPosition(t), backward.getPosition(t), EPSILON);
+            assertEquals(-forward.getVelocity(t), backward.getVelocity(t), EPSILON);
+            assertEquals(-forward.getAcceleration(t), backward.getAcceleration(t), EPSILON);
+        }
+    }
+
+    @Test
+    public void zeroDistanceIsDoneRightAway() {
+        MotionProfile profile = new MotionProfile(0, 1.2, 1.5, 6);
+
+        assertEquals(0, profile.getDuration(), EPSILON);
+        assertEquals(0, profile.getPosition(1), EPSILON);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAZeroVelocity() {
+        new MotionProfile(1, 0, 1.5, 6);
+    }
+
+    /** Sampled every STEP: the velocity matches the position's slope, and nothing goes over. */
+    private static void assertWithinLimits(MotionProfile profile, double maxVelocity, double maxAcceleration, double maxJerk) {
+        double lastPosition = 0;
+        double lastAcceleration = 0;
+        for (double t = STEP; t <= profile.getDuration(); t += STEP) {
+            double position = profile.getPosition(t);
+            double velocity = profile.getVelocity(t);
+            double acceleration = profile.getAcceleration(t);
+
+            assertTrue("Velocity " + velocity + " at " + t, velocity >= -EPSILON && velocity <= maxVelocity + EPSILON);
+            assertTrue("Acceleration " + acceleration + " at " + t, Math.abs(acceleration) <= maxAcceleration + EPSILON);
+            assertTrue("Going backwards at " + t, position >= lastPosition - EPSILON);
+            assertEquals("Velocity vs slope at " + t, velocity, (position - lastPosition) / STEP, maxAcceleration * STEP);
+            if (maxJerk > 0)
+                assertTrue("Jerk at " + t, Math.abs(acceleration - lastAcceleration) <= maxJerk * STEP + EPSILON);
+
+            lastPosition = position;
+            lastAcceleration = acceleration;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * `OdometryHistory`: lookups between, before and after the poses it holds,
+ * once it wrapped around, and the rigid correction of everything since a time.
+ */
+public class OdometryHistoryTest {
+    private static final double EPSILON = 1e-9;
+
+    private final double[] pose = new double[3];
+
+    @Test
+    public void emptyHistoryHasNothing() {
+        assertFalse(new OdometryHistory(4).getPoseAt(100, pose));
+    }
+
+    @Test
+    public void interpolatesBetweenTwoPoses() {
+        OdometryHistory history = new OdometryHistory(4);
+        history.add(100, 0, 0, 0);
+        history.add(200, 1, 2, 0.2);
+
+        assertTrue(history.getPoseAt(150, pose));
+        assertArrayEquals(new double[] {0.5, 1, 0.1}, pose, EPSILON);
+    }
+
+    @Test
+    public void newerThanTheNewestGivesTheNewest() {
+        OdometryHistory history = new OdometryHistory(4);
+        history.add(100, 0, 0, 0);
+        history.add(200, 1, 2, 0.2);
+
+        assertTrue(history.getPoseAt(500, pose));
+        assertArrayEquals(new double[] {1, 2, 0.2}, pose, EPSILON);
+    }
+
+    @Test
+    public void olderThanTheOldestIsUnknown() {
+        OdometryHistory history = new OdometryHistory(4);
+        history.add(100, 0, 0, 0);
+        history.add(200, 1, 2, 0.2);
+
+        assertFalse(history.getPoseAt(99, pose));
+    }
+
+    @Test
+    public void headingTakesTheShortWayAcrossPi() {
+        OdometryHistory history = new OdometryHistory(4);
+        history.add(100, 0, 0, Math.PI - 0.1);
+        history.add(200, 0, 0, -Math.PI + 0.1);
+
+        assertTrue(history.getPoseAt(150, pose));
+        assertEquals(Math.PI, Math.abs(pose[2]), EPSILON);
+    }
+
+    @Test
+    public void oldestPosesAreOverwritten() {
+        OdometryHistory history = new OdometryHistory(4);
+        for (int i = 1; i <= 10; i++)
+            history.add(i * 100, i, 0, 0);
+
+        assertEquals(4, history.size());
+        assertFalse(history.getPoseAt(650, pose));  // 7 is the oldest one left
+        assertTrue(history.getPoseAt(750, pose));
+        assertEquals(7.5, pose[0], EPSILON);
+    }
+
+    @Test
+    public void clearForgetsEverything() {
+        OdometryHistory history = new OdometryHistory(4);
+        history.add(100, 1, 1, 0);
+        history.clear();
+
+        assertEquals(0, history.size());
+        assertFalse(history.getPoseAt(100, pose));
+    }
+
+    @Test
+    public void transformSinceMovesOnlyTheNewerPoses() {
+        OdometryHistory history = new OdometryHistory(4);
+        history.add(100, 0, 0, 0);
+        history.add(200, 1, 0, 0);
+        history.add(300, 2, 0, 0);
+
+        // A quarter turn around (1, 0), then 0.5 up
+        history.transformSince(200, 1, 0, 0, 0.5, Math.PI / 2);
+
+        history.getPoseAt(100, pose);
+        assertArrayEquals(new double[] {0, 0, 0}, pose, EPSILON);
+        history.getPoseAt(200, pose);
+        assertArrayEquals(new double[] {1, 0.5, Math.PI / 2}, pose, EPSILON);
+        history.getPoseAt(300, pose);
+        assertArrayEquals(new double[] {1, 1.5, Math.PI / 2}, pose, EPSILON);
+    }
+}
@@ -0,0 +1,166 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import org.firstinspires.ftc.teamcode.simulation.SimImu;
+import org.firstinspires.ftc.teamcode.simulation.SimMotor;
+import org.firstinspires.ftc.teamcode.simulation.SimulatedRobot;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+
+import sun.misc.Unsafe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * `SensorSnapshot` and `HardwareManager.refreshSensors()`: one bulk read per hub per cycle,
+ * every encoder read once into the snapshot, and nothing read (or allocated) after that.
+ */
+public class SensorSnapshotTest {
+    private static final int CYCLES = 50;
+    private static final int UPDATES = 10_000;
+
+    /**
+     * A hub that only counts how often its bulk cache gets cleared.
+     * A real `LynxModule` constructor starts Android threads, so it's made without one:
+     * use `create()`.
+     */
+    private static class CountingHub extends LynxModule {
+        int clears;
+
+        private CountingHub() {
+            super(null, 1, true, true);
+        }
+
+        static CountingHub create() throws ReflectiveOperationException {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return (CountingHub) ((Unsafe) field.get(null)).allocateInstance(CountingHub.class);
+        }
+
+        @Override
+        public void setBulkCachingMode(BulkCachingMode mode) {
+            bulkCachingMode = mode;
+        }
+
+        @Override
+        public BulkCachingMode getBulkCachingMode() {
+            return bulkCachingMode;
+        }
+
+        @Override
+        public void clearBulkCache() {
+            clears++;
+        }
+    }
+
+    /** A motor that counts how often its encoder gets read. */
+    private static class CountingMotor extends SimMotor {
+        int positionReads = 0;
+        int velocityReads = 0;
+
+        CountingMotor() {
+            super("CountingM", 900, 312);
+        }
+
+        @Override
+        public int getCurrentPosition() {
+            positionReads++;
+            return super.getCurrentPosition();
+        }
+
+        @Override
+        public double getVelocity() {
+            velocityReads++;
+            return super.getVelocity();
+        }
+    }
+
+    @Test
+    public void refreshSensorsClearsEveryHubOncePerCycle() throws ReflectiveOperationException {
+        SimulatedRobot robot = new SimulatedRobot();
+        CountingHub controlHub = CountingHub.create();
+        CountingHub expansionHub = CountingHub.create();
+        robot.hardwareMap.put("Control Hub", controlHub);
+        robot.hardwareMap.put("Expansion Hub 2", expansionHub);
+
+        HardwareManager hardwareManager = new HardwareManager(robot.hardwareMap);
+        try {
+            assertEquals(LynxModule.BulkCachingMode.MANUAL, controlHub.getBulkCachingMode());
+            assertEquals(LynxModule.BulkCachingMode.MANUAL, expansionHub.getBulkCachingMode());
+
+            int clearsBefore = controlHub.clears;
+            for (int i = 0; i < CYCLES; i++) {
+                hardwareManager.refreshSensors();
+                // Reading the snapshot as much as we want doesn't clear anything
+                hardwareManager.sensors.getPosition(SensorSnapshot.FRONT_LEFT);
+                hardwareManager.sensors.getAverageWheelCounts();
+                hardwareManager.localizer.getX();
+            }
+            assertEquals(CYCLES, controlHub.clears - clearsBefore);
+            assertEquals(controlHub.clears, expansionHub.clears);
+        } finally {
+            hardwareManager.close();
+        }
+    }
+
+    @Test
+    public void updateReadsEveryMotorOnceAndGettersNever() {
+        CountingMotor first = new CountingMotor();
+        CountingMotor second = new CountingMotor();
+        SensorSnapshot sensors = new SensorSnapshot(new DcMotorEx[] {first, second}, new ImuReader(new SimImu()));
+
+        for (int i = 0; i < CYCLES; i++) {
+            sensors.update();
+            for (int j = 0; j < 10; j++) {
+                sensors.getPosition(0);
+                sensors.getVelocity(1);
+            }
+        }
+
+        assertEquals(CYCLES, first.positionReads);
+        assertEquals(CYCLES, first.velocityReads);
+        assertEquals(CYCLES, second.positionReads);
+        assertEquals(CYCLES, second.velocityReads);
+        assertEquals(CYCLES, sensors.getCycleCount());
+    }
+
+    @Test
+    public void gettersKeepTheValuesOfTheLastUpdate() {
+        CountingMotor motor = new CountingMotor();
+        SensorSnapshot sensors = new SensorSnapshot(new DcMotorEx[] {motor}, new ImuReader(new SimImu()));
+
+        motor.advanceShaft(2 * Math.PI, 0, 0);  // 1 turn = 900 counts
+        sensors.update();
+        assertEquals(900, sensors.getPosition(0));
+
+        // The motor moves on, the snapshot doesn't until the next update
+        motor.advanceShaft(2 * Math.PI, 0, 0);
+        assertEquals(900, sensors.getPosition(0));
+        sensors.update();
+        assertEquals(1800, sensors.getPosition(0));
+    }
+
+    @Test
+    public void updateDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        SensorSnapshot sensors = new SensorSnapshot(
+                new DcMotorEx[] {new CountingMotor(), new CountingMotor(), new CountingMotor(), new CountingMotor()},
+                new ImuReader(new SimImu()));
+        sensors.update();
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < UPDATES; i++)
+            sensors.update();
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // The arrays are made once, in the constructor. Even one small object per update would be
+        // 16 bytes * UPDATES, what's left is the measuring itself
+        assertTrue("allocated " + allocated + " bytes", allocated < UPDATES);
+    }
+}
@@ -3,17 +3,84 @@ package org.firstinspires.ftc.teamcode._pedroPathing;
 import com.pedropathing.follower.Follower;
 import com.pedropathing.follower.FollowerConstants;
 import com.pedropathing.ftc.FollowerBuilder;
+import com.pedropathing.ftc.drivetrains.MecanumConstants;
+import com.pedropathing.ftc.localization.Encoder;
+import com.pedropathing.ftc.localization.constants.DriveEncoderConstants;
+import com.pedropathing.ftc.localization.constants.PinpointConstants;
 import com.pedropathing.paths.PathConstraints;
+import com.qualcomm.hardware.gobilda.GoBildaPinpointDriver;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
+import org.firstinspires.ftc.teamcode.all_purpose.PinpointLocalizer;
+
 public class Constants {
     public static FollowerConstants followerConstants = new FollowerConstants();
 
     public static PathConstraints pathConstraints = new PathConstraints(0.99, 100, 1, 1);
 
+    // Same directions as HardwareManager. Pedro wants the motor at each CORNER, and the
+    // right two are plugged in crossed (see MecanumKinematics), so their names are swapped here
+    public static MecanumConstants driveConstants = new MecanumConstants()
+            .maxPower(1)
+            .leftFrontMotorName("FrontLeftM")
+            .rightFrontMotorName("BackRightM")
+            .leftRearMotorName("BackLeftM")
+            .rightRearMotorName("FrontRightM")
+            .leftFrontMotorDirection(DcMotorSimple.Direction.REVERSE)
+            .leftRearMotorDirection(DcMotorSimple.Direction.REVERSE)
+            .rightFrontMotorDirection(DcMotorSimple.Direction.FORWARD)
+            .rightRearMotorDirection(DcMotorSimple.Direction.FORWARD);
+
+    // Without a Pinpoint (HardwareManager.findOdometry()), the wheel encoders are the localizer.
+    // Pedro has no OctoQuad localizer, so with OCTOQUAD it also uses these.
+    // 900 counts per wheel turn, 98mm wheels -> ~0.0135 inch per count.
+    // Run the Localization tuners to get the real multipliers.
+    // Same crossed right motors as driveConstants
+    public static DriveEncoderConstants localizerConstants = new DriveEncoderConstants()
+            .leftFrontMotorName("FrontLeftM")
+            .rightFrontMotorName("BackRightM")
+            .leftRearMotorName("BackLeftM")
+            .rightRearMotorName("FrontRightM")
+            .leftFrontEncoderDirection(Encoder.REVERSE)
+            .leftRearEncoderDirection(Encoder.REVERSE)
+            .rightFrontEncoderDirection(Encoder.FORWARD)
+            .rightRearEncoderDirection(Encoder.FORWARD)
+            .forwardTicksToInches(0.0135)
+            .strafeTicksToInches(0.0135)
+            .turnTicksToInches(0.0135);
+
+    /**
+     * Same pods as our own `PinpointLocalizer`, built when the follower is,
+     * so changes made from Panels are picked up.
+     * Pedro's forward pod = the Pinpoint's X pod, its strafe pod = the Y pod.
+     */
+    public static PinpointConstants pinpointConstants() {
+        return new PinpointConstants()
+                .hardwareMapName(PinpointLocalizer.DEVICE_NAME)
+                .distanceUnit(DistanceUnit.MM)
+                .forwardPodY(PinpointLocalizer.X_POD_OFFSET_MM)
+                .strafePodX(PinpointLocalizer.Y_POD_OFFSET_MM)
+                .encoderResolution(PinpointLocalizer.PODS)
+                .forwardEncoderDirection(PinpointLocalizer.X_POD_REVERSED
+                        ? GoBildaPinpointDriver.EncoderDirection.REVERSED
+                        : GoBildaPinpointDriver.EncoderDirection.FORWARD)
+                .strafeEncoderDirection(PinpointLocalizer.Y_POD_REVERSED
+                        ? GoBildaPinpointDriver.EncoderDirection.REVERSED
+                        : GoBildaPinpointDriver.EncoderDirection.FORWARD);
+    }
+
     public static Follower createFollower(HardwareMap hardwareMap) {
-        return new FollowerBuilder(followerConstants, hardwareMap)
+        FollowerBuilder builder = new FollowerBuilder(followerConstants, hardwareMap)
                 .pathConstraints(pathConstraints)
-                .build();
+                .mecanumDrivetrain(driveConstants);
+        // The device actually found, like HardwareManager, not just what ODOMETRY asks for
+        if (HardwareManager.findOdometry(hardwareMap) == HardwareManager.Odometry.PINPOINT)
+            builder.pinpointLocalizer(pinpointConstants());
+        else
+            builder.driveEncoderLocalizer(localizerConstants);
+        return builder.build();
     }
 }
@@ -0,0 +1,219 @@
+package org.firstinspires.ftc.teamcode._pedroPathing;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.bylazar.field.FieldManager;
+import com.bylazar.field.PanelsField;
+import com.bylazar.field.Style;
+import com.pedropathing.follower.Follower;
+import com.pedropathing.geometry.Pose;
+import com.pedropathing.paths.Path;
+import com.pedropathing.paths.PathChain;
+import com.pedropathing.util.PoseHistory;
+
+/**
+ * This is the Drawing class. It handles the drawing of stuff on Panels Dashboard, like the robot.
+ *
+ * Drawing runs inside the tuning OpModes' loops, so it must not slow them down
+ * (that would skew the very thing being tuned):
+ *
+ * - A whole frame is only drawn FIELD_UPDATE_HZ times per second, no matter how
+ *   fast the loop runs. `shouldDraw()` tells when the next one is due.
+ * - The pose history is copied ONCE per frame into buffers kept between frames, dropping
+ *   points closer than MIN_POINT_SPACING to the last kept one, then drawn in one
+ *   go with a single style (see `PoseTrail`).
+ * - The robot is drawn straight from x, y and heading, no Pose/Vector is created.
+ * - The points of the current path are only asked for again when the path changes.
+ *
+ * @author Lazar - 19234
+ * @version 1.1, 5/19/2025
+ */
+@Configurable
+public class Drawing {
+    public static final double ROBOT_RADIUS = 9; // woah
+
+    public static double FIELD_UPDATE_HZ = 15;
+    public static double MIN_POINT_SPACING = 1; // inches, between two drawn pose history points
+
+    private static final FieldManager panelsField = PanelsField.INSTANCE.getField();
+
+    private static final Style robotLook = new Style(
+            "", "#3F51B5", 0.75
+    );
+    private static final Style historyLook = new Style(
+            "", "#4CAF50", 0.75
+    );
+
+    //------------------------------------------------------------------------------------------------
+    // Reused between frames
+    //------------------------------------------------------------------------------------------------
+    private static final PoseTrail historyTrail = new PoseTrail();
+    private static long lastDrawNanos = 0;
+
+    private static Path cachedPath = null;
+    private static double[][] cachedPathPoints = null;
+
+    /**
+     * This prepares Panels Field for using Pedro Offsets
+     */
+    public static void init() {
+        panelsField.setOffsets(PanelsField.INSTANCE.getPresets().getPEDRO_PATHING());
+    }
+
+    /**
+     * True at most FIELD_UPDATE_HZ times per second. Once it said yes,
+     * the caller is expected to draw a frame and `sendPacket()`.
+     */
+    public static boolean shouldDraw() {
+        long now = System.nanoTime();
+        if (FIELD_UPDATE_HZ > 0 && now - lastDrawNanos < (long) (1e9 / FIELD_UPDATE_HZ))
+            return false;
+
+        lastDrawNanos = now;
+        return true;
+    }
+
+    /**
+     * This draws everything that will be used in the Follower's telemetryDebug() method. This takes
+     * a Follower as an input, so an instance of the DashbaordDrawingHandler class is not needed.
+     * Does nothing if a frame was drawn less than 1 / FIELD_UPDATE_HZ ago.
+     *
+     * @param follower Pedro Follower instance.
+     */
+    public static void drawDebug(Follower follower) {
+        if (!shouldDraw())
+            return;
+
+        Path currentPath = follower.getCurrentPath();
+        if (currentPath != null) {
+            drawPath(currentPath, robotLook);
+            double t = currentPath.getClosestPointTValue();
+            Pose closestPoint = follower.getPointFromPath(t);
+            drawRobot(closestPoint.getX(), closestPoint.getY(), currentPath.getHeadingGoal(t), robotLook);
+        }
+        drawPoseHistory(follower.getPoseHistory(), historyLook);
+        drawRobot(follower.getPose(), historyLook);
+
+        sendPacket();
+    }
+
+    /**
+     * This draws a robot at a specified position with a specified
+     * look. The heading is represented as a line.
+     *
+     * @param x       in inches
+     * @param y       in inches
+     * @param heading in radians
+     * @param style   the parameters used to draw the robot with
+     */
+    public static void drawRobot(double x, double y, double heading, Style style) {
+        if (Double.isNaN(x) || Double.isNaN(y) || Double.isNaN(heading)) {
+            return;
+        }
+
+        panelsField.setStyle(style);
+        panelsField.moveCursor(x, y);
+        panelsField.circle(ROBOT_RADIUS);
+
+        double dx = Math.cos(heading) * ROBOT_RADIUS;
+        double dy = Math.sin(heading) * ROBOT_RADIUS;
+
+        panelsField.moveCursor(x + dx / 2, y + dy / 2);
+        panelsField.line(x + dx, y + dy);
+    }
+
+    /**
+     * This draws a robot at a specified Pose with a specified
+     * look. The heading is represented as a line.
+     *
+     * @param pose  the Pose to draw the robot at
+     * @param style the parameters used to draw the robot with
+     */
+    public static void drawRobot(Pose pose, Style style) {
+        if (pose == null) {
+            return;
+        }
+        drawRobot(pose.getX(), pose.getY(), pose.getHeading(), style);
+    }
+
+    /**
+     * This draws a robot at a specified Pose. The heading is represented as a line.
+     *
+     * @param pose the Pose to draw the robot at
+     */
+    public static void drawRobot(Pose pose) {
+        drawRobot(pose, robotLook);
+    }
+
+    /**
+     * This draws a Path with a specified look.
+     * The points are only computed again when a different Path is drawn.
+     *
+     * @param path  the Path to draw
+     * @param style the parameters used to draw the Path with
+     */
+    public static void drawPath(Path path, Style style) {
+        if (path != cachedPath) {
+            double[][] points = path.getPanelsDrawingPoints();
+
+            for (int i = 0; i < points[0].length; i++) {
+                for (int j = 0; j < points.length; j++) {
+                    if (Double.isNaN(points[j][i])) {
+                        points[j][i] = 0;
+                    }
+                }
+            }
+
+            cachedPath = path;
+            cachedPathPoints = points;
+        }
+
+        panelsField.setStyle(style);
+        panelsField.moveCursor(cachedPathPoints[0][0], cachedPathPoints[0][1]);
+        panelsField.line(cachedPathPoints[1][0], cachedPathPoints[1][1]);
+    }
+
+    /**
+     * This draws all the Paths in a PathChain with a
+     * specified look.
+     *
+     * @param pathChain the PathChain to draw
+     * @param style     the parameters used to draw the PathChain with
+     */
+    public static void drawPath(PathChain pathChain, Style style) {
+        for (int i = 0; i < pathChain.size(); i++) {
+            drawPath(pathChain.getPath(i), style);
+        }
+    }
+
+    /**
+     * This draws the pose history of the robot as one line, skipping
+     * points closer than MIN_POINT_SPACING to the last drawn one.
+     *
+     * @param poseTracker the PoseHistory to get the pose history from
+     * @param style       the parameters used to draw the pose history with
+     */
+    public static void drawPoseHistory(PoseHistory poseTracker, Style style) {
+        // Each of these builds a new array, so ask only once per frame
+        historyTrail.draw(panelsField,
+                poseTracker.getXPositionsArray(),
+                poseTracker.getYPositionsArray(),
+                style,
+                MIN_POINT_SPACING);
+    }
+
+    /**
+     * This draws the pose history of the robot.
+     *
+     * @param poseTracker the PoseHistory to get the pose history from
+     */
+    public static void drawPoseHistory(PoseHistory poseTracker) {
+        drawPoseHistory(poseTracker, historyLook);
+    }
+
+    /**
+     * This tries to send the current packet to FTControl Panels.
+     */
+    public static void sendPacket() {
+        panelsField.update();
+    }
+}
@@ -0,0 +1,66 @@
+package org.firstinspires.ftc.teamcode._pedroPathing;
+
+import com.bylazar.field.FieldManager;
+import com.bylazar.field.Style;
+
+/**
+ * The pose history line that `Drawing.drawPoseHistory()` draws, on its own and
+ * without anything from Pedro, so it also runs on a desktop (see the Benchmarks module).
+ *
+ * The points are copied into buffers kept between frames, dropping the ones closer
+ * than `minSpacing` to the last kept one, then drawn in one go with a single style
+ * (Panels has no polyline, so it's connected segments):
+ *
+ *      x x x x x  x   x    x     x      ->      x    x    x    x     x      x
+ *      (the robot was slow)                     (one point per minSpacing at most)
+ *
+ * The buffers only ever grow, to the longest history seen.
+ */
+public class PoseTrail {
+    private double[] keptX = new double[0];
+    private double[] keptY = new double[0];
+
+    /**
+     * Draws the line through (xPositions[i], yPositions[i]), oldest first, skipping NaNs.
+     * The newest point is always kept. Returns how many points were drawn.
+     */
+    public int draw(FieldManager field, double[] xPositions, double[] yPositions, Style style, double minSpacing) {
+        int size = Math.min(xPositions.length, yPositions.length);
+        if (size < 2) {
+            return 0;
+        }
+
+        if (keptX.length < size) {
+            keptX = new double[size];
+            keptY = new double[size];
+        }
+
+        double minSpacingSquared = minSpacing * minSpacing;
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            double x = xPositions[i];
+            double y = yPositions[i];
+            if (Double.isNaN(x) || Double.isNaN(y)) {
+                continue;
+            }
+
+            if (kept > 0 && i < size - 1) {
+                double dx = x - keptX[kept - 1];
+                double dy = y - keptY[kept - 1];
+                if (dx * dx + dy * dy < minSpacingSquared) {
+                    continue;
+                }
+            }
+            keptX[kept] = x;
+            keptY[kept] = y;
+            kept++;
+        }
+
+        field.setStyle(style);
+        for (int i = 0; i < kept - 1; i++) {
+            field.moveCursor(keptX[i], keptY[i]);
+            field.line(keptX[i + 1], keptY[i + 1]);
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,12 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+/**
+ * Which side of the field we play on.
+ *
+ * The field is symmetric: everything on the red side is the blue side
+ * seen in a mirror placed along the middle of the field.
+ */
+public enum Alliance {
+    BLUE,
+    RED
+}
@@ -0,0 +1,122 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.qualcomm.robotcore.util.Range;
+
+/**
+ * Turns one raw joystick axis into a nicer command, in 3 steps:
+ *
+ *   raw ---> [deadband] ---> [expo] ---> [slew limit] ---> shaped
+ *
+ * - Deadband: a stick that doesn't perfectly center (~0.05) does nothing, and
+ *   just past it the output starts from 0 again instead of jumping to 0.05.
+ *
+ *        out = sign(x) * (|x| - deadband) / (1 - deadband)
+ *
+ * - Expo: blends a straight line with a cubic. Gentle around the center for
+ *   precise aiming, still 1 at full stick.
+ *
+ *        out = (1 - expo) * x + expo * x³        expo 0 = linear, 1 = fully cubic
+ *
+ * - Slew limit: the output can only move so fast (per second), so slamming the
+ *   stick doesn't wheelie / skid the robot. Getting FASTER and slowing DOWN have
+ *   their own limit, slowing down is usually allowed to be much quicker. Full
+ *   forward to full reverse slows down to 0 first, then speeds up the other way.
+ *
+ * Every step is optional, and each is set up by chaining:
+ *
+ *      AxisShaper drive = new AxisShaper().deadband(0.05).expo(0.5).slew(4, 10);
+ *      ...
+ *      double shaped = drive.shape(gamepad1.left_stick_y, sensors.getTimestampNanos());
+ *
+ * Only primitive doubles, nothing is allocated per call.
+ */
+public class AxisShaper {
+    private double deadband = 0;
+    private double expo = 0;
+    private double risingPerSecond = Double.POSITIVE_INFINITY;
+    private double fallingPerSecond = Double.POSITIVE_INFINITY;
+
+    private double output = 0;
+    private long lastNanos = 0;
+
+    //------------------------------------------------------------------------------------------------
+    // Setup
+    //------------------------------------------------------------------------------------------------
+    public AxisShaper deadband(double deadband) {
+        this.deadband = Range.clip(deadband, 0, 0.99);
+        return this;
+    }
+
+    public AxisShaper expo(double expo) {
+        this.expo = Range.clip(expo, 0, 1);
+        return this;
+    }
+
+    /**
+     * @param risingPerSecond  How fast the output may move AWAY from 0, per second (e.g. 4 = 0 to full in 0.25 s)
+     * @param fallingPerSecond How fast it may move back TOWARDS 0, per second
+     */
+    public AxisShaper slew(double risingPerSecond, double fallingPerSecond) {
+        this.risingPerSecond = Math.abs(risingPerSecond);
+        this.fallingPerSecond = Math.abs(fallingPerSecond);
+        return this;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Shaping
+    //------------------------------------------------------------------------------------------------
+    public static double applyDeadband(double x, double deadband) {
+        double magnitude = Math.abs(x);
+        if (magnitude <= deadband)
+            return 0;
+        return Math.signum(x) * Math.min(1, (magnitude - deadband) / (1 - deadband));
+    }
+
+    public static double applyExpo(double x, double expo) {
+        return (1 - expo) * x + expo * x * x * x;
+    }
+
+    /**
+     * One step, call it once per cycle.
+     * @param raw      The axis, -1 to 1
+     * @param nowNanos When it was read, to know how much the slew limit allows
+     * @return The shaped value, -1 to 1
+     */
+    public double shape(double raw, long nowNanos) {
+        double target = applyExpo(applyDeadband(raw, deadband), expo);
+
+        double dt = lastNanos == 0 ? 0 : (nowNanos - lastNanos) / 1e9;
+        lastNanos = nowNanos;
+
+        if (target * output < 0) {
+            // Reversing: it's slowing down until 0 (falling rate), and only past 0 speeding up again
+            //      +1 ----falling----> 0 ----rising----> -1
+            double secondsToZero = Double.isInfinite(fallingPerSecond) ? 0 : Math.abs(output) / fallingPerSecond;
+            if (secondsToZero > dt)
+                output = moveTowards(output, 0, fallingPerSecond, dt);
+            else
+                output = moveTowards(0, target, risingPerSecond, dt - secondsToZero);
+        } else {
+            boolean rising = Math.abs(target) > Math.abs(output);
+            output = moveTowards(output, target, rising ? risingPerSecond : fallingPerSecond, dt);
+        }
+        return output;
+    }
+
+    private static double moveTowards(double from, double to, double ratePerSecond, double seconds) {
+        if (Double.isInfinite(ratePerSecond))
+            return to;
+        double maxStep = ratePerSecond * seconds;
+        return from + Range.clip(to - from, -maxStep, maxStep);
+    }
+
+    /** Back to 0 right now, e.g. when the drive gets taken over by something else. */
+    public void reset() {
+        output = 0;
+        lastNanos = 0;
+    }
+
+    public double getOutput() {
+        return output;
+    }
+}
@@ -0,0 +1,81 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+import com.qualcomm.robotcore.util.Range;
+
+/**
+ * Keeps track of the battery voltage, so motor powers can mean the same thing
+ * at the end of a match as at the start.
+ *
+ * A motor power is a fraction of whatever the battery gives RIGHT NOW:
+ *
+ *      power 0.5 on a fresh 13.5V battery  ->  6.75V on the motor
+ *      power 0.5 on a tired 11.5V battery  ->  5.75V on the motor  (15% slower!)
+ *
+ * So every power is scaled by NOMINAL_VOLTAGE / voltage, as if the battery
+ * were always exactly NOMINAL_VOLTAGE:
+ *
+ *      0.5 * 12 / 11.5 = 0.52  ->  6V on the motor, whatever the battery
+ *
+ * The voltage is only read every READ_PERIOD_SECONDS (it's a hub command, not
+ * part of the bulk read) and low-pass filtered, since it dips every time the
+ * drive accelerates. Updated by `HardwareManager.refreshSensors()`.
+ */
+@Configurable
+public class BatteryMonitor {
+    //------------------------------------------------------------------------------------------------
+    // Config
+    //------------------------------------------------------------------------------------------------
+    public static boolean COMPENSATE = true;
+    public static double NOMINAL_VOLTAGE = 12;
+    public static double READ_PERIOD_SECONDS = 0.25;
+    public static double FILTER_GAIN = 0.3;     // 0 to 1, how much of each new reading is taken in
+    public static double MIN_VOLTAGE = 9;       // Below this, a reading is a glitch (or the robot is browning out anyway)
+
+    private final VoltageSensor voltageSensor;
+    private double voltage = NOMINAL_VOLTAGE;
+    private long lastReadNanos = 0;
+
+    /** `voltageSensor` can be null, then nothing is ever compensated. */
+    BatteryMonitor(VoltageSensor voltageSensor) {
+        this.voltageSensor = voltageSensor;
+        if (voltageSensor != null)
+            voltage = Math.max(MIN_VOLTAGE, voltageSensor.getVoltage());
+    }
+
+    /** Reads the sensor again if READ_PERIOD_SECONDS have passed, call it every cycle. */
+    void update(long nowNanos) {
+        if (voltageSensor == null || nowNanos - lastReadNanos < READ_PERIOD_SECONDS * 1e9)
+            return;
+
+        lastReadNanos = nowNanos;
+        double reading = voltageSensor.getVoltage();
+        if (reading < MIN_VOLTAGE)
+            return;
+        voltage += FILTER_GAIN * (reading - voltage);
+    }
+
+    /** Filtered battery voltage, in volts. */
+    public double getVoltage() {
+        return voltage;
+    }
+
+    /** What every power gets multiplied by, 1 if COMPENSATE is off. */
+    public double getCompensation() {
+        return COMPENSATE ? NOMINAL_VOLTAGE / voltage : 1;
+    }
+
+    /** `power` scaled to the nominal voltage, still within -1 to 1. */
+    public double compensate(double power) {
+        return Range.clip(power * getCompensation(), -1, 1);
+    }
+
+    /**
+     * The motor power that puts `volts` on the motor right now, within -1 to 1.
+     * With COMPENSATE off, the battery is taken to be NOMINAL_VOLTAGE, whatever it really is.
+     */
+    public double voltsToPower(double volts) {
+        return Range.clip(volts / NOMINAL_VOLTAGE * getCompensation(), -1, 1);
+    }
+}
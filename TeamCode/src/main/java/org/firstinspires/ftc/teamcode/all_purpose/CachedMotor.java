@@ -0,0 +1,71 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+/**
+ * Wraps a DcMotor so that `setPower()` only remembers the wanted power,
+ * and the actual (blocking) write to the hub only happens in `flush()`,
+ * and only if the power changed by more than `epsilon` since the last write.
+ *
+ *      setPower(0.5) -> setPower(0.5) -> setPower(0.5) -> flush()   => 1 write
+ *      setPower(0.5) -> flush() -> setPower(0.5) -> flush()         => 1 write
+ *      setPower(0.5) -> flush() -> setPower(0.7) -> flush()         => 2 writes
+ */
+public class CachedMotor {
+    /** Default smallest power change that is worth a USB write. */
+    public static double DEFAULT_POWER_EPSILON = 0.005;
+
+    public final DcMotorEx motor;
+    public double epsilon = DEFAULT_POWER_EPSILON;
+
+    private double wantedPower = 0;
+    private double lastSentPower = Double.NaN; // NaN = never sent, so the first flush always writes
+
+    public CachedMotor(DcMotorEx device) {
+        motor = device;
+    }
+
+    public void setPower(double power) {
+        wantedPower = power;
+    }
+
+    /** The power that will be sent at the next flush. */
+    public double getPower() {
+        return wantedPower;
+    }
+
+    /**
+     * Sends the wanted power to the hub if it is different enough from the last one.
+     * Returns whether a write actually happened.
+     */
+    public boolean flush() {
+        return flush(1);
+    }
+
+    /**
+     * Same, but the power actually sent is the wanted power times `scale`
+     * (e.g. the battery compensation). `getPower()` still returns the unscaled one.
+     */
+    public boolean flush(double scale) {
+        double power = wantedPower * scale;
+        boolean neverSent = Double.isNaN(lastSentPower);
+        boolean changed = Math.abs(power - lastSentPower) > epsilon;
+        // A stop request always goes through, the motor shouldn't creep at 0.004 power
+        boolean stopping = power == 0 && lastSentPower != 0;
+
+        if (!neverSent && !changed && !stopping)
+            return false;
+
+        motor.setPower(power);
+        lastSentPower = power;
+        return true;
+    }
+
+    /**
+     * Forgets the last sent value, so the next flush writes no matter what.
+     * Use after touching `motor` directly (mode changes, etc.).
+     */
+    public void invalidate() {
+        lastSentPower = Double.NaN;
+    }
+}
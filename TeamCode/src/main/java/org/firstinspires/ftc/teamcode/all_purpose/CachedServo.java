@@ -0,0 +1,55 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.qualcomm.robotcore.hardware.Servo;
+
+/**
+ * Same idea as `CachedMotor`, but for servo positions:
+ * `setPosition()` is remembered, and `flush()` only writes to the hub
+ * when the position changed by more than `epsilon`.
+ */
+public class CachedServo {
+    /** Default smallest position change that is worth a USB write. */
+    public static double DEFAULT_POSITION_EPSILON = 0.001;
+
+    public final Servo servo;
+    public double epsilon = DEFAULT_POSITION_EPSILON;
+
+    private double wantedPosition = Double.NaN; // NaN = nothing asked yet
+    private double lastSentPosition = Double.NaN;
+
+    public CachedServo(Servo device) {
+        servo = device;
+    }
+
+    public void setPosition(double position) {
+        wantedPosition = position;
+    }
+
+    /** The position that will be sent at the next flush. */
+    public double getPosition() {
+        return wantedPosition;
+    }
+
+    /**
+     * Sends the wanted position to the hub if it is different enough from the last one.
+     * Returns whether a write actually happened.
+     */
+    public boolean flush() {
+        // Never send a position that nobody asked for, the servo would move on init
+        if (Double.isNaN(wantedPosition))
+            return false;
+
+        boolean neverSent = Double.isNaN(lastSentPosition);
+        if (!neverSent && Math.abs(wantedPosition - lastSentPosition) <= epsilon)
+            return false;
+
+        servo.setPosition(wantedPosition);
+        lastSentPosition = wantedPosition;
+        return true;
+    }
+
+    /** Forgets the last sent value, so the next flush writes no matter what. */
+    public void invalidate() {
+        lastSentPosition = Double.NaN;
+    }
+}
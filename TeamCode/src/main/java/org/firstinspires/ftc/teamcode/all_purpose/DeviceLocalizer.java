@@ -0,0 +1,274 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+/**
+ * A `Localizer` for odometry devices that work out the pose BY THEMSELVES
+ * (dead wheels + their own IMU), like the goBILDA Pinpoint. We only have to
+ * read the result, but that read is an I2C transaction of a few ms, so it
+ * runs on its own thread, like the `ImuReader`:
+ *
+ *  (reader thread)  readDevice() -> slot -> readDevice() -> slot -> ...
+ *                                    |
+ *  (control loop)   update() --------' -> pose in the field frame
+ *
+ * The device has its own frame (where it was last reset). Every cycle the
+ * pose moves by however much the DEVICE moved since the last sample, turned
+ * by `headingOffset` into the field frame:
+ *
+ *      field move = rotate(device move, headingOffset)
+ *      heading    = device heading + headingOffset
+ *
+ * so `setPose()` and the camera fixes work exactly like with the wheel encoders,
+ * without ever writing to the device.
+ *
+ * A read that fails, or where the device says it isn't healthy, is counted
+ * and dropped: the pose then simply stays where it was (and gets stale).
+ *
+ * When something else already reads the device every cycle (Pedro's follower, see
+ * `PedroSelfDriving`), two readers would only fight over the bus. `useExternalReader()`
+ * stops ours, and the other one hands each pose over with `feedDevicePose()` instead:
+ * the pose, the history and the camera fixes all keep working the same.
+ */
+public abstract class DeviceLocalizer extends Localizer implements Runnable {
+    private final String name;
+    private final PoseSlot slot = new PoseSlot();
+    private Thread thread;
+    private volatile boolean running = false;
+
+    // Reader thread only
+    private final PoseSlot.Sample readSample = new PoseSlot.Sample();
+
+    // Control loop only
+    private final PoseSlot.Sample sample = new PoseSlot.Sample();
+    private long lastTimestampNanos = 0;
+    private double lastDeviceX = 0;
+    private double lastDeviceY = 0;
+    private boolean externalReader = false;
+    private boolean rebase = false;
+
+    //------------------------------------------------------------------------------------------------
+    // Metrics (only the reader thread writes these)
+    //------------------------------------------------------------------------------------------------
+    private volatile long readCount = 0;
+    private volatile long faultCount = 0;
+    private volatile long errorCount = 0;
+    private volatile long lastReadDurationNanos = 0;
+    private volatile long maxReadDurationNanos = 0;
+
+    protected DeviceLocalizer(SensorSnapshot sensors, String name) {
+        super(sensors);
+        this.name = name;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // For the subclasses
+    //------------------------------------------------------------------------------------------------
+
+    /**
+     * Reads the device ONCE into `out` (device frame, meters, radians), without
+     * allocating. Runs on the reader thread, the only one that touches the device.
+     * @return false if the device isn't healthy, the reading is then thrown away
+     */
+    protected abstract boolean readDevice(PoseSlot.Sample out);
+
+    /** How often the thread reads the device, 0 = as fast as the bus allows. */
+    protected abstract double getRateHz();
+
+    //------------------------------------------------------------------------------------------------
+    // Reader thread
+    //------------------------------------------------------------------------------------------------
+
+    /**
+     * Reads the device once right now (so there is a pose from the very first cycle),
+     * then starts the background thread. Call it once the device is set up.
+     */
+    protected void start() {
+        if (thread != null)
+            return;
+
+        readOnce();
+        running = true;
+        thread = new Thread(this, name);
+        thread.setDaemon(true);  // Never keeps the app alive on its own
+        thread.start();
+    }
+
+    /** Stops the thread, MUST be called when the OpMode ends. */
+    @Override
+    public void close() {
+        running = false;
+        if (thread == null)
+            return;
+
+        thread.interrupt();
+        try {
+            thread.join(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            long start = System.nanoTime();
+            readOnce();
+
+            double rateHz = getRateHz();
+            if (rateHz <= 0)
+                continue;
+            long wait = (long) (1e9 / rateHz) - (System.nanoTime() - start);
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void readOnce() {
+        long start = System.nanoTime();
+        boolean healthy;
+        try {
+            healthy = readDevice(readSample);
+        } catch (RuntimeException e) {
+            if (errorCount == 0)
+                RobotLog.ee(name, e, "Could not read the device");
+            errorCount++;
+            return;
+        }
+        long end = System.nanoTime();
+
+        long duration = end - start;
+        lastReadDurationNanos = duration;
+        if (duration > maxReadDurationNanos)
+            maxReadDurationNanos = duration;
+        readCount++;
+
+        if (!healthy || Double.isNaN(readSample.x) || Double.isNaN(readSample.y) || Double.isNaN(readSample.heading)) {
+            faultCount++;
+            return;
+        }
+        readSample.timestampNanos = end;
+        slot.write(readSample);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Control loop
+    //------------------------------------------------------------------------------------------------
+
+    @Override
+    void update() {
+        if (externalReader)
+            return;  // Moved by feedDevicePose() instead
+        slot.read(sample);
+        if (sample.timestampNanos == 0 || sample.timestampNanos == lastTimestampNanos)
+            return;  // Nothing new since the last cycle
+        applySample();
+    }
+
+    /**
+     * Stops the reader thread for good, someone else reads the device from now on and
+     * calls `feedDevicePose()` every cycle. Their frame can be another one than the
+     * device's own (e.g. moved to a starting pose), the pose carries on from where it is.
+     */
+    public void useExternalReader() {
+        close();
+        externalReader = true;
+        rebase = true;
+    }
+
+    /**
+     * The device's pose as read by the external reader, in ITS frame (meters, radians,
+     * counter-clockwise positive). Control loop only, once per cycle, after `useExternalReader()`.
+     * The velocities are worked out from one pose to the next.
+     */
+    public void feedDevicePose(double deviceX, double deviceY, double deviceHeading, long timestampNanos) {
+        if (!externalReader || timestampNanos == lastTimestampNanos)
+            return;
+
+        if (rebase) {
+            // Another frame: no move from the last pose of the old one, and the heading carries on
+            rebase = false;
+            lastTimestampNanos = 0;
+            sample.velocityX = 0;
+            sample.velocityY = 0;
+            sample.angularVelocity = 0;
+            headingOffset = angleWrap(heading - deviceHeading);
+        } else {
+            double dt = (timestampNanos - lastTimestampNanos) / 1e9;
+            sample.velocityX = (deviceX - lastDeviceX) / dt;
+            sample.velocityY = (deviceY - lastDeviceY) / dt;
+            sample.angularVelocity = angleWrap(deviceHeading - sample.heading) / dt;
+        }
+        sample.x = deviceX;
+        sample.y = deviceY;
+        sample.heading = deviceHeading;
+        sample.timestampNanos = timestampNanos;
+        applySample();
+    }
+
+    /** Moves the pose by however much the device moved since the last sample. */
+    private void applySample() {
+        double cos = Math.cos(headingOffset);
+        double sin = Math.sin(headingOffset);
+        if (lastTimestampNanos != 0) {
+            double dx = sample.x - lastDeviceX;
+            double dy = sample.y - lastDeviceY;
+            x += dx * cos - dy * sin;
+            y += dx * sin + dy * cos;
+        }
+        heading = angleWrap(sample.heading + headingOffset);
+        velocityX = sample.velocityX * cos - sample.velocityY * sin;
+        velocityY = sample.velocityX * sin + sample.velocityY * cos;
+        angularVelocity = sample.angularVelocity;
+
+        lastDeviceX = sample.x;
+        lastDeviceY = sample.y;
+        lastTimestampNanos = sample.timestampNanos;
+        // When the device measured it, not when we picked it up
+        recordPose(sample.timestampNanos);
+    }
+
+    @Override
+    protected double getSensorHeading() {
+        return sample.heading;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Getters
+    //------------------------------------------------------------------------------------------------
+
+    /** `System.nanoTime()` of the pose in use, 0 = none yet. */
+    public long getPoseTimestampNanos() {
+        return lastTimestampNanos;
+    }
+
+    public long getReadCount() {
+        return readCount;
+    }
+
+    /** Reads where the device said it wasn't healthy (or gave NaN), see the subclass for why. */
+    public long getFaultCount() {
+        return faultCount;
+    }
+
+    /** Reads that threw, the first one is also written to the robot log. */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /** How long the last read took on the bus, in ns. */
+    public long getLastReadDurationNanos() {
+        return lastReadDurationNanos;
+    }
+
+    /** The slowest read so far, in ns. */
+    public long getMaxReadDurationNanos() {
+        return maxReadDurationNanos;
+    }
+}
@@ -0,0 +1,221 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import java.util.ArrayList;
+
+/**
+ * Says WHAT each button does once (in init), instead of a long if / else if
+ * chain that checks every button every loop:
+ *
+ *      bindings = new GamepadBindings(gamepad2)
+ *              .onPress(GamepadBindings.X, () -> pause())
+ *              .whileHeld(GamepadBindings.A, () -> launcher.spinUp())
+ *              .toggle(GamepadBindings.BACK, (on) -> slow = on)
+ *              .doubleTap(GamepadBindings.Y, () -> resetSomething());
+ *      ...
+ *      bindings.update(sensors.getTimestampNanos());   // once per loop
+ *
+ * Every loop the whole gamepad becomes ONE int, a bit per button. Comparing it
+ * with last loop's int gives every press and release at once:
+ *
+ *      buttons  = 0b0101      held now
+ *      last     = 0b0011      held last loop
+ *      pressed  = buttons & ~last = 0b0100
+ *      released = ~buttons & last = 0b0010
+ *
+ * then a single pass over the bindings runs the ones whose button changed
+ * (or is held, for `whileHeld`). An action runs ONCE per press, however long
+ * the button is held, and always in the order the bindings were added.
+ * Nothing is allocated per loop, the lambdas are all created in init.
+ */
+@Configurable
+public class GamepadBindings {
+    //------------------------------------------------------------------------------------------------
+    // Buttons (one bit each)
+    //------------------------------------------------------------------------------------------------
+    public static final int A = 1;
+    public static final int B = 1 << 1;
+    public static final int X = 1 << 2;
+    public static final int Y = 1 << 3;
+    public static final int LEFT_BUMPER = 1 << 4;
+    public static final int RIGHT_BUMPER = 1 << 5;
+    public static final int LEFT_TRIGGER = 1 << 6;   // Counts as a button past TRIGGER_THRESHOLD
+    public static final int RIGHT_TRIGGER = 1 << 7;
+    public static final int DPAD_UP = 1 << 8;
+    public static final int DPAD_DOWN = 1 << 9;
+    public static final int DPAD_LEFT = 1 << 10;
+    public static final int DPAD_RIGHT = 1 << 11;
+    public static final int BACK = 1 << 12;
+    public static final int START = 1 << 13;
+    public static final int LEFT_STICK_BUTTON = 1 << 14;
+    public static final int RIGHT_STICK_BUTTON = 1 << 15;
+
+    //------------------------------------------------------------------------------------------------
+    // Config
+    //------------------------------------------------------------------------------------------------
+    public static double TRIGGER_THRESHOLD = 0.1;   // A resting trigger isn't always exactly 0
+    public static double DOUBLE_TAP_SECONDS = 0.3;  // Max time between the two presses
+
+    public interface ToggleAction {
+        void run(boolean on);
+    }
+
+    private enum Kind { PRESS, RELEASE, HELD, TOGGLE, DOUBLE_TAP }
+
+    private static class Binding {
+        final int button;
+        final Kind kind;
+        final Runnable action;
+        final ToggleAction toggleAction;
+        boolean on = false;          // TOGGLE
+        long lastPressNanos = 0;     // DOUBLE_TAP, 0 = no first tap waiting
+
+        Binding(int button, Kind kind, Runnable action, ToggleAction toggleAction) {
+            this.button = button;
+            this.kind = kind;
+            this.action = action;
+            this.toggleAction = toggleAction;
+        }
+    }
+
+    private final Gamepad gamepad;
+    private final ArrayList<Binding> bindings = new ArrayList<>();
+    private int buttons = 0;
+    private int lastButtons = 0;
+
+    public GamepadBindings(Gamepad gamepad) {
+        this.gamepad = gamepad;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Setup
+    //------------------------------------------------------------------------------------------------
+
+    /** Runs once when the button goes down. */
+    public GamepadBindings onPress(int button, Runnable action) {
+        bindings.add(new Binding(button, Kind.PRESS, action, null));
+        return this;
+    }
+
+    /** Runs once when the button comes back up. */
+    public GamepadBindings onRelease(int button, Runnable action) {
+        bindings.add(new Binding(button, Kind.RELEASE, action, null));
+        return this;
+    }
+
+    /** Runs every loop for as long as the button is down. */
+    public GamepadBindings whileHeld(int button, Runnable action) {
+        bindings.add(new Binding(button, Kind.HELD, action, null));
+        return this;
+    }
+
+    /** Every press flips between on and off, starting off. */
+    public GamepadBindings toggle(int button, ToggleAction action) {
+        bindings.add(new Binding(button, Kind.TOGGLE, null, action));
+        return this;
+    }
+
+    /** Runs when the button is pressed twice within DOUBLE_TAP_SECONDS. */
+    public GamepadBindings doubleTap(int button, Runnable action) {
+        bindings.add(new Binding(button, Kind.DOUBLE_TAP, action, null));
+        return this;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Every loop
+    //------------------------------------------------------------------------------------------------
+
+    /** The whole gamepad as one int, a bit per button. */
+    public static int readButtons(Gamepad gamepad) {
+        int buttons = 0;
+        if (gamepad.a) buttons |= A;
+        if (gamepad.b) buttons |= B;
+        if (gamepad.x) buttons |= X;
+        if (gamepad.y) buttons |= Y;
+        if (gamepad.left_bumper) buttons |= LEFT_BUMPER;
+        if (gamepad.right_bumper) buttons |= RIGHT_BUMPER;
+        if (gamepad.left_trigger > TRIGGER_THRESHOLD) buttons |= LEFT_TRIGGER;
+        if (gamepad.right_trigger > TRIGGER_THRESHOLD) buttons |= RIGHT_TRIGGER;
+        if (gamepad.dpad_up) buttons |= DPAD_UP;
+        if (gamepad.dpad_down) buttons |= DPAD_DOWN;
+        if (gamepad.dpad_left) buttons |= DPAD_LEFT;
+        if (gamepad.dpad_right) buttons |= DPAD_RIGHT;
+        if (gamepad.back) buttons |= BACK;
+        if (gamepad.start) buttons |= START;
+        if (gamepad.left_stick_button) buttons |= LEFT_STICK_BUTTON;
+        if (gamepad.right_stick_button) buttons |= RIGHT_STICK_BUTTON;
+        return buttons;
+    }
+
+    /**
+     * Reads the gamepad and runs every binding that should run this loop.
+     * Call it ONCE per loop.
+     */
+    public void update(long nowNanos) {
+        lastButtons = buttons;
+        buttons = readButtons(gamepad);
+        int pressed = buttons & ~lastButtons;
+        int released = ~buttons & lastButtons;
+
+        // Nothing held and nothing changed: nothing to run
+        if (buttons == 0 && released == 0)
+            return;
+
+        for (int i = 0; i < bindings.size(); i++) {
+            Binding binding = bindings.get(i);
+            switch (binding.kind) {
+                case PRESS:
+                    if ((pressed & binding.button) != 0)
+                        binding.action.run();
+                    break;
+                case RELEASE:
+                    if ((released & binding.button) != 0)
+                        binding.action.run();
+                    break;
+                case HELD:
+                    if ((buttons & binding.button) != 0)
+                        binding.action.run();
+                    break;
+                case TOGGLE:
+                    if ((pressed & binding.button) != 0) {
+                        binding.on = !binding.on;
+                        binding.toggleAction.run(binding.on);
+                    }
+                    break;
+                case DOUBLE_TAP:
+                    if ((pressed & binding.button) != 0) {
+                        if (binding.lastPressNanos != 0
+                                && nowNanos - binding.lastPressNanos <= DOUBLE_TAP_SECONDS * 1e9) {
+                            binding.lastPressNanos = 0;  // A third tap starts over
+                            binding.action.run();
+                        } else {
+                            binding.lastPressNanos = nowNanos;
+                        }
+                    }
+                    break;
+            }
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Getters (as of the last update)
+    //------------------------------------------------------------------------------------------------
+    public boolean isHeld(int button) {
+        return (buttons & button) != 0;
+    }
+
+    /** True if ANY of the buttons in the mask is held, e.g. `isAnyHeld(A | B)`. */
+    public boolean isAnyHeld(int buttonMask) {
+        return (buttons & buttonMask) != 0;
+    }
+
+    public boolean wasPressed(int button) {
+        return (buttons & ~lastButtons & button) != 0;
+    }
+
+    public int getButtons() {
+        return buttons;
+    }
+}
@@ -1,24 +1,48 @@
 package org.firstinspires.ftc.teamcode.all_purpose;
 
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+import com.qualcomm.hardware.gobilda.GoBildaPinpointDriver;
+import com.qualcomm.hardware.limelightvision.Limelight3A;
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
 import com.qualcomm.robotcore.hardware.*;
 
 import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
-import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.teamcode.subsystems.Launcher;
+import org.firstinspires.ftc.teamcode.subsystems.Limelight;
+import org.firstinspires.ftc.teamcode.subsystems.Vision;
+
+import java.util.List;
 
 /**
  * A specific class designed for setting up all of the robot's
  * hardware binding classes, and presiding over groups of them to
  * be able to do synchronized commands.
  */
+@Configurable
 public class HardwareManager {
+    //------------------------------------------------------------------------------------------------
+    // Config
+    //------------------------------------------------------------------------------------------------
+
+    /** Where the pose comes from, see `localizer`. */
+    public enum Odometry {
+        DRIVE_ENCODERS,  // The 4 drive wheels + the hub's IMU, always there
+        PINPOINT,        // goBILDA Pinpoint, named `PinpointLocalizer.DEVICE_NAME`
+        OCTOQUAD         // OctoQuad's own localizer, named `OctoQuadLocalizer.DEVICE_NAME`
+    }
+
+    /** Also picks Pedro's localizer, see `Constants.createFollower()`. */
+    public static Odometry ODOMETRY = Odometry.DRIVE_ENCODERS;
+
     //------------------------------------------------------------------------------------------------
     // Wheels
     //------------------------------------------------------------------------------------------------
-    public final DcMotor frontLeftWheel;
-    public final DcMotor frontRightWheel;
-    public final DcMotor backLeftWheel;
-    public final DcMotor backRightWheel;
+    public final CachedMotor frontLeftWheel;
+    public final CachedMotor frontRightWheel;
+    public final CachedMotor backLeftWheel;
+    public final CachedMotor backRightWheel;
 
     /**
      * let `n` be return value;
@@ -27,15 +51,23 @@ public class HardwareManager {
      */
 
     public double getAverageWheelCounts() {
-        return (frontLeftWheel.getCurrentPosition() +
-                frontRightWheel.getCurrentPosition() +
-                backLeftWheel.getCurrentPosition() +
-                backRightWheel.getCurrentPosition()) / 4.0;
+        return sensors.getAverageWheelCounts();
     }
 
     public void resetWheelCounts() {
-        doToAllWheels((wheel) -> wheel.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER));
-        doToAllWheels((wheel) -> wheel.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER));
+        doToAllWheels((wheel) -> wheel.motor.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER));
+        doToAllWheels((wheel) -> wheel.motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER));
+
+        // Resetting the encoders also stops the motors behind the cache's back
+        doToAllWheels(CachedMotor::invalidate);
+
+        // The snapshot still holds the counts from before the reset.
+        // NOT refreshSensors(), the localizer would take the jump to 0 as the robot moving
+        for (LynxModule hub : allHubs) {
+            hub.clearBulkCache();
+        }
+        sensors.update();
+        localizer.resyncEncoders();
     }
 
     /**
@@ -57,59 +89,203 @@ public class HardwareManager {
     }
 
     public interface WheelCallback {
-        void run(DcMotor motor);
+        void run(CachedMotor motor);
     }
 
     //------------------------------------------------------------------------------------------------
     // Launcher
     //------------------------------------------------------------------------------------------------
-    // Insert code for the launcher here
+    public final CachedMotor wheelLauncher;
+    public final CachedServo flinger;
+    public final CachedServo stopper;
+
+    /**
+     * Velocity control of `wheelLauncher`. Use this instead of setting the motor power directly,
+     * and call `launcher.update()` once per cycle.
+     */
+    public final Launcher launcher;
+
+    //------------------------------------------------------------------------------------------------
+    // Outputs
+    //------------------------------------------------------------------------------------------------
+
+    /**
+     * Must be called exactly ONCE at the end of every control cycle.
+     * Every `setPower()` / `setPosition()` done during the cycle is only remembered,
+     * this is where the ones that actually changed get written to the hubs.
+     */
+    public void flushOutputs() {
+        // Battery compensation, the same for all 4 wheels so the robot still goes the
+        // same direction. If that would push a wheel past 1, scale down just enough instead.
+        double maxPower = Math.max(
+                Math.max(Math.abs(frontLeftWheel.getPower()), Math.abs(frontRightWheel.getPower())),
+                Math.max(Math.abs(backLeftWheel.getPower()), Math.abs(backRightWheel.getPower())));
+        double driveScale = battery.getCompensation();
+        if (maxPower * driveScale > 1)
+            driveScale = 1 / maxPower;
 
-    public final DcMotor wheelLauncher;
-    public final Servo flinger;
-    public final Servo stopper;
+        frontLeftWheel.flush(driveScale);
+        frontRightWheel.flush(driveScale);
+        backLeftWheel.flush(driveScale);
+        backRightWheel.flush(driveScale);
+        wheelLauncher.flush();  // The Launcher compensates by itself
+        flinger.flush();
+        stopper.flush();
+    }
     //------------------------------------------------------------------------------------------------
     // Sensors
     //------------------------------------------------------------------------------------------------
 
     public WebcamName camera;
+    /** AprilTag pose fixes for the localizer and the artifact detector, null until `enableVision()`. */
+    public Vision vision;
+    /** Limelight results (pose fixes, color targets), null until `enableLimelight()`. */
+    public Limelight limelight;
     public IMU imu;
+    /** Reads the IMU in the background, nothing else should read `imu` while it runs. */
+    public final ImuReader imuReader;
+    public VoltageSensor batteryVoltageSensor;
+    /** Filtered battery voltage, and how much every power has to be scaled for it. */
+    public final BatteryMonitor battery;
+
+    /**
+     * Every hub on the robot. They are put in MANUAL bulk caching mode,
+     * meaning their cache is only ever cleared by `refreshSensors()`.
+     */
+    public final List<LynxModule> allHubs;
+
+    /**
+     * The sensor values of the current control cycle.
+     * Read from this instead of the devices themselves.
+     */
+    public final SensorSnapshot sensors;
+
+    /**
+     * Where the robot is on the field, from whatever ODOMETRY says.
+     * Moved forward by every `refreshSensors()`.
+     */
+    public final Localizer localizer;
+
+    /** The odometry `localizer` actually uses: ODOMETRY, or DRIVE_ENCODERS if its device isn't there. */
+    public final Odometry odometry;
+
+    /**
+     * Must be called exactly ONCE at the start of every control cycle.
+     * Clears the bulk cache of every hub, then takes a new sensor snapshot,
+     * which costs one bulk read per hub no matter how many encoders are read.
+     */
+    public void refreshSensors() {
+        for (LynxModule hub : allHubs) {
+            hub.clearBulkCache();
+        }
+        sensors.update();
+        localizer.update();
+        battery.update(sensors.getTimestampNanos());
+        if (vision != null)
+            vision.update();
+        if (limelight != null)
+            limelight.update();
+    }
+
+    /**
+     * Starts the webcam and the AprilTag detection, which then corrects the
+     * localizer by itself every cycle. Does nothing if there is no webcam
+     * named `Vision.CAMERA_NAME` in the configuration.
+     * Call it during init, opening the camera takes a moment.
+     * @return Whether vision is running
+     */
+    public boolean enableVision() {
+        if (vision != null)
+            return true;
+
+        camera = hardwareMap.tryGet(WebcamName.class, Vision.CAMERA_NAME);
+        if (camera == null)
+            return false;
+        vision = new Vision(camera, localizer);
+        return true;
+    }
+
+    /**
+     * Starts polling the Limelight, which then corrects the localizer by itself
+     * every cycle (on its AprilTag pipeline). Does nothing if there is no Limelight
+     * named `Limelight.DEVICE_NAME` in the configuration.
+     * @return Whether the Limelight is running
+     */
+    public boolean enableLimelight() {
+        if (limelight != null)
+            return true;
+
+        Limelight3A device = hardwareMap.tryGet(Limelight3A.class, Limelight.DEVICE_NAME);
+        if (device == null)
+            return false;
+        limelight = new Limelight(device, localizer);
+        return true;
+    }
+
+    /**
+     * Makes the current heading 0. Only an offset in the snapshot, the IMU itself
+     * isn't reset, so this never waits on I2C.
+     */
+    public void resetHeading() {
+        sensors.zeroHeading();
+
+        // Only the IMU is zeroed, the robot still faces the same way on the field
+        localizer.resyncHeading();
+    }
 
     /**
      * Returns a normalized robot yaw orientation in Degrees (°)
      *
      *               <- FORWARD ->
      *                     0
-     * LEFT  -90           +         90 RIGHT
+     * LEFT   90           +        -90 RIGHT
      *                 -180/180
      *                 BACKWARD
+     *
+     * Counter-clockwise is positive, like every IMU in the SDK.
      */
     public double getCurrentDegreeHeading() {
-        return imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.DEGREES);
+        return sensors.getHeadingDegrees();
+    }
+
+    /**
+     * Stops the background threads (the `ImuReader`, the odometry device's reader) and the cameras.
+     * MUST be called when the OpMode ends, stopped early or not.
+     */
+    public void close() {
+        imuReader.stop();
+        localizer.close();
+        if (vision != null)
+            vision.close();
+        if (limelight != null)
+            limelight.close();
     }
 
+    private final HardwareMap hardwareMap;
+
     public HardwareManager(HardwareMap hardwareMap) {
+        this.hardwareMap = hardwareMap;
 
         // Assign the device names (found on the driver hub) to our variables in the codebase
-        // Wheels
-        frontLeftWheel = hardwareMap.dcMotor.get("FrontLeftM");
-        frontRightWheel = hardwareMap.dcMotor.get("FrontRightM");
-        backLeftWheel = hardwareMap.dcMotor.get("BackLeftM");
-        backRightWheel = hardwareMap.dcMotor.get("BackRightM");
+        // Wheels, by their configuration names: the right two are plugged in crossed, see MecanumKinematics
+        frontLeftWheel = new CachedMotor(hardwareMap.get(DcMotorEx.class, "FrontLeftM"));
+        frontRightWheel = new CachedMotor(hardwareMap.get(DcMotorEx.class, "FrontRightM"));
+        backLeftWheel = new CachedMotor(hardwareMap.get(DcMotorEx.class, "BackLeftM"));
+        backRightWheel = new CachedMotor(hardwareMap.get(DcMotorEx.class, "BackRightM"));
 
         // Launcher
-        wheelLauncher = hardwareMap.dcMotor.get("LauncherM");
-        stopper = hardwareMap.servo.get("StopperS");
-        flinger = hardwareMap.servo.get("FlingerS");
+        wheelLauncher = new CachedMotor(hardwareMap.get(DcMotorEx.class, "LauncherM"));
+        stopper = new CachedServo(hardwareMap.servo.get("StopperS"));
+        flinger = new CachedServo(hardwareMap.servo.get("FlingerS"));
 
         // Reverses the spin direction of the motors
-        frontLeftWheel.setDirection(DcMotorSimple.Direction.REVERSE);
-        frontRightWheel.setDirection(DcMotorSimple.Direction.FORWARD);
-        backLeftWheel.setDirection(DcMotorSimple.Direction.REVERSE);
-        backRightWheel.setDirection(DcMotorSimple.Direction.FORWARD);
+        frontLeftWheel.motor.setDirection(DcMotorSimple.Direction.REVERSE);
+        frontRightWheel.motor.setDirection(DcMotorSimple.Direction.FORWARD);
+        backLeftWheel.motor.setDirection(DcMotorSimple.Direction.REVERSE);
+        backRightWheel.motor.setDirection(DcMotorSimple.Direction.FORWARD);
 
         // For all motors: when there is no power funnelled into the motor, the motor MUST not be able to rotate.
-        doToAllWheels((wheel) -> wheel.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE));
+        doToAllWheels((wheel) -> wheel.motor.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE));
 
         // Sensors
         imu = hardwareMap.get(IMU.class, "imu");
@@ -122,5 +298,58 @@ public class HardwareManager {
 
         imu.initialize(parameters);
         imu.resetYaw();
+        imuReader = new ImuReader(imu);
+        imuReader.start();
+
+        // Bulk reads
+        allHubs = hardwareMap.getAll(LynxModule.class);
+        for (LynxModule hub : allHubs) {
+            hub.setBulkCachingMode(LynxModule.BulkCachingMode.MANUAL);
+        }
+
+        // Order MUST match the SensorSnapshot indexes
+        sensors = new SensorSnapshot(new DcMotorEx[] {
+                frontLeftWheel.motor,
+                frontRightWheel.motor,
+                backLeftWheel.motor,
+                backRightWheel.motor,
+                wheelLauncher.motor
+        }, imuReader);
+        odometry = findOdometry(hardwareMap);
+        localizer = createLocalizer(hardwareMap, odometry);
+        batteryVoltageSensor = hardwareMap.voltageSensor.iterator().hasNext()
+                ? hardwareMap.voltageSensor.iterator().next()
+                : null;
+        battery = new BatteryMonitor(batteryVoltageSensor);
+        refreshSensors();
+
+        // Launcher control
+        launcher = new Launcher(wheelLauncher, sensors, battery);
+    }
+
+    /**
+     * What ODOMETRY ends up being with this configuration: itself, or DRIVE_ENCODERS if
+     * its device isn't in it. Anything else picking a localizer (Pedro's, see
+     * `Constants.createFollower()`) MUST go by this too, so both agree.
+     */
+    public static Odometry findOdometry(HardwareMap hardwareMap) {
+        if (ODOMETRY == Odometry.PINPOINT
+                && hardwareMap.tryGet(GoBildaPinpointDriver.class, PinpointLocalizer.DEVICE_NAME) != null)
+            return Odometry.PINPOINT;
+        if (ODOMETRY == Odometry.OCTOQUAD
+                && hardwareMap.tryGet(OctoQuad.class, OctoQuadLocalizer.DEVICE_NAME) != null)
+            return Odometry.OCTOQUAD;
+        return Odometry.DRIVE_ENCODERS;
+    }
+
+    private Localizer createLocalizer(HardwareMap hardwareMap, Odometry odometry) {
+        switch (odometry) {
+            case PINPOINT:
+                return new PinpointLocalizer(sensors, hardwareMap.get(GoBildaPinpointDriver.class, PinpointLocalizer.DEVICE_NAME));
+            case OCTOQUAD:
+                return new OctoQuadLocalizer(sensors, hardwareMap.get(OctoQuad.class, OctoQuadLocalizer.DEVICE_NAME));
+            default:
+                return new MecanumLocalizer(sensors);
+        }
     }
 }
\ No newline at end of file
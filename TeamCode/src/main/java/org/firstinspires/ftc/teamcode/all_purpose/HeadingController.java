@@ -0,0 +1,134 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.util.ElapsedTime;
+import com.qualcomm.robotcore.util.Range;
+
+/**
+ * Turns the robot towards a heading and tells when it has actually settled there.
+ *
+ *   error = wrap(target - heading)                 <- always the SHORT way around, -180 to 180
+ *
+ *   turn  = kP * error - kD * rate                  <- push towards the target, brake when
+ *         + kS * sign(error)                           spinning fast so it doesn't overshoot
+ *
+ * It is "settled" only when the error AND the turning rate have both stayed small
+ * for SETTLE_SECONDS, so a robot swinging through the target doesn't count.
+ *
+ * Headings are the same as `HardwareManager.getCurrentDegreeHeading()`:
+ * degrees, counter-clockwise positive, 0 = where the robot faced at init.
+ * The turning rate is worked out from the heading of each snapshot, so no extra IMU read.
+ */
+@Configurable
+public class HeadingController {
+    //------------------------------------------------------------------------------------------------
+    // Config (in turn power, per degree)
+    //------------------------------------------------------------------------------------------------
+    public static double kP = 0.015;
+    public static double kD = 0.0012;  // per degree/s
+    public static double kS = 0.06;    // Just enough to get the robot turning at all
+
+    public static double HEADING_TOLERANCE = 1.5;  // degrees
+    public static double RATE_TOLERANCE = 10;      // degrees/s
+    public static double SETTLE_SECONDS = 0.1;
+    /** The rate is measured over at least this long, the IMU doesn't give a new heading every cycle. */
+    public static double RATE_WINDOW_SECONDS = 0.02;
+
+    //------------------------------------------------------------------------------------------------
+    // State
+    //------------------------------------------------------------------------------------------------
+    private double targetHeading = 0;
+    private double maxPower = 1;
+    private double error = 0;
+    private double rate = 0;
+
+    private double rateStartHeading = 0;
+    private long rateStartNanos = 0;
+
+    private final ElapsedTime settleTimer = new ElapsedTime();
+    private boolean inTolerance = false;
+
+    /** Wraps any angle into -180 to 180 degrees. */
+    public static double wrapDegrees(double degrees) {
+        degrees %= 360;
+        if (degrees > 180)
+            degrees -= 360;
+        else if (degrees <= -180)
+            degrees += 360;
+        return degrees;
+    }
+
+    public void setTarget(double targetHeading) {
+        this.targetHeading = wrapDegrees(targetHeading);
+        inTolerance = false;
+    }
+
+    /** The turn power will never go over this, 0 to 1. */
+    public void setMaxPower(double maxPower) {
+        this.maxPower = Math.abs(maxPower);
+    }
+
+    /**
+     * One step of the controller, call it once per cycle.
+     * @param heading        Current heading, in degrees
+     * @param timestampNanos When that heading was read (`SensorSnapshot.getTimestampNanos()`)
+     * @return The turn power, positive = counter-clockwise
+     */
+    public double update(double heading, long timestampNanos) {
+        // Measured over RATE_WINDOW_SECONDS: from one cycle to the next the heading is often
+        // the very same reading, then suddenly jumps, which would make the rate jump all over
+        if (rateStartNanos == 0) {
+            rateStartHeading = heading;
+            rateStartNanos = timestampNanos;
+        } else {
+            double dt = (timestampNanos - rateStartNanos) / 1e9;
+            if (dt >= RATE_WINDOW_SECONDS) {
+                rate = wrapDegrees(heading - rateStartHeading) / dt;
+                rateStartHeading = heading;
+                rateStartNanos = timestampNanos;
+            }
+        }
+
+        error = wrapDegrees(targetHeading - heading);
+
+        boolean nowInTolerance = Math.abs(error) < HEADING_TOLERANCE && Math.abs(rate) < RATE_TOLERANCE;
+        if (nowInTolerance && !inTolerance)
+            settleTimer.reset();
+        inTolerance = nowInTolerance;
+
+        // Close enough, don't buzz around the target with kS
+        if (Math.abs(error) < HEADING_TOLERANCE)
+            return Range.clip(-kD * rate, -maxPower, maxPower);
+
+        double turn = kP * error - kD * rate + kS * Math.signum(error);
+        return Range.clip(turn, -maxPower, maxPower);
+    }
+
+    /** Forgets the last heading, so the next `update()` doesn't see a huge jump in rate. */
+    public void reset() {
+        rateStartNanos = 0;
+        rate = 0;
+        inTolerance = false;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Getters
+    //------------------------------------------------------------------------------------------------
+    public boolean isSettled() {
+        return inTolerance && settleTimer.seconds() >= SETTLE_SECONDS;
+    }
+
+    public double getTarget() {
+        return targetHeading;
+    }
+
+    /** Degrees left to turn as of the last `update()`, positive = counter-clockwise. */
+    public double getError() {
+        return error;
+    }
+
+    /** Degrees per second as of the last `update()`, positive = counter-clockwise. */
+    public double getRate() {
+        return rate;
+    }
+}
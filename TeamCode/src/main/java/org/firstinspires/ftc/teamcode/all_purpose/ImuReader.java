@@ -0,0 +1,187 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+
+/**
+ * Reads the IMU on its OWN thread, so the control loop never waits on I2C.
+ *
+ * The IMU is on I2C, the slowest bus of the hub: one `getRobotYawPitchRollAngles()`
+ * costs a few ms, every time. Here a background thread reads it at RATE_HZ and
+ * publishes the latest reading, and the control loop just picks it up:
+ *
+ *  (reader thread)  read IMU -> write slot -> sleep -> read IMU -> write slot -> ...
+ *                                   |
+ *  (control loop)                   `-> read(sample) in SensorSnapshot.update(), costs ~nothing
+ *
+ * The slot has ONE writer (the reader thread) and any number of readers, and
+ * never blocks either side. The writer bumps `version` to odd before writing
+ * and back to even after, a reader that saw an odd or changed `version`
+ * just reads again:
+ *
+ *      version:  even  ->  odd (writing...)  ->  even
+ *      reader:   v1 = version, copy values, v2 = version, OK only if v1 == v2 and even
+ *
+ * Every reading has the `System.nanoTime()` of when it was taken, so the
+ * control loop can tell how old (stale) its heading is.
+ */
+@Configurable
+public class ImuReader implements Runnable {
+    //------------------------------------------------------------------------------------------------
+    // Config
+    //------------------------------------------------------------------------------------------------
+    public static double RATE_HZ = 100;
+    public static double STALE_MS = 50;  // Older than this = something is wrong with the IMU
+
+    /** One reading, filled by `read()`. */
+    public static class Sample {
+        public double yawDegrees;
+        public long timestampNanos;  // 0 = never read
+
+        /** How old the reading is, in ns. */
+        public long getAgeNanos(long nowNanos) {
+            return nowNanos - timestampNanos;
+        }
+
+        public boolean isStale(long nowNanos) {
+            return timestampNanos == 0 || getAgeNanos(nowNanos) > STALE_MS * 1e6;
+        }
+    }
+
+    private final IMU imu;
+    private Thread thread;
+    private volatile boolean running = false;
+
+    //------------------------------------------------------------------------------------------------
+    // Slot (only the reader thread writes these)
+    //------------------------------------------------------------------------------------------------
+    private volatile long version = 0;
+    private volatile double yawDegrees = 0;
+    private volatile long timestampNanos = 0;
+
+    //------------------------------------------------------------------------------------------------
+    // Metrics (only the reader thread writes these)
+    //------------------------------------------------------------------------------------------------
+    private volatile long readCount = 0;
+    private volatile long errorCount = 0;
+    private volatile long lastReadDurationNanos = 0;
+
+    ImuReader(IMU imu) {
+        this.imu = imu;
+    }
+
+    /**
+     * Reads the IMU once right now (so there is a heading from the very first cycle),
+     * then starts the background thread.
+     */
+    public void start() {
+        if (thread != null)
+            return;
+
+        readOnce();
+        running = true;
+        thread = new Thread(this, "ImuReader");
+        thread.setDaemon(true);  // Never keeps the app alive on its own
+        thread.start();
+    }
+
+    /** Stops the thread, MUST be called when the OpMode ends. */
+    public void stop() {
+        running = false;
+        if (thread == null)
+            return;
+
+        thread.interrupt();
+        try {
+            thread.join(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            long start = System.nanoTime();
+            readOnce();
+
+            long periodNanos = (long) (1e9 / Math.max(1, RATE_HZ));
+            long wait = periodNanos - (System.nanoTime() - start);
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void readOnce() {
+        long start = System.nanoTime();
+        double yaw;
+        try {
+            yaw = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.DEGREES);
+        } catch (RuntimeException e) {
+            // Keep the last good reading, it simply gets stale
+            if (errorCount == 0)
+                RobotLog.ee("ImuReader", e, "Could not read the IMU");
+            errorCount++;
+            return;
+        }
+        long end = System.nanoTime();
+
+        version++;   // Odd: readers will wait
+        yawDegrees = yaw;
+        timestampNanos = end;
+        version++;   // Even: done
+
+        readCount++;
+        lastReadDurationNanos = end - start;
+    }
+
+    /**
+     * Copies the latest reading into `sample`. Never blocks on the IMU, and
+     * in the rare case the thread is writing right now it just tries again.
+     */
+    public void read(Sample sample) {
+        while (true) {
+            long before = version;
+            if ((before & 1) == 0) {
+                double yaw = yawDegrees;
+                long timestamp = timestampNanos;
+                if (version == before) {
+                    sample.yawDegrees = yaw;
+                    sample.timestampNanos = timestamp;
+                    return;
+                }
+            }
+            Thread.yield();
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Getters
+    //------------------------------------------------------------------------------------------------
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    public long getReadCount() {
+        return readCount;
+    }
+
+    /** Failed reads, the first one is also written to the robot log. */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /** How long the last IMU read took, in ns (the time the control loop no longer waits). */
+    public long getLastReadDurationNanos() {
+        return lastReadDurationNanos;
+    }
+}
@@ -0,0 +1,100 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+/**
+ * A fixed size histogram of durations in microseconds, in the style of HdrHistogram.
+ * Everything lives in one preallocated `long[]`, so recording never allocates.
+ *
+ * Values below 64us get their own bucket. Above that, every power of two is
+ * split in 32 buckets, which keeps every bucket within ~3% of the real value:
+ *
+ *      [0] [1] ... [63] | [64..65] [66..67] ... [126..127] | [128..131] ... | ...
+ *        exact          |          32 buckets              |   32 buckets   |
+ *
+ * The last power of two is MAX_SHIFT's, so anything from OVERFLOW_MICROS
+ * (2^(MAX_SHIFT + SUB_BUCKET_BITS + 1) us = 2^25 us, ~33.5 seconds) on ends up
+ * in the last bucket (max is still exact).
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS; // 32
+    private static final int MAX_SHIFT = 19;                           // Last power of two: 2^24 to 2^25 us
+    private static final int BUCKET_COUNT = (MAX_SHIFT + 2) * SUB_BUCKET_COUNT;
+    private static final long OVERFLOW_MICROS = 1L << (MAX_SHIFT + SUB_BUCKET_BITS + 1); // ~33.5s
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount = 0;
+    private long maxValue = 0;
+
+    public void record(long micros) {
+        if (micros < 0)
+            micros = 0;
+
+        counts[bucketOf(micros)]++;
+        totalCount++;
+        if (micros > maxValue)
+            maxValue = micros;
+    }
+
+    /**
+     * Returns the value (in microseconds) that `percentile` % of the recorded values are below.
+     * The answer is rounded UP to the top of its bucket, so it never under-reports.
+     */
+    public long getPercentile(double percentile) {
+        if (totalCount == 0)
+            return 0;
+
+        long wanted = (long) Math.ceil(totalCount * percentile / 100.0);
+        if (wanted < 1)
+            wanted = 1;
+
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= wanted)
+                return Math.min(highestValueOf(i), maxValue);
+        }
+        return maxValue;
+    }
+
+    public long getMax() {
+        return maxValue;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = 0;
+        }
+        totalCount = 0;
+        maxValue = 0;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Bucket math
+    //------------------------------------------------------------------------------------------------
+    private static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKET_COUNT)
+            return (int) value;
+
+        if (value >= OVERFLOW_MICROS)
+            return BUCKET_COUNT - 1;
+
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BUCKET_BITS;
+
+        // (value >> shift) is always between 32 and 63 here
+        return shift * SUB_BUCKET_COUNT + (int) (value >> shift);
+    }
+
+    private static long highestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKET_COUNT)
+            return bucket;
+
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        long subBucket = bucket - (long) shift * SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,254 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.bylazar.configurables.annotations.Configurable;
+
+/**
+ * Keeps track of WHERE the robot is on the field (x, y, heading). Each kind of
+ * odometry (drive encoders, Pinpoint, ...) is a subclass that moves the pose
+ * every cycle in `update()`, everything else is shared here:
+ *
+ *   - the pose itself, and its velocities,
+ *   - `setPose()`, to say where the robot actually starts,
+ *   - `addPoseFix()`, absolute fixes from the camera, compared with the odometry
+ *     history of when they were measured (see `OdometryHistory`).
+ *
+ * Field frame: meters and radians, counter-clockwise positive, (0, 0, 0) = where
+ * the robot was at init, x = forward at init, y = left at init. Once a fix was
+ * taken, the pose is in the frame of the fixes (the FTC field frame).
+ *
+ * The heading always comes from the odometry's own sensor (the IMU, the Pinpoint...),
+ * plus `headingOffset`, which `setPose()` and the fixes move instead of the sensor.
+ *
+ * Updated by `HardwareManager.refreshSensors()`, so every cycle reads the same pose.
+ */
+@Configurable
+public abstract class Localizer {
+    //------------------------------------------------------------------------------------------------
+    // Config (absolute fixes)
+    //------------------------------------------------------------------------------------------------
+    public static double FIX_GAIN = 0.3;                  // How much of each fix's position is taken in, 0 to 1
+    public static double FIX_HEADING_GAIN = 0.1;          // Same for the heading, the IMU is usually better
+    public static double FIX_FULL_TRUST_RANGE = 1;        // m, fixes from farther get less gain
+    public static double MAX_FIX_AGE_MS = 500;            // Also limited by how far back the history goes
+    public static double MAX_FIX_JUMP = 0.15;             // m, a fix farther than this from the odometry is an outlier
+    public static double FIX_JUMP_PER_METER = 0.1;        // m more allowed per m of range
+    public static double MAX_FIX_HEADING_JUMP_DEGREES = 15;
+    public static int RELOCALIZE_AFTER_REJECTIONS = 10;   // In a row, then the fixes are believed again
+
+    /** Cycles of odometry kept for late fixes, ~1 s at a 10 ms loop. */
+    public static final int HISTORY_SIZE = 128;
+
+    protected final SensorSnapshot sensors;
+
+    //------------------------------------------------------------------------------------------------
+    // State
+    //------------------------------------------------------------------------------------------------
+    protected double x = 0;
+    protected double y = 0;
+    protected double heading = 0;
+    protected double headingOffset = 0; // field heading - heading of the odometry's sensor
+
+    // Field frame
+    protected double velocityX = 0;
+    protected double velocityY = 0;
+    protected double angularVelocity = 0;
+
+    private final OdometryHistory history = new OdometryHistory(HISTORY_SIZE);
+    private final double[] pastPose = new double[3];
+    private boolean hasFix = false;
+    private long fixCount = 0;
+    private long rejectedFixCount = 0;
+    private int rejectedInARow = 0;
+    private long relocalizeCount = 0;
+
+    protected Localizer(SensorSnapshot sensors) {
+        this.sensors = sensors;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // For the subclasses
+    //------------------------------------------------------------------------------------------------
+
+    /**
+     * Moves the pose by what the odometry measured since the last call, and calls
+     * `recordPose()`. Expects the snapshot to have JUST been refreshed.
+     */
+    abstract void update();
+
+    /** Heading of the odometry's own sensor right now, radians, counter-clockwise positive. */
+    protected abstract double getSensorHeading();
+
+    /** Remembers the current pose as measured at `timestampNanos`, for late fixes. */
+    protected void recordPose(long timestampNanos) {
+        history.add(timestampNanos, x, y, heading);
+    }
+
+    /** Call right after the encoders were reset, so the jump isn't taken as the robot moving. */
+    void resyncEncoders() {}
+
+    /** Call right after the heading sensor was zeroed, so the field heading doesn't jump. */
+    void resyncHeading() {
+        headingOffset = angleWrap(heading - getSensorHeading());
+    }
+
+    /** Stops whatever runs in the background, if anything. */
+    public void close() {}
+
+    //------------------------------------------------------------------------------------------------
+    // Pose
+    //------------------------------------------------------------------------------------------------
+
+    /** Tells the localizer where the robot actually is, e.g. its starting spot. */
+    public void setPose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = angleWrap(heading);
+        headingOffset = angleWrap(this.heading - getSensorHeading());
+        relocalizeCount++;
+
+        // The old poses were in another frame, a late fix can't be compared with them anymore
+        history.clear();
+        recordPose(sensors.getTimestampNanos());
+    }
+
+    /**
+     * An absolute pose from somewhere else (camera, ...), in meters and radians,
+     * measured at `timestampNanos` (`System.nanoTime()`), which can be a while ago.
+     *
+     * The fix is compared with where the ODOMETRY thought the robot was at that
+     * same moment (from the history), not with the pose now, since the robot has
+     * moved since the frame was taken:
+     *
+     *   then:  odometry (past) <---- correction ----> fix
+     *   now:   odometry (now)  ----> same correction, replayed onto everything since then
+     *
+     * - The very first fix is taken as is (the pose before it was only relative to where
+     *   the robot started), so is one after RELOCALIZE_AFTER_REJECTIONS rejections in a row
+     *   (the robot probably got pushed, the odometry is the one that's wrong).
+     *   Both make the pose JUMP, see `getRelocalizeCount()`.
+     * - A fix too far from the odometry is an outlier and ignored. Farther tags are
+     *   allowed more error (`rangeMeters`), and are trusted less.
+     * - Otherwise the pose is pulled FIX_GAIN of the way towards it.
+     *
+     * @param rangeMeters How far the measured thing was (e.g. the tag), 0 if unknown
+     */
+    public void addPoseFix(double fixX, double fixY, double fixHeading, long timestampNanos, double rangeMeters) {
+        if ((sensors.getTimestampNanos() - timestampNanos) / 1e6 > MAX_FIX_AGE_MS
+                || !history.getPoseAt(timestampNanos, pastPose)) {
+            rejectedFixCount++;
+            return;
+        }
+        double pastX = pastPose[0];
+        double pastY = pastPose[1];
+        double pastHeading = pastPose[2];
+
+        double errorX = fixX - pastX;
+        double errorY = fixY - pastY;
+        double errorHeading = angleWrap(fixHeading - pastHeading);
+
+        if (!hasFix || rejectedInARow >= RELOCALIZE_AFTER_REJECTIONS) {
+            hasFix = true;
+            rejectedInARow = 0;
+            fixCount++;
+            relocalizeCount++;
+            applyCorrection(timestampNanos, pastX, pastY, errorX, errorY, errorHeading);
+            return;
+        }
+
+        boolean outlier = Math.hypot(errorX, errorY) > MAX_FIX_JUMP + FIX_JUMP_PER_METER * rangeMeters
+                || Math.abs(errorHeading) > Math.toRadians(MAX_FIX_HEADING_JUMP_DEGREES);
+        if (outlier) {
+            rejectedFixCount++;
+            rejectedInARow++;
+            return;
+        }
+
+        rejectedInARow = 0;
+        fixCount++;
+        double gain = FIX_GAIN * Math.min(1, FIX_FULL_TRUST_RANGE / Math.max(rangeMeters, 1e-3));
+        applyCorrection(timestampNanos, pastX, pastY,
+                gain * errorX, gain * errorY, FIX_HEADING_GAIN * errorHeading);
+    }
+
+    /**
+     * Moves the pose at `sinceNanos` by (dx, dy, dHeading), and everything the odometry did
+     * after it along with it, as one rigid piece (rotated around the pose at `sinceNanos`).
+     */
+    private void applyCorrection(long sinceNanos, double pivotX, double pivotY, double dx, double dy, double dHeading) {
+        history.transformSince(sinceNanos, pivotX, pivotY, dx, dy, dHeading);
+
+        double cos = Math.cos(dHeading);
+        double sin = Math.sin(dHeading);
+        double relativeX = x - pivotX;
+        double relativeY = y - pivotY;
+        x = pivotX + dx + relativeX * cos - relativeY * sin;
+        y = pivotY + dy + relativeX * sin + relativeY * cos;
+
+        // The heading itself keeps coming from the sensor, only the offset to it moves
+        headingOffset = angleWrap(headingOffset + dHeading);
+        heading = angleWrap(heading + dHeading);
+    }
+
+    public static double angleWrap(double radians) {
+        while (radians > Math.PI)
+            radians -= 2 * Math.PI;
+        while (radians <= -Math.PI)
+            radians += 2 * Math.PI;
+        return radians;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Getters
+    //------------------------------------------------------------------------------------------------
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    /** Radians, -π to π, counter-clockwise positive. */
+    public double getHeading() {
+        return heading;
+    }
+
+    /** Field frame, m/s. */
+    public double getVelocityX() {
+        return velocityX;
+    }
+
+    /** Field frame, m/s. */
+    public double getVelocityY() {
+        return velocityY;
+    }
+
+    /** Radians per second, counter-clockwise positive. */
+    public double getAngularVelocity() {
+        return angularVelocity;
+    }
+
+    /** True once an absolute fix was taken, the pose is then in the field frame. */
+    public boolean hasFix() {
+        return hasFix;
+    }
+
+    public long getFixCount() {
+        return fixCount;
+    }
+
+    /** Fixes ignored, because they were too old or outliers. */
+    public long getRejectedFixCount() {
+        return rejectedFixCount;
+    }
+
+    /**
+     * Goes up every time the pose JUMPS instead of moving: `setPose()`, the first fix,
+     * a fix taken as is after RELOCALIZE_AFTER_REJECTIONS. Anything that kept a pose to
+     * compare with (like `DriveDistanceCommand` and where it started) has to check it
+     * every cycle, and move that pose along when it changes.
+     */
+    public long getRelocalizeCount() {
+        return relocalizeCount;
+    }
+}
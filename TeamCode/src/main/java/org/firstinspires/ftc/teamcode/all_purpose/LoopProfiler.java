@@ -0,0 +1,137 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.bylazar.telemetry.PanelsTelemetry;
+import com.bylazar.telemetry.TelemetryManager;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.util.Locale;
+
+/**
+ * Measures how long each part of a control cycle takes, and the length of the
+ * whole cycle, without allocating anything while recording.
+ *
+ *  startCycle()                                                           startCycle()
+ *      |-- SENSOR_READ --|-- CONTROL --|-- ACTUATOR_WRITE --|-- TELEMETRY --|
+ *      |<------------------------------ CYCLE ------------------------------>|
+ *
+ * Each `endPhase(phase)` records the time since the previous mark into that phase.
+ * The percentiles are only turned into text every `REPORT_PERIOD_MS`. The driver hub
+ * shows them through retained telemetry items, so nothing is added to the telemetry per loop.
+ */
+public class LoopProfiler {
+    public enum Phase {
+        SENSOR_READ("sensors"),
+        CONTROL("control"),
+        ACTUATOR_WRITE("outputs"),
+        TELEMETRY("telemetry"),
+        CYCLE("CYCLE");
+
+        public final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    /** How often the percentiles are recomputed and sent to Panels. */
+    public static long REPORT_PERIOD_MS = 1000;
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+    private final String[] lines = new String[PHASES.length];
+    private final TelemetryManager panelsTelemetry;
+
+    private long cycleStartNanos = -1;
+    private long markNanos = -1;
+    private long lastReportNanos = 0;
+
+    public LoopProfiler(Telemetry telemetry) {
+        for (int i = 0; i < PHASES.length; i++) {
+            histograms[i] = new LatencyHistogram();
+            lines[i] = "no data";
+
+            // Retained items survive telemetry.update(), and are only read when actually transmitted
+            final int index = i;
+            telemetry.addData(PHASES[i].label, () -> lines[index]).setRetained(true);
+        }
+        panelsTelemetry = PanelsTelemetry.INSTANCE.getTelemetry();
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Recording
+    //------------------------------------------------------------------------------------------------
+
+    /**
+     * Marks the start of a new cycle, and records how long the previous one lasted
+     * (including whatever the SDK does between two of our loops).
+     */
+    public void startCycle() {
+        long now = System.nanoTime();
+        if (cycleStartNanos >= 0)
+            histograms[Phase.CYCLE.ordinal()].record((now - cycleStartNanos) / 1000);
+
+        cycleStartNanos = now;
+        markNanos = now;
+    }
+
+    /** Records the time since the last mark as `phase`. */
+    public void endPhase(Phase phase) {
+        if (markNanos < 0)
+            return;
+
+        long now = System.nanoTime();
+        histograms[phase.ordinal()].record((now - markNanos) / 1000);
+        markNanos = now;
+    }
+
+    public LatencyHistogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    /** Forgets everything recorded so far, e.g. to exclude the init period. */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        cycleStartNanos = -1;
+        markNanos = -1;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Reporting
+    //------------------------------------------------------------------------------------------------
+
+    /**
+     * Every `REPORT_PERIOD_MS`, recomputes the timing lines and sends them to Panels.
+     * Any other call returns right away.
+     * Does NOT call `telemetry.update()`.
+     *
+     * Returns true when the lines were recomputed this call.
+     */
+    public boolean report() {
+        long now = System.nanoTime();
+        if ((now - lastReportNanos) / 1_000_000 < REPORT_PERIOD_MS)
+            return false;
+
+        lastReportNanos = now;
+        for (int i = 0; i < PHASES.length; i++) {
+            lines[i] = describe(histograms[i]);
+            panelsTelemetry.debug(PHASES[i].label + ": " + lines[i]);
+        }
+        panelsTelemetry.update();
+        return true;
+    }
+
+    private static String describe(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0)
+            return "no data";
+
+        return String.format(Locale.US, "p50 %.2f  p95 %.2f  p99 %.2f  max %.2f ms",
+                histogram.getPercentile(50) / 1000.0,
+                histogram.getPercentile(95) / 1000.0,
+                histogram.getPercentile(99) / 1000.0,
+                histogram.getMax() / 1000.0);
+    }
+}
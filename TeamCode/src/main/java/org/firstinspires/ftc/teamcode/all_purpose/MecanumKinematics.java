@@ -0,0 +1,68 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+/**
+ * How our 4 drive motors move the robot, and back. The ONE place for it: the TeleOp,
+ * the commands and the localizer all go through here, so they can't disagree.
+ *
+ * Robot frame: forward, left, and turn = counter-clockwise (all positive). In motor power
+ * (or in meters of wheel travel, it's linear):
+ *
+ *      FrontLeftM  = forward - left - turn         forward = ( FL + FR + BL + BR) / 4
+ *      FrontRightM = forward - left + turn         left    = (-FL - FR + BL + BR) / 4
+ *      BackLeftM   = forward + left - turn         turn    = (-FL + FR - BL + BR) / 4
+ *      BackRightM  = forward + left + turn
+ *
+ * That's the mixing the TeleOp has always driven with. Seen from above, the rollers make an X
+ * (a normal mecanum drive), but the two RIGHT motors are plugged in crossed:
+ *
+ *                    FL  \\-----//  FR   <- driven by BackRightM
+ *                        |     |
+ *                        |     |
+ *                    BL  //-----\\  BR   <- driven by FrontRightM
+ *
+ * On a normal mecanum drive, "front wheels back, back wheels forward" fights itself and
+ * goes nowhere. With the right motors crossed, it's exactly a strafe to the left, and
+ * driving and turning don't change (both right wheels always get the same there).
+ * The names stay what's in the driver hub configuration, only the kinematics knows.
+ *
+ * The 3 patterns don't overlap, so each way back is just the average of the wheels
+ * with the signs of its pattern. `turn` is in wheel travel: divide by
+ * (TRACK_WIDTH + WHEEL_BASE) / 2 for radians.
+ */
+public final class MecanumKinematics {
+    private MecanumKinematics() {}
+
+    //------------------------------------------------------------------------------------------------
+    // Robot -> wheels
+    //------------------------------------------------------------------------------------------------
+    public static double frontLeft(double forward, double left, double turn) {
+        return forward - left - turn;
+    }
+
+    public static double frontRight(double forward, double left, double turn) {
+        return forward - left + turn;
+    }
+
+    public static double backLeft(double forward, double left, double turn) {
+        return forward + left - turn;
+    }
+
+    public static double backRight(double forward, double left, double turn) {
+        return forward + left + turn;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Wheels -> robot
+    //------------------------------------------------------------------------------------------------
+    public static double forward(double fl, double fr, double bl, double br) {
+        return (fl + fr + bl + br) / 4;
+    }
+
+    public static double left(double fl, double fr, double bl, double br) {
+        return (-fl - fr + bl + br) / 4;
+    }
+
+    public static double turn(double fl, double fr, double bl, double br) {
+        return (-fl + fr - bl + br) / 4;
+    }
+}
@@ -0,0 +1,158 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.bylazar.configurables.annotations.Configurable;
+
+/**
+ * Keeps track of WHERE the robot is on the field (x, y, heading), from how much
+ * each wheel turned since the last cycle and the heading from the IMU.
+ *
+ * Field frame: meters and radians, counter-clockwise positive, (0, 0, 0) = where
+ * the robot was at init, x = forward at init, y = left at init.
+ *
+ * Every cycle, from the 4 wheel distances (robot frame, x = forward, y = left):
+ *
+ *      forward  = MecanumKinematics.forward(FL, FR, BL, BR)
+ *      sideways = MecanumKinematics.left(FL, FR, BL, BR) * LATERAL_MULTIPLIER
+ *      turn     = from the IMU (the wheels slip way too much for that)
+ *
+ * See `MecanumKinematics` for how our motors are laid out.
+ *
+ * The robot moved along an ARC, not a straight line, since it was turning at the same
+ * time. The pose exponential takes care of that:
+ *
+ *      sinc  = sin(dθ) / dθ
+ *      cosc  = (1 - cos(dθ)) / dθ
+ *      local = (sinc * forward - cosc * sideways,  cosc * forward + sinc * sideways)
+ *
+ * and the local move is rotated by the heading at the start of the cycle.
+ * Called by `HardwareManager.refreshSensors()`, so every cycle reads the same pose.
+ *
+ * Wheels drift a bit with every bump and slip. Absolute fixes (e.g. from the AprilTags,
+ * see `Vision`) pull the pose back a part of the way each time, see `Localizer.addPoseFix()`.
+ */
+@Configurable
+public class MecanumLocalizer extends Localizer {
+    //------------------------------------------------------------------------------------------------
+    // Config
+    //------------------------------------------------------------------------------------------------
+    public static double WHEEL_DIAMETER = 0.098;          // m
+    public static double COUNTS_PER_WHEEL_REVOLUTION = 900;
+    public static double LATERAL_MULTIPLIER = 1;          // Measured sideways / computed sideways
+    public static double TRACK_WIDTH = 0.36;              // m, left to right wheel
+    public static double WHEEL_BASE = 0.30;               // m, front to back wheel
+
+    public static double countsPerMeter() {
+        return COUNTS_PER_WHEEL_REVOLUTION / (Math.PI * WHEEL_DIAMETER);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // State
+    //------------------------------------------------------------------------------------------------
+    private final int[] lastPositions = new int[4];
+    private boolean hasLastPositions = false;
+    private double lastImuHeading = 0;
+
+    MecanumLocalizer(SensorSnapshot sensors) {
+        super(sensors);
+    }
+
+    /**
+     * Moves the pose by what the wheels did since the last call.
+     * Expects the snapshot to have JUST been refreshed.
+     */
+    @Override
+    void update() {
+        double imuHeading = getSensorHeading();
+
+        if (!hasLastPositions) {
+            storePositions();
+            lastImuHeading = imuHeading;
+            heading = angleWrap(imuHeading + headingOffset);
+            hasLastPositions = true;
+            recordPose(sensors.getTimestampNanos());
+            return;
+        }
+
+        double countsPerMeter = countsPerMeter();
+        double fl = (sensors.getPosition(SensorSnapshot.FRONT_LEFT) - lastPositions[SensorSnapshot.FRONT_LEFT]) / countsPerMeter;
+        double fr = (sensors.getPosition(SensorSnapshot.FRONT_RIGHT) - lastPositions[SensorSnapshot.FRONT_RIGHT]) / countsPerMeter;
+        double bl = (sensors.getPosition(SensorSnapshot.BACK_LEFT) - lastPositions[SensorSnapshot.BACK_LEFT]) / countsPerMeter;
+        double br = (sensors.getPosition(SensorSnapshot.BACK_RIGHT) - lastPositions[SensorSnapshot.BACK_RIGHT]) / countsPerMeter;
+        storePositions();
+
+        double forward = MecanumKinematics.forward(fl, fr, bl, br);
+        double sideways = MecanumKinematics.left(fl, fr, bl, br) * LATERAL_MULTIPLIER;
+        double turn = angleWrap(imuHeading - lastImuHeading);
+        lastImuHeading = imuHeading;
+
+        // Pose exponential, with the small angle version to not divide by ~0
+        double sinc;
+        double cosc;
+        if (Math.abs(turn) < 1e-6) {
+            sinc = 1 - turn * turn / 6;
+            cosc = turn / 2;
+        } else {
+            sinc = Math.sin(turn) / turn;
+            cosc = (1 - Math.cos(turn)) / turn;
+        }
+        double localX = sinc * forward - cosc * sideways;
+        double localY = cosc * forward + sinc * sideways;
+
+        // `heading` is still the one from the start of the cycle
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        x += localX * cos - localY * sin;
+        y += localX * sin + localY * cos;
+        heading = angleWrap(imuHeading + headingOffset);
+        recordPose(sensors.getTimestampNanos());
+
+        updateVelocity(countsPerMeter);
+    }
+
+    /** Velocities straight from the hub's wheel velocities, not from differences of poses. */
+    private void updateVelocity(double countsPerMeter) {
+        double fl = sensors.getVelocity(SensorSnapshot.FRONT_LEFT) / countsPerMeter;
+        double fr = sensors.getVelocity(SensorSnapshot.FRONT_RIGHT) / countsPerMeter;
+        double bl = sensors.getVelocity(SensorSnapshot.BACK_LEFT) / countsPerMeter;
+        double br = sensors.getVelocity(SensorSnapshot.BACK_RIGHT) / countsPerMeter;
+
+        double forward = MecanumKinematics.forward(fl, fr, bl, br);
+        double sideways = MecanumKinematics.left(fl, fr, bl, br) * LATERAL_MULTIPLIER;
+        double k = (TRACK_WIDTH + WHEEL_BASE) / 2;
+
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        velocityX = forward * cos - sideways * sin;
+        velocityY = forward * sin + sideways * cos;
+        angularVelocity = MecanumKinematics.turn(fl, fr, bl, br) / k;
+    }
+
+    private void storePositions() {
+        for (int i = 0; i < lastPositions.length; i++)
+            lastPositions[i] = sensors.getPosition(i);
+    }
+
+    /** The IMU's yaw, in radians. */
+    @Override
+    protected double getSensorHeading() {
+        return Math.toRadians(sensors.getHeadingDegrees());
+    }
+
+    /**
+     * Call right after the encoders were reset (or jumped for any reason),
+     * so the jump isn't taken as the robot moving.
+     */
+    @Override
+    void resyncEncoders() {
+        storePositions();
+    }
+
+    /**
+     * Call right after the IMU yaw was reset, so the field heading doesn't jump.
+     */
+    @Override
+    void resyncHeading() {
+        super.resyncHeading();
+        lastImuHeading = getSensorHeading();
+    }
+}
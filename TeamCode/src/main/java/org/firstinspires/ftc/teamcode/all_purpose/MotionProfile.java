@@ -0,0 +1,215 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+/**
+ * Plans HOW to get over a distance: when to speed up, cruise and slow down,
+ * so the robot can go fast and still stop exactly at the end.
+ *
+ *   velocity
+ *      ^        ______________
+ *      |      /                \          Trapezoidal: jumps straight to MAX acceleration
+ *      |     /                  \         (maxJerk = 0)
+ *      |    /                    \
+ *      |___/______________________\____> time
+ *
+ *      ^         ____________
+ *      |       /              \           S-curve: acceleration itself is ramped in and out
+ *      |      |                |          at maxJerk, so there is no sudden kick that makes
+ *      |     /                  \         the wheels slip
+ *      |__.-'____________________'-.___> time
+ *
+ * The whole plan is worked out ONCE in the constructor as 7 segments of constant
+ * jerk (some of them 0 seconds long). After that, asking where we should be at
+ * time `t` is just a few multiplications, nothing gets allocated.
+ *
+ *      1: jerk up  2: accel  3: jerk down  4: cruise  5: jerk down  6: decel  7: jerk up
+ *
+ * If the distance is too short to reach `maxVelocity`, the peak velocity is lowered
+ * until the speeding up and slowing down fit in exactly.
+ * Units are whatever you give it (meters, encoder counts, ...), as long as they match.
+ * Negative distances work, everything is simply mirrored.
+ */
+public class MotionProfile {
+    private static final int SEGMENTS = 7;
+
+    private final double distance;
+    private final double direction;
+    private final double duration;
+
+    // Per segment: how long it lasts, its jerk and the state at its start
+    private final double[] segmentDuration = new double[SEGMENTS];
+    private final double[] segmentJerk = new double[SEGMENTS];
+    private final double[] startPosition = new double[SEGMENTS];
+    private final double[] startVelocity = new double[SEGMENTS];
+    private final double[] startAcceleration = new double[SEGMENTS];
+
+    /**
+     * @param distance        How far to go (can be negative)
+     * @param maxVelocity     Cruise velocity, never exceeded
+     * @param maxAcceleration Never exceeded while speeding up or slowing down
+     * @param maxJerk         How fast the acceleration may change. 0 = trapezoidal profile
+     */
+    public MotionProfile(double distance, double maxVelocity, double maxAcceleration, double maxJerk) {
+        if (maxVelocity <= 0 || maxAcceleration <= 0 || maxJerk < 0)
+            throw new IllegalArgumentException("MotionProfile limits must be positive");
+
+        this.distance = Math.abs(distance);
+        this.direction = distance < 0 ? -1 : 1;
+
+        // Lower the peak velocity until speeding up + slowing down fit in the distance
+        double peakVelocity = maxVelocity;
+        if (2 * rampDistance(peakVelocity, maxAcceleration, maxJerk) > this.distance) {
+            double low = 0;
+            double high = maxVelocity;
+            for (int i = 0; i < 60; i++) {
+                peakVelocity = (low + high) / 2;
+                if (2 * rampDistance(peakVelocity, maxAcceleration, maxJerk) > this.distance)
+                    high = peakVelocity;
+                else
+                    low = peakVelocity;
+            }
+            peakVelocity = low;
+        }
+
+        // Time spent ramping the acceleration, and time spent AT the peak acceleration
+        double jerkTime = rampJerkTime(peakVelocity, maxAcceleration, maxJerk);
+        double peakAcceleration = maxJerk > 0 ? maxJerk * jerkTime : maxAcceleration;
+        double accelerationTime = peakVelocity <= 0 ? 0 : peakVelocity / peakAcceleration - jerkTime;
+        double cruiseTime = peakVelocity <= 0
+                ? 0
+                : (this.distance - 2 * rampDistance(peakVelocity, maxAcceleration, maxJerk)) / peakVelocity;
+
+        setSegment(0, jerkTime, maxJerk, 0);
+        setSegment(1, accelerationTime, 0, peakAcceleration);
+        setSegment(2, jerkTime, -maxJerk, peakAcceleration);
+        setSegment(3, cruiseTime, 0, 0);
+        setSegment(4, jerkTime, -maxJerk, 0);
+        setSegment(5, accelerationTime, 0, -peakAcceleration);
+        setSegment(6, jerkTime, maxJerk, -peakAcceleration);
+
+        // Chain the segments: each one starts where the last one ended
+        double position = 0;
+        double velocity = 0;
+        double time = 0;
+        for (int i = 0; i < SEGMENTS; i++) {
+            startPosition[i] = position;
+            startVelocity[i] = velocity;
+
+            double t = segmentDuration[i];
+            double a = startAcceleration[i];
+            double j = segmentJerk[i];
+            position += velocity * t + a * t * t / 2 + j * t * t * t / 6;
+            velocity += a * t + j * t * t / 2;
+            time += t;
+        }
+        duration = time;
+    }
+
+    /** Same as the other constructor, with a trapezoidal profile (no jerk limit). */
+    public MotionProfile(double distance, double maxVelocity, double maxAcceleration) {
+        this(distance, maxVelocity, maxAcceleration, 0);
+    }
+
+    private void setSegment(int index, double seconds, double jerk, double acceleration) {
+        segmentDuration[index] = Math.max(0, seconds);
+        segmentJerk[index] = jerk;
+        startAcceleration[index] = acceleration;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Planning math
+    //------------------------------------------------------------------------------------------------
+
+    /** How long the acceleration is ramped up (and down) for, to reach `velocity`. */
+    private static double rampJerkTime(double velocity, double maxAcceleration, double maxJerk) {
+        if (maxJerk <= 0)
+            return 0;
+
+        // Not fast enough to ever hit the max acceleration: it's a triangle of acceleration
+        if (velocity * maxJerk < maxAcceleration * maxAcceleration)
+            return Math.sqrt(velocity / maxJerk);
+
+        return maxAcceleration / maxJerk;
+    }
+
+    /** Distance needed to go from 0 to `velocity` (same as from `velocity` back to 0). */
+    private static double rampDistance(double velocity, double maxAcceleration, double maxJerk) {
+        if (velocity <= 0)
+            return 0;
+
+        double jerkTime = rampJerkTime(velocity, maxAcceleration, maxJerk);
+        double peakAcceleration = maxJerk > 0 ? maxJerk * jerkTime : maxAcceleration;
+        double rampTime = velocity / peakAcceleration + jerkTime;
+
+        // The ramp is symmetric, so the average velocity is exactly half of the peak
+        return velocity * rampTime / 2;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Sampling
+    //------------------------------------------------------------------------------------------------
+
+    private int segmentAt(double time) {
+        double segmentStart = 0;
+        for (int i = 0; i < SEGMENTS; i++) {
+            if (time < segmentStart + segmentDuration[i])
+                return i;
+            segmentStart += segmentDuration[i];
+        }
+        return SEGMENTS;
+    }
+
+    private double segmentStartTime(int index) {
+        double segmentStart = 0;
+        for (int i = 0; i < index; i++)
+            segmentStart += segmentDuration[i];
+        return segmentStart;
+    }
+
+    /** Where we should be `time` seconds after the start. */
+    public double getPosition(double time) {
+        if (time <= 0)
+            return 0;
+        int i = segmentAt(time);
+        if (i == SEGMENTS)
+            return direction * distance;
+
+        double t = time - segmentStartTime(i);
+        return direction * (startPosition[i]
+                + startVelocity[i] * t
+                + startAcceleration[i] * t * t / 2
+                + segmentJerk[i] * t * t * t / 6);
+    }
+
+    /** How fast we should be going `time` seconds after the start. */
+    public double getVelocity(double time) {
+        if (time <= 0)
+            return 0;
+        int i = segmentAt(time);
+        if (i == SEGMENTS)
+            return 0;
+
+        double t = time - segmentStartTime(i);
+        return direction * (startVelocity[i] + startAcceleration[i] * t + segmentJerk[i] * t * t / 2);
+    }
+
+    /** How hard we should be speeding up (or slowing down) `time` seconds after the start. */
+    public double getAcceleration(double time) {
+        if (time <= 0)
+            return 0;
+        int i = segmentAt(time);
+        if (i == SEGMENTS)
+            return 0;
+
+        double t = time - segmentStartTime(i);
+        return direction * (startAcceleration[i] + segmentJerk[i] * t);
+    }
+
+    /** Seconds from start to standstill at the end. */
+    public double getDuration() {
+        return duration;
+    }
+
+    public double getDistance() {
+        return direction * distance;
+    }
+}
@@ -0,0 +1,131 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+
+/**
+ * The pose from an OctoQuad's onboard localizer: two dead wheels plugged into
+ * it and its own IMU, fused on the OctoQuad itself. Like the Pinpoint, we only
+ * read the result, on the background thread of `DeviceLocalizer`.
+ *
+ * A whole reading comes in ONE I2C packet, filled into the same `LocalizerDataBlock`
+ * every time (nothing is allocated per read). The packet has a CRC: when it doesn't
+ * match, the bytes got garbled on the bus, and the read is simply tried again, up
+ * to MAX_CRC_RETRIES times:
+ *
+ *      read -> CRC ok? --yes--> status RUNNING? --yes--> publish
+ *                 |no                  |no
+ *                 `-> retry            `-> fault (IMU warming up, no IMU...)
+ *
+ * `getPacketErrorRate()` says how often that happens, if it climbs the wiring is bad.
+ *
+ * Pods: X pod = measures FORWARD, Y pod = measures SIDEWAYS, on PORT_X and PORT_Y.
+ * The device is set up from the config below every time, nothing relies on what
+ * was saved to its flash.
+ */
+@Configurable
+public class OctoQuadLocalizer extends DeviceLocalizer {
+    //------------------------------------------------------------------------------------------------
+    // Config
+    //------------------------------------------------------------------------------------------------
+    public static String DEVICE_NAME = "octoquad";
+    public static int PORT_X = 0;
+    public static int PORT_Y = 1;
+    public static boolean X_POD_REVERSED = false;      // Pushing the robot forward must make x go UP
+    public static boolean Y_POD_REVERSED = false;      // Pushing the robot left must make y go UP
+    public static double COUNTS_PER_MM_X = 19.89436789; // goBILDA 4-bar pod (2000 counts, 32 mm wheel)
+    public static double COUNTS_PER_MM_Y = 19.89436789;
+    /** Where the point to track is, from the pods' crossing point, mm. */
+    public static double TCP_OFFSET_X_MM = 0;
+    public static double TCP_OFFSET_Y_MM = 0;
+    public static double IMU_HEADING_SCALAR = 1;      // Turn 10 times by hand, measured / reported
+    public static int VELOCITY_INTERVAL_MS = 25;      // Longer = smoother velocity, but later
+    public static int MAX_CRC_RETRIES = 2;
+    public static double RATE_HZ = 300;               // Each read holds the I2C bus, see PinpointLocalizer.RATE_HZ
+
+    private final OctoQuad octoQuad;
+    private final OctoQuad.LocalizerDataBlock block = new OctoQuad.LocalizerDataBlock();
+    private volatile OctoQuad.LocalizerStatus lastStatus = OctoQuad.LocalizerStatus.NOT_INITIALIZED;
+
+    // Metrics (only the reader thread writes these)
+    private volatile long packetCount = 0;
+    private volatile long crcErrorCount = 0;
+
+    OctoQuadLocalizer(SensorSnapshot sensors, OctoQuad octoQuad) {
+        super(sensors, "OctoQuadLocalizer");
+        this.octoQuad = octoQuad;
+
+        octoQuad.setSingleEncoderDirection(PORT_X,
+                X_POD_REVERSED ? OctoQuad.EncoderDirection.REVERSE : OctoQuad.EncoderDirection.FORWARD);
+        octoQuad.setSingleEncoderDirection(PORT_Y,
+                Y_POD_REVERSED ? OctoQuad.EncoderDirection.REVERSE : OctoQuad.EncoderDirection.FORWARD);
+        octoQuad.setAllLocalizerParameters(
+                PORT_X,
+                PORT_Y,
+                (float) COUNTS_PER_MM_X,
+                (float) COUNTS_PER_MM_Y,
+                (float) TCP_OFFSET_X_MM,
+                (float) TCP_OFFSET_Y_MM,
+                (float) IMU_HEADING_SCALAR,
+                VELOCITY_INTERVAL_MS);
+        // Robot must be STILL here, the status says CALIBRATING_IMU until it's done
+        octoQuad.resetLocalizerAndCalibrateIMU();
+
+        start();
+    }
+
+    @Override
+    protected boolean readDevice(PoseSlot.Sample out) {
+        for (int attempt = 0; ; attempt++) {
+            octoQuad.readLocalizerData(block);
+            packetCount++;
+            if (block.crcOk)
+                break;
+            crcErrorCount++;
+            if (attempt >= MAX_CRC_RETRIES)
+                return false;
+        }
+
+        lastStatus = block.localizerStatus;
+        if (block.localizerStatus != OctoQuad.LocalizerStatus.RUNNING)
+            return false;
+
+        out.x = block.posX_mm / 1000.0;
+        out.y = block.posY_mm / 1000.0;
+        out.heading = block.heading_rad;
+        out.velocityX = block.velX_mmS / 1000.0;
+        out.velocityY = block.velY_mmS / 1000.0;
+        out.angularVelocity = block.velHeading_radS;
+        return true;
+    }
+
+    @Override
+    protected double getRateHz() {
+        return RATE_HZ;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Getters
+    //------------------------------------------------------------------------------------------------
+
+    /** What the OctoQuad's localizer said about itself on the last good packet. */
+    public OctoQuad.LocalizerStatus getLastStatus() {
+        return lastStatus;
+    }
+
+    /** Every packet read, retries included. */
+    public long getPacketCount() {
+        return packetCount;
+    }
+
+    /** Packets whose CRC didn't match (and were read again). */
+    public long getCrcErrorCount() {
+        return crcErrorCount;
+    }
+
+    /** 0 to 1, the part of the packets that came in garbled. */
+    public double getPacketErrorRate() {
+        long packets = packetCount;
+        return packets == 0 ? 0 : (double) crcErrorCount / packets;
+    }
+}
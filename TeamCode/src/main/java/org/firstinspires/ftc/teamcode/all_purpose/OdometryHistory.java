@@ -0,0 +1,107 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+/**
+ * The last CAPACITY odometry poses with their timestamps, so we can ask
+ * "where did the odometry think the robot was at time t?" for a measurement
+ * that took a while to arrive (a camera frame is ~50-100 ms old by the time
+ * its tags are found).
+ *
+ * A ring buffer: fixed arrays, the newest pose overwrites the oldest one,
+ * nothing is allocated after construction.
+ *
+ *      index:   0    1    2    3    4    5    6    7
+ *             [ 9 ][10 ][11 ][ 4 ][ 5 ][ 6 ][ 7 ][ 8 ]      (numbers = cycle)
+ *                        ^ newest  ^ oldest
+ */
+public class OdometryHistory {
+    private final long[] times;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] headings;
+    private int newest = -1;
+    private int size = 0;
+
+    public OdometryHistory(int capacity) {
+        times = new long[capacity];
+        xs = new double[capacity];
+        ys = new double[capacity];
+        headings = new double[capacity];
+    }
+
+    public void add(long timeNanos, double x, double y, double heading) {
+        newest = (newest + 1) % times.length;
+        times[newest] = timeNanos;
+        xs[newest] = x;
+        ys[newest] = y;
+        headings[newest] = heading;
+        if (size < times.length)
+            size++;
+    }
+
+    public void clear() {
+        newest = -1;
+        size = 0;
+    }
+
+    /** i = 0 is the newest, i = size - 1 the oldest. */
+    private int index(int i) {
+        return (newest - i + times.length) % times.length;
+    }
+
+    /**
+     * The pose at `timeNanos`, interpolated between the two poses around it, into `out` (x, y, heading).
+     * Returns false if the history doesn't go back that far (or is empty).
+     * A time newer than the newest pose gives the newest pose.
+     */
+    public boolean getPoseAt(long timeNanos, double[] out) {
+        if (size == 0 || timeNanos < times[index(size - 1)])
+            return false;
+
+        int after = index(0);
+        if (timeNanos >= times[after]) {
+            out[0] = xs[after];
+            out[1] = ys[after];
+            out[2] = headings[after];
+            return true;
+        }
+
+        // Walk back from the newest until the pose just before timeNanos
+        for (int i = 1; i < size; i++) {
+            int before = index(i);
+            if (times[before] <= timeNanos) {
+                double t = (double) (timeNanos - times[before]) / (times[after] - times[before]);
+                out[0] = xs[before] + t * (xs[after] - xs[before]);
+                out[1] = ys[before] + t * (ys[after] - ys[before]);
+                out[2] = Localizer.angleWrap(headings[before]
+                        + t * Localizer.angleWrap(headings[after] - headings[before]));
+                return true;
+            }
+            after = before;
+        }
+        return false;
+    }
+
+    /**
+     * Moves every pose from `sinceNanos` on as one rigid piece: rotated by `dHeading`
+     * around (pivotX, pivotY), then shifted by (dx, dy). Used to apply a correction
+     * found in the past to everything the odometry did after it.
+     */
+    public void transformSince(long sinceNanos, double pivotX, double pivotY, double dx, double dy, double dHeading) {
+        double cos = Math.cos(dHeading);
+        double sin = Math.sin(dHeading);
+        for (int i = 0; i < size; i++) {
+            int index = index(i);
+            if (times[index] < sinceNanos)
+                break;
+            double relativeX = xs[index] - pivotX;
+            double relativeY = ys[index] - pivotY;
+            xs[index] = pivotX + dx + relativeX * cos - relativeY * sin;
+            ys[index] = pivotY + dy + relativeX * sin + relativeY * cos;
+            headings[index] = Localizer.angleWrap(headings[index] + dHeading);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+}
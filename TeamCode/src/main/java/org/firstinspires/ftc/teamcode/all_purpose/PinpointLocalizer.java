@@ -0,0 +1,92 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.hardware.gobilda.GoBildaPinpointDriver;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.UnnormalizedAngleUnit;
+
+/**
+ * The pose from a goBILDA Pinpoint: two dead wheels (odometry pods) that
+ * never slip like the drive wheels do, and an IMU on the same board. The
+ * Pinpoint does the whole odometry by itself ~1500 times a second, we just
+ * read the result over I2C on the background thread of `DeviceLocalizer`.
+ *
+ *            forward
+ *               ^
+ *       X pod  ||      X pod = measures FORWARD, X_POD_OFFSET to the LEFT of the center
+ *              ||  ==  Y pod = measures SIDEWAYS, Y_POD_OFFSET to the FRONT of the center
+ *               +      (negative = right / back)
+ *
+ * Every read also gets the device status. Anything but READY (pod unplugged,
+ * IMU running away, bad read...) drops that reading and counts it as a fault,
+ * the last one is in `getLastStatus()`.
+ *
+ * Same names and pods as `Constants.pinpointConstants()`, so Pedro sees the same thing.
+ */
+@Configurable
+public class PinpointLocalizer extends DeviceLocalizer {
+    //------------------------------------------------------------------------------------------------
+    // Config
+    //------------------------------------------------------------------------------------------------
+    public static String DEVICE_NAME = "pinpoint";
+    public static double X_POD_OFFSET_MM = 0;
+    public static double Y_POD_OFFSET_MM = 0;
+    public static GoBildaPinpointDriver.GoBildaOdometryPods PODS = GoBildaPinpointDriver.GoBildaOdometryPods.goBILDA_4_BAR_POD;
+    public static boolean X_POD_REVERSED = false;      // Pushing the robot forward must make x go UP
+    public static boolean Y_POD_REVERSED = false;      // Pushing the robot left must make y go UP
+    /**
+     * Reads per second. Every read holds the hub's I2C bus for ~1 ms, and as fast as the
+     * Pinpoint computes (~1500 Hz) the thread would never sleep at all. 300 is still 3
+     * fresh poses per 10 ms cycle. Raising it? Watch the LoopProfiler's "sensors" and
+     * "CYCLE" lines and `getLastReadDurationNanos()`, they go up first.
+     */
+    public static double RATE_HZ = 300;
+
+    private final GoBildaPinpointDriver pinpoint;
+    private volatile GoBildaPinpointDriver.DeviceStatus lastStatus = GoBildaPinpointDriver.DeviceStatus.NOT_READY;
+
+    PinpointLocalizer(SensorSnapshot sensors, GoBildaPinpointDriver pinpoint) {
+        super(sensors, "PinpointLocalizer");
+        this.pinpoint = pinpoint;
+
+        pinpoint.setOffsets(X_POD_OFFSET_MM, Y_POD_OFFSET_MM, DistanceUnit.MM);
+        pinpoint.setEncoderResolution(PODS);
+        pinpoint.setEncoderDirections(
+                X_POD_REVERSED ? GoBildaPinpointDriver.EncoderDirection.REVERSED : GoBildaPinpointDriver.EncoderDirection.FORWARD,
+                Y_POD_REVERSED ? GoBildaPinpointDriver.EncoderDirection.REVERSED : GoBildaPinpointDriver.EncoderDirection.FORWARD);
+        // Robot must be STILL here, the IMU calibrates (~0.25 s, the status says CALIBRATING meanwhile)
+        pinpoint.resetPosAndIMU();
+
+        start();
+    }
+
+    @Override
+    protected boolean readDevice(PoseSlot.Sample out) {
+        // One bulk read of everything, the getters below only convert
+        pinpoint.update();
+        GoBildaPinpointDriver.DeviceStatus status = pinpoint.getDeviceStatus();
+        lastStatus = status;
+        if (status != GoBildaPinpointDriver.DeviceStatus.READY)
+            return false;
+
+        out.x = pinpoint.getPosX(DistanceUnit.METER);
+        out.y = pinpoint.getPosY(DistanceUnit.METER);
+        out.heading = pinpoint.getHeading(AngleUnit.RADIANS);
+        out.velocityX = pinpoint.getVelX(DistanceUnit.METER);
+        out.velocityY = pinpoint.getVelY(DistanceUnit.METER);
+        out.angularVelocity = pinpoint.getHeadingVelocity(UnnormalizedAngleUnit.RADIANS);
+        return true;
+    }
+
+    @Override
+    protected double getRateHz() {
+        return RATE_HZ;
+    }
+
+    /** What the Pinpoint said about itself on the last read. */
+    public GoBildaPinpointDriver.DeviceStatus getLastStatus() {
+        return lastStatus;
+    }
+}
@@ -0,0 +1,74 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+/**
+ * The latest pose from an odometry device, handed from the thread that reads
+ * the device to the control loop. Same idea as the slot in `ImuReader`:
+ * ONE writer, any number of readers, and neither side ever blocks.
+ *
+ *      version:  even  ->  odd (writing...)  ->  even
+ *      reader:   v1 = version, copy values, v2 = version, OK only if v1 == v2 and even
+ *
+ * Everything is in the DEVICE's own frame (where it was reset), meters and
+ * radians, counter-clockwise positive. `Localizer`s turn it into the field frame.
+ */
+public class PoseSlot {
+    /** One pose, filled by `read()`. Allocate it once and keep reusing it. */
+    public static class Sample {
+        public double x;
+        public double y;
+        public double heading;
+        public double velocityX;
+        public double velocityY;
+        public double angularVelocity;
+        public long timestampNanos;  // 0 = never written
+    }
+
+    private volatile long version = 0;
+    private volatile double x = 0;
+    private volatile double y = 0;
+    private volatile double heading = 0;
+    private volatile double velocityX = 0;
+    private volatile double velocityY = 0;
+    private volatile double angularVelocity = 0;
+    private volatile long timestampNanos = 0;
+
+    /** Only ever call this from ONE thread. */
+    public void write(Sample sample) {
+        version++;   // Odd: readers will wait
+        x = sample.x;
+        y = sample.y;
+        heading = sample.heading;
+        velocityX = sample.velocityX;
+        velocityY = sample.velocityY;
+        angularVelocity = sample.angularVelocity;
+        timestampNanos = sample.timestampNanos;
+        version++;   // Even: done
+    }
+
+    /** Copies the latest pose into `sample`, tries again if it was being written. */
+    public void read(Sample sample) {
+        while (true) {
+            long before = version;
+            if ((before & 1) == 0) {
+                double x = this.x;
+                double y = this.y;
+                double heading = this.heading;
+                double velocityX = this.velocityX;
+                double velocityY = this.velocityY;
+                double angularVelocity = this.angularVelocity;
+                long timestamp = timestampNanos;
+                if (version == before) {
+                    sample.x = x;
+                    sample.y = y;
+                    sample.heading = heading;
+                    sample.velocityX = velocityX;
+                    sample.velocityY = velocityY;
+                    sample.angularVelocity = angularVelocity;
+                    sample.timestampNanos = timestamp;
+                    return;
+                }
+            }
+            Thread.yield();
+        }
+    }
+}
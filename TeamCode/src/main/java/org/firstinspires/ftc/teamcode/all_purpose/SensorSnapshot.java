@@ -0,0 +1,140 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+/**
+ * A read-only picture of every sensor value the robot cares about, taken
+ * once per control cycle.
+ *
+ * With the hubs in MANUAL bulk caching mode, the first encoder read after
+ * `clearBulkCache()` pulls ALL the motor data of a hub in one transaction,
+ * and every read after that comes out of the cache for free. This class
+ * does those reads once, right after the cache is cleared, and stores them
+ * in preallocated arrays so the rest of the code never touches the hubs.
+ *
+ * (HardwareManager.refreshSensors()) -> clearBulkCache() -> (SensorSnapshot.update())
+ *                                                                  |
+ *       getPosition(), getVelocity(), getHeadingDegrees() <--------`
+ *
+ * The heading is NOT read from the IMU here: `ImuReader` reads it on its own thread
+ * and the snapshot only copies its latest reading, with how old it is.
+ *
+ * Only `HardwareManager` is allowed to refresh it, everything else just reads.
+ */
+public class SensorSnapshot {
+    //------------------------------------------------------------------------------------------------
+    // Motor indexes
+    //------------------------------------------------------------------------------------------------
+    public static final int FRONT_LEFT = 0;
+    public static final int FRONT_RIGHT = 1;
+    public static final int BACK_LEFT = 2;
+    public static final int BACK_RIGHT = 3;
+    public static final int LAUNCHER = 4;
+
+    private final DcMotorEx[] motors;
+    private final ImuReader imuReader;
+
+    //------------------------------------------------------------------------------------------------
+    // Cached values
+    //------------------------------------------------------------------------------------------------
+    private final int[] positions;
+    private final double[] velocities;
+    private final ImuReader.Sample imuSample = new ImuReader.Sample();
+    private double headingDegrees = 0;
+    private double headingZeroDegrees = 0;  // IMU yaw that counts as heading 0
+    private long timestampNanos = 0;
+    private long cycleCount = 0;
+    private long staleHeadingCycles = 0;
+
+    /**
+     * The motors MUST be given in the same order as the index constants above.
+     */
+    SensorSnapshot(DcMotorEx[] motors, ImuReader imuReader) {
+        this.motors = motors;
+        this.imuReader = imuReader;
+        positions = new int[motors.length];
+        velocities = new double[motors.length];
+    }
+
+    /**
+     * Copies the freshly bulk-read motor data into the snapshot.
+     * Expects the bulk cache to have JUST been cleared.
+     */
+    void update() {
+        for (int i = 0; i < motors.length; i++) {
+            positions[i] = motors[i].getCurrentPosition();
+            velocities[i] = motors[i].getVelocity();
+        }
+
+        timestampNanos = System.nanoTime();
+        cycleCount++;
+
+        // The IMU is an I2C device and is NOT part of the bulk read,
+        // take whatever the reader thread got last instead of waiting for it
+        imuReader.read(imuSample);
+        headingDegrees = HeadingController.wrapDegrees(imuSample.yawDegrees - headingZeroDegrees);
+        if (imuSample.isStale(timestampNanos))
+            staleHeadingCycles++;
+    }
+
+    /**
+     * Makes the current heading 0, without touching the IMU
+     * (resetting its yaw would be a blocking I2C write, and race with the reader thread).
+     */
+    void zeroHeading() {
+        headingZeroDegrees = imuSample.yawDegrees;
+        headingDegrees = 0;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Getters
+    //------------------------------------------------------------------------------------------------
+    public int getPosition(int motor) {
+        return positions[motor];
+    }
+
+    /** Ticks per second, as reported by the hub. */
+    public double getVelocity(int motor) {
+        return velocities[motor];
+    }
+
+    public double getAverageWheelCounts() {
+        return (positions[FRONT_LEFT] +
+                positions[FRONT_RIGHT] +
+                positions[BACK_LEFT] +
+                positions[BACK_RIGHT]) / 4.0;
+    }
+
+    /**
+     * Same convention as `HardwareManager.getCurrentDegreeHeading()`.
+     * The latest reading of the `ImuReader` as of this snapshot, never blocks.
+     */
+    public double getHeadingDegrees() {
+        return headingDegrees;
+    }
+
+    /** How old the heading was when the snapshot was taken, in ns. */
+    public long getHeadingAgeNanos() {
+        return imuSample.getAgeNanos(timestampNanos);
+    }
+
+    /** True if the heading is older than `ImuReader.STALE_MS` (or was never read at all). */
+    public boolean isHeadingStale() {
+        return imuSample.isStale(timestampNanos);
+    }
+
+    /** How many snapshots had a stale heading since the OpMode started. */
+    public long getStaleHeadingCycles() {
+        return staleHeadingCycles;
+    }
+
+    /** `System.nanoTime()` of when the snapshot was taken. */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /** How many times the snapshot has been refreshed since the OpMode started. */
+    public long getCycleCount() {
+        return cycleCount;
+    }
+}
@@ -0,0 +1,123 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static org.firstinspires.ftc.teamcode.all_purpose.TelemetryRecorder.*;
+
+/**
+ * Reads back a file written by `TelemetryRecorder`, one record at a time:
+ *
+ *      try (TelemetryLog log = new TelemetryLog(file)) {
+ *          TelemetryLog.Record record = new TelemetryLog.Record();
+ *          while (log.next(record)) {
+ *              ... record.headingDegrees, record.powers[0], ...
+ *          }
+ *      }
+ *
+ * The same `Record` is filled again every time, copy what you want to keep.
+ */
+public class TelemetryLog implements Closeable {
+    /** Everything recorded in one control cycle. */
+    public static class Record {
+        public long timestampNanos;
+        public int cycle;
+        public final int[] positions = new int[MOTOR_COUNT];
+        public final float[] velocities = new float[MOTOR_COUNT];
+        public float headingDegrees;
+        public final float[] powers = new float[MOTOR_COUNT];
+        public final float[] servoPositions = new float[SERVO_COUNT];
+        public float launcherTargetVelocity;
+        public float batteryVoltage;
+        public float poseX;
+        public float poseY;
+        public float poseHeading;
+        public float odometryX;
+        public float odometryY;
+        public float odometryHeading;
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long startMillis;
+    private final int recordSize;
+
+    public TelemetryLog(File file) throws IOException {
+        channel = new FileInputStream(file).getChannel();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            channel.close();
+            throw new IOException(file + " is not a TelemetryRecorder file");
+        }
+
+        int version = header.getInt();
+        recordSize = header.getInt();
+        startMillis = header.getLong();
+        if (version != VERSION || recordSize != RECORD_SIZE) {
+            channel.close();
+            throw new IOException(file + " was recorded with another version (" + version + ")");
+        }
+
+        buffer = ByteBuffer.allocate(recordSize * 1024);
+        buffer.flip();
+    }
+
+    private void readFully(ByteBuffer target) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target) < 0)
+                return;
+        }
+    }
+
+    /**
+     * Fills `record` with the next cycle.
+     * Returns false at the end of the file (a cut-off last record is ignored).
+     */
+    public boolean next(Record record) throws IOException {
+        if (buffer.remaining() < recordSize) {
+            buffer.compact();
+            readFully(buffer);
+            buffer.flip();
+            if (buffer.remaining() < recordSize)
+                return false;
+        }
+
+        record.timestampNanos = buffer.getLong();
+        record.cycle = buffer.getInt();
+        for (int i = 0; i < MOTOR_COUNT; i++)
+            record.positions[i] = buffer.getInt();
+        for (int i = 0; i < MOTOR_COUNT; i++)
+            record.velocities[i] = buffer.getFloat();
+        record.headingDegrees = buffer.getFloat();
+        for (int i = 0; i < MOTOR_COUNT; i++)
+            record.powers[i] = buffer.getFloat();
+        for (int i = 0; i < SERVO_COUNT; i++)
+            record.servoPositions[i] = buffer.getFloat();
+        record.launcherTargetVelocity = buffer.getFloat();
+        record.batteryVoltage = buffer.getFloat();
+        record.poseX = buffer.getFloat();
+        record.poseY = buffer.getFloat();
+        record.poseHeading = buffer.getFloat();
+        record.odometryX = buffer.getFloat();
+        record.odometryY = buffer.getFloat();
+        record.odometryHeading = buffer.getFloat();
+        return true;
+    }
+
+    /** When the recording started, in ms since 1970. */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
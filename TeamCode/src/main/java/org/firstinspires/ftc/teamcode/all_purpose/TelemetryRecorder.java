@@ -0,0 +1,299 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records EVERY control cycle into a binary file, to find out after the match
+ * what the robot saw and did. Read it back with `TelemetryLog`, or on a computer with
+ * `simulation.LogReplay` (Simulator module).
+ *
+ * Telemetry is formatted text, throttled, and gone once the OpMode ends. This is
+ * a fixed-size record per cycle, written into preallocated buffers:
+ *
+ * (control loop) --record()--> [buffer] --full--> (writer thread) --FileChannel--> FIRST/recordings/*.bin
+ *                                  ^                      |
+ *                                  `-------- empty -------`
+ *
+ * `record()` never waits and never allocates. If the writer thread falls behind and
+ * there is no empty buffer left, the record is dropped and counted instead of
+ * slowing down the loop.
+ *
+ * File layout (big-endian):
+ *      header: magic, version, record size (ints), start time (long, ms since 1970)
+ *      records, RECORD_SIZE bytes each, see the offsets below
+ */
+@Configurable
+public class TelemetryRecorder {
+    public static boolean ENABLED = true;
+    /** Where the files go. null = FIRST/recordings on the Control Hub. */
+    public static File FOLDER = null;
+
+    public static int BUFFER_RECORDS = 512; // ~60kB per buffer, 0.5s at 1kHz
+    public static int BUFFER_COUNT = 8;
+
+    //------------------------------------------------------------------------------------------------
+    // File format
+    //------------------------------------------------------------------------------------------------
+    public static final int MAGIC = 0x46544C47; // "FTLG"
+    public static final int VERSION = 2;
+    public static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+
+    public static final int MOTOR_COUNT = 5; // Same order as the SensorSnapshot indexes
+    public static final int SERVO_COUNT = 2; // Flinger, stopper
+
+    // Byte offsets inside one record
+    public static final int TIMESTAMP_OFFSET = 0;                                   // long, ns
+    public static final int CYCLE_OFFSET = TIMESTAMP_OFFSET + 8;                   // int
+    public static final int POSITIONS_OFFSET = CYCLE_OFFSET + 4;                   // int[5], ticks
+    public static final int VELOCITIES_OFFSET = POSITIONS_OFFSET + 4 * MOTOR_COUNT; // float[5], ticks/s
+    public static final int HEADING_OFFSET = VELOCITIES_OFFSET + 4 * MOTOR_COUNT;  // float, degrees
+    public static final int POWERS_OFFSET = HEADING_OFFSET + 4;                    // float[5], commanded
+    public static final int SERVOS_OFFSET = POWERS_OFFSET + 4 * MOTOR_COUNT;       // float[2], commanded
+    public static final int LAUNCHER_TARGET_OFFSET = SERVOS_OFFSET + 4 * SERVO_COUNT; // float, ticks/s
+    public static final int BATTERY_OFFSET = LAUNCHER_TARGET_OFFSET + 4;          // float, volts
+    public static final int POSE_OFFSET = BATTERY_OFFSET + 4;                      // float x, y, heading
+    public static final int ODOMETRY_OFFSET = POSE_OFFSET + 3 * 4;                 // float x, y, heading
+    public static final int RECORD_SIZE = ODOMETRY_OFFSET + 3 * 4;
+
+    //------------------------------------------------------------------------------------------------
+    // State
+    //------------------------------------------------------------------------------------------------
+    private final HardwareManager hardwareManager;
+    private final CachedMotor[] motors;
+    private final CachedServo[] servos;
+
+    private final ArrayBlockingQueue<ByteBuffer> emptyBuffers;
+    private final ArrayBlockingQueue<ByteBuffer> fullBuffers;
+    private static final ByteBuffer CLOSE_SIGNAL = ByteBuffer.allocate(0);
+
+    private FileChannel channel;
+    private Thread writerThread;
+    private ByteBuffer current;
+    private File file;
+
+    private float poseX = Float.NaN;
+    private float poseY = Float.NaN;
+    private float poseHeading = Float.NaN;
+
+    private long recordCount = 0;
+    private long droppedCount = 0;
+    private volatile boolean failed = false;
+
+    /**
+     * Opens `FOLDER/<name>_<date>.bin` and starts the writer thread.
+     * If the file can't be opened, nothing gets recorded but the OpMode keeps going.
+     */
+    public TelemetryRecorder(HardwareManager hardwareManager, String name) {
+        this.hardwareManager = hardwareManager;
+        motors = new CachedMotor[] {
+                hardwareManager.frontLeftWheel,
+                hardwareManager.frontRightWheel,
+                hardwareManager.backLeftWheel,
+                hardwareManager.backRightWheel,
+                hardwareManager.wheelLauncher
+        };
+        servos = new CachedServo[] {hardwareManager.flinger, hardwareManager.stopper};
+
+        emptyBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT);
+        fullBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT + 1);
+
+        if (!ENABLED)
+            return;
+
+        try {
+            open(name);
+        } catch (IOException | RuntimeException e) {
+            RobotLog.ee("TelemetryRecorder", e, "Could not start recording, nothing will be recorded");
+            failed = true;
+        }
+    }
+
+    private void open(String name) throws IOException {
+        File folder = FOLDER != null ? FOLDER : new File(AppUtil.FIRST_FOLDER, "recordings");
+        if (!folder.isDirectory() && !folder.mkdirs())
+            throw new IOException("Could not create " + folder);
+
+        String date = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+        file = new File(folder, name + "_" + date + ".bin");
+        FileChannel opened = new FileOutputStream(file).getChannel();
+
+        // Only kept once everything worked, a half-opened recorder must look closed to `close()`
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putLong(System.currentTimeMillis());
+            header.flip();
+            opened.write(header);
+
+            for (int i = 0; i < BUFFER_COUNT; i++)
+                emptyBuffers.add(ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE));
+            current = emptyBuffers.poll();
+
+            Thread thread = new Thread(() -> writeLoop(opened), "TelemetryRecorder");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+            writerThread = thread;
+            channel = opened;
+        } catch (IOException | RuntimeException e) {
+            current = null;
+            emptyBuffers.clear();
+            try {
+                opened.close();
+            } catch (IOException closeError) {
+                RobotLog.ee("TelemetryRecorder", closeError, "Could not close " + file);
+            }
+            throw e;
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Control loop side
+    //------------------------------------------------------------------------------------------------
+
+    /**
+     * Where the path follower thinks the robot is, recorded with every following cycle.
+     * The `Localizer` pose is always recorded too, on its own.
+     */
+    public void setPose(double x, double y, double heading) {
+        poseX = (float) x;
+        poseY = (float) y;
+        poseHeading = (float) heading;
+    }
+
+    /**
+     * Appends one record with the current snapshot and the outputs of this cycle.
+     * Call it once per cycle, after the outputs were flushed.
+     */
+    public void record() {
+        if (channel == null || failed)
+            return;
+
+        if (current == null) {
+            // Grab an empty buffer if the writer gave one back, otherwise drop this cycle
+            current = emptyBuffers.poll();
+            if (current == null) {
+                droppedCount++;
+                return;
+            }
+        }
+
+        SensorSnapshot sensors = hardwareManager.sensors;
+        ByteBuffer buffer = current;
+        buffer.putLong(sensors.getTimestampNanos());
+        buffer.putInt((int) sensors.getCycleCount());
+        for (int i = 0; i < MOTOR_COUNT; i++)
+            buffer.putInt(sensors.getPosition(i));
+        for (int i = 0; i < MOTOR_COUNT; i++)
+            buffer.putFloat((float) sensors.getVelocity(i));
+        buffer.putFloat((float) sensors.getHeadingDegrees());
+
+        for (CachedMotor motor : motors)
+            buffer.putFloat((float) motor.getPower());
+        for (CachedServo servo : servos)
+            buffer.putFloat((float) servo.getPosition());
+        buffer.putFloat((float) hardwareManager.launcher.getTargetVelocity());
+        buffer.putFloat((float) hardwareManager.battery.getVoltage());
+
+        buffer.putFloat(poseX);
+        buffer.putFloat(poseY);
+        buffer.putFloat(poseHeading);
+
+        Localizer localizer = hardwareManager.localizer;
+        buffer.putFloat((float) localizer.getX());
+        buffer.putFloat((float) localizer.getY());
+        buffer.putFloat((float) localizer.getHeading());
+        recordCount++;
+
+        if (buffer.remaining() < RECORD_SIZE) {
+            fullBuffers.offer(buffer);
+            current = null;
+        }
+    }
+
+    /**
+     * Writes whatever is left and closes the file. Waits for the writer thread,
+     * so call it when the OpMode is stopping, not during the loop.
+     */
+    public void close() {
+        if (channel == null || writerThread == null)
+            return;
+
+        if (current != null && current.position() > 0)
+            fullBuffers.offer(current);
+        current = null;
+        fullBuffers.offer(CLOSE_SIGNAL);
+
+        try {
+            writerThread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel = null;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Writer thread side
+    //------------------------------------------------------------------------------------------------
+    private void writeLoop(FileChannel out) {
+        try {
+            while (true) {
+                ByteBuffer buffer = fullBuffers.poll(1, TimeUnit.SECONDS);
+                if (buffer == null)
+                    continue;
+                if (buffer == CLOSE_SIGNAL)
+                    break;
+
+                buffer.flip();
+                while (buffer.hasRemaining())
+                    out.write(buffer);
+                buffer.clear();
+                emptyBuffers.offer(buffer);
+            }
+        } catch (IOException e) {
+            RobotLog.ee("TelemetryRecorder", e, "Recording stopped, could not write to " + file);
+            failed = true;
+        } catch (InterruptedException e) {
+            // Stopping early, just close the file
+        } finally {
+            try {
+                out.force(false);
+                out.close();
+            } catch (IOException e) {
+                RobotLog.ee("TelemetryRecorder", e, "Could not close " + file);
+            }
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Getters
+    //------------------------------------------------------------------------------------------------
+    public boolean isRecording() {
+        return channel != null && !failed;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /** Cycles that were not recorded because the writer thread could not keep up. */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
@@ -5,7 +5,12 @@ import com.qualcomm.robotcore.hardware.Gamepad;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.Range;
 
+import org.firstinspires.ftc.teamcode.all_purpose.AxisShaper;
+import org.firstinspires.ftc.teamcode.all_purpose.GamepadBindings;
 import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
+import org.firstinspires.ftc.teamcode.all_purpose.LoopProfiler;
+import org.firstinspires.ftc.teamcode.all_purpose.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.all_purpose.TelemetryRecorder;
 
 /**
  * Base class for all human-operated scripts, a.k.a TeleOp.
@@ -28,7 +33,17 @@ import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
  */
 public abstract class HumanOperated extends OpMode {
     protected HardwareManager hardwareManager;
+    protected LoopProfiler loopProfiler;
+    protected TelemetryRecorder recorder;
     protected boolean slowToggle = false;
+
+    /**
+     * Field-centric: pushing the stick "up" always drives away from the driver,
+     * whichever way the robot faces. Toggled with BACK on gamepad1.
+     */
+    protected boolean fieldCentric = false;
+    /** Localizer heading (radians) that counts as "away from the driver". DPAD UP sets it. */
+    protected double fieldForwardHeading = 0;
     public enum player{
         player1,
         player2
@@ -51,11 +66,28 @@ public abstract class HumanOperated extends OpMode {
     protected final double SERVO_UPPER_POWER_LIMIT = 0.8; // VEX Servos Actual Limitation
     protected final double SERVO_LOWER_POWER_LIMIT = -0.8; // VEX Servos Actual Limitation
     protected double MOTOR_SHRINK_MULTIPLIER = 0.3;
+
+    //------------------------------------------------------------------------------------------------
+    // Stick shaping (see AxisShaper), change them in the constructor of a TeleOp before init
+    //------------------------------------------------------------------------------------------------
+    protected double STICK_DEADBAND = 0.05;
+    protected double DRIVE_EXPO = 0.4;            // Drive and strafe
+    protected double ROTATE_EXPO = 0.6;           // Turning wants more precision around the center
+    protected double DRIVE_SLEW_UP = 4;           // Per second, 0 to full in 0.25 s
+    protected double ROTATE_SLEW_UP = 6;
+    protected double SLEW_DOWN = 12;              // Letting go stops (almost) right away
+
+    protected AxisShaper driveShaper;
+    protected AxisShaper strafeShaper;
+    protected AxisShaper rotateShaper;
+    private GamepadBindings driveBindings;
     //------------------------------------------------------------------------------------------------
     // Launcher
     //------------------------------------------------------------------------------------------------
     protected boolean launcherSpeedPauseOn = false;
     protected double pausedLauncherSpeed = 0;
+    private GamepadBindings launcherBindings;
+    private Gamepad launcherDriver;
 
     //------------------------------------------------------------------------------------------------
     // Defaults
@@ -79,65 +111,104 @@ public abstract class HumanOperated extends OpMode {
          *
          */
 
-        // Movement values:
-        double drive = (gamepad1.left_stick_y != 0)
+        // Movement values, through deadband -> expo -> slew limit
+        long now = hardwareManager.sensors.getTimestampNanos();
+        double drive = driveShaper.shape((gamepad1.left_stick_y != 0)
                 ? -gamepad1.left_stick_y
-                : -gamepad1.right_stick_y;
+                : -gamepad1.right_stick_y, now);
 
-        double strafe = -gamepad1.left_stick_x;
-        double rotate = gamepad1.right_stick_x;
+        double strafe = strafeShaper.shape(-gamepad1.left_stick_x, now);
+        double rotate = rotateShaper.shape(gamepad1.right_stick_x, now);
 
-        /* Movement values are summed into the power for the wheels */
-        frontLeftWheelP  = drive - strafe - rotate;
-        frontRightWheelP = drive - strafe + rotate;
-        backLeftWheelP   = drive + strafe - rotate;
-        backRightWheelP  = drive + strafe + rotate;
-    }
-    protected void useDefaultLauncherControls(player driver){
-        Gamepad currentDriver = (driver == player.player1) ? gamepad1 : gamepad2;
-
-        // Holy mother of god what in the world is this GENERATIONAL IF
-        if(currentDriver.a){
-            hardwareManager.wheelLauncher.setPower(1);
-        } else if (currentDriver.b) {
-            hardwareManager.wheelLauncher.setPower(-0.5);
-        }else if (currentDriver.x){
-
-            // Pause and keep the current speed of the motor active from the left joystick
-            launcherSpeedPauseOn = true;
-            pausedLauncherSpeed = currentDriver.left_stick_y;
-            telemetry.addData("!! PAUSE STATUS !! -> ", "ON");
-            telemetry.addData("!! LAUNCHER SPEED (%) !! -> ", pausedLauncherSpeed * -100);
-        }else if (currentDriver.y){
-
-            // Unpause and let the joystick dictate the speed again
-            launcherSpeedPauseOn = false;
-            telemetry.addData("!! PAUSE STATUS !! -> ", "OFF");
-        } else {
-            double activeSpeed = launcherSpeedPauseOn ? pausedLauncherSpeed : currentDriver.left_stick_y;
-            hardwareManager.wheelLauncher.setPower(-activeSpeed);
+        driveBindings.update(now);
 
+        if (fieldCentric) {
+            /* The stick is in the DRIVER's frame, turn it into the robot's frame
+             * by rotating it back by how much the robot turned:
+             *
+             *   robotDrive  =  drive * cos(h) + strafe * sin(h)
+             *   robotStrafe = -drive * sin(h) + strafe * cos(h)
+             *
+             * The heading comes from the localizer, which was already updated in
+             * `refreshSensors()` this cycle: no extra IMU read, no extra loop time.
+             */
+            double heading = hardwareManager.localizer.getHeading() - fieldForwardHeading;
+            double cos = Math.cos(heading);
+            double sin = Math.sin(heading);
+            double robotDrive = drive * cos + strafe * sin;
+            strafe = -drive * sin + strafe * cos;
+            drive = robotDrive;
         }
 
+        /* Movement values are summed into the power for the wheels, see MecanumKinematics */
+        frontLeftWheelP  = MecanumKinematics.frontLeft(drive, strafe, rotate);
+        frontRightWheelP = MecanumKinematics.frontRight(drive, strafe, rotate);
+        backLeftWheelP   = MecanumKinematics.backLeft(drive, strafe, rotate);
+        backRightWheelP  = MecanumKinematics.backRight(drive, strafe, rotate);
 
+        /* Full stick diagonal + turning can ask for up to 3 on one wheel. Clipping each wheel
+         * to 1 would bend the direction (the other wheels keep their power), so instead
+         * ALL wheels are scaled down together by the biggest one: same direction, and
+         * the robot still gets full power.
+         */
+        double max = Math.max(1, Math.max(
+                Math.max(Math.abs(frontLeftWheelP), Math.abs(frontRightWheelP)),
+                Math.max(Math.abs(backLeftWheelP), Math.abs(backRightWheelP))));
+        frontLeftWheelP /= max;
+        frontRightWheelP /= max;
+        backLeftWheelP /= max;
+        backRightWheelP /= max;
+    }
+    protected void useDefaultLauncherControls(player driver){
+        // Built the first time, the buttons never change during a match
+        if (launcherBindings == null)
+            launcherBindings = createLauncherBindings((driver == player.player1) ? gamepad1 : gamepad2);
+        launcherBindings.update(hardwareManager.sensors.getTimestampNanos());
 
-        //Stopper
-        if(currentDriver.right_bumper){
-            hardwareManager.stopper.setPosition(0.25);
-        } else if (currentDriver.right_trigger > 0){
-            hardwareManager.stopper.setPosition(0);
-        }
-
-        //Flinger
-        if(currentDriver.left_bumper){
-            hardwareManager.flinger.setPosition(0.05); // Up Position = 0.05
-        } else if (currentDriver.left_trigger > 0){
-            hardwareManager.flinger.setPosition(0.38); // Down Position = 0.38
+        // A and B own the launcher while held, otherwise the joystick (or the paused speed) does
+        if (!launcherBindings.isAnyHeld(GamepadBindings.A | GamepadBindings.B)) {
+            double activeSpeed = launcherSpeedPauseOn ? pausedLauncherSpeed : launcherDriver.left_stick_y;
+            hardwareManager.launcher.setPower(-activeSpeed);
         }
 
         telemetry.update();
     }
 
+    /**
+     * The launcher buttons:
+     *
+     *   A (held)        spin up to LAUNCH_VELOCITY
+     *   B (held)        run backwards at half power, to clear a jam
+     *   X               pause: keep the current joystick speed, sampled ONCE on press
+     *   Y               unpause: the joystick drives the launcher again
+     *   RIGHT BUMPER    stopper up        RIGHT TRIGGER   stopper down    (held, the bumper wins)
+     *   LEFT BUMPER     flinger up        LEFT TRIGGER    flinger down    (held, the bumper wins)
+     */
+    private GamepadBindings createLauncherBindings(Gamepad gamepad) {
+        launcherDriver = gamepad;
+
+        // Added once, only turned into text when the telemetry is actually sent
+        telemetry.addData("Launcher", () -> launcherSpeedPauseOn
+                ? "PAUSED at " + Math.round(pausedLauncherSpeed * -100) + "%"
+                : "joystick").setRetained(true);
+
+        return new GamepadBindings(gamepad)
+                .whileHeld(GamepadBindings.A, () -> hardwareManager.launcher.spinUp())
+                .whileHeld(GamepadBindings.B, () -> hardwareManager.launcher.setPower(-0.5))
+                .onPress(GamepadBindings.X, () -> {
+                    launcherSpeedPauseOn = true;
+                    pausedLauncherSpeed = gamepad.left_stick_y;
+                })
+                .onPress(GamepadBindings.Y, () -> launcherSpeedPauseOn = false)
+                // Held, not pressed: letting go of the bumper while still holding the trigger goes
+                // back to the trigger's position. Bumpers after triggers, so with both held the bumper
+                // wins (the servo only gets the last position of a cycle)
+                .whileHeld(GamepadBindings.RIGHT_TRIGGER, () -> hardwareManager.stopper.setPosition(0))
+                .whileHeld(GamepadBindings.RIGHT_BUMPER, () -> hardwareManager.stopper.setPosition(0.25))
+                .whileHeld(GamepadBindings.LEFT_TRIGGER, () -> hardwareManager.flinger.setPosition(0.38))  // Down Position = 0.38
+                .whileHeld(GamepadBindings.LEFT_BUMPER, () -> hardwareManager.flinger.setPosition(0.05));  // Up Position = 0.05
+    }
+
     protected void zeroAllServos(){
         hardwareManager.flinger.setPosition(0.38);
         hardwareManager.stopper.setPosition(0);
@@ -150,9 +221,71 @@ public abstract class HumanOperated extends OpMode {
     @Override
     public void init() {
         hardwareManager = new HardwareManager(hardwareMap);
+        driveShaper = new AxisShaper().deadband(STICK_DEADBAND).expo(DRIVE_EXPO).slew(DRIVE_SLEW_UP, SLEW_DOWN);
+        strafeShaper = new AxisShaper().deadband(STICK_DEADBAND).expo(DRIVE_EXPO).slew(DRIVE_SLEW_UP, SLEW_DOWN);
+        rotateShaper = new AxisShaper().deadband(STICK_DEADBAND).expo(ROTATE_EXPO).slew(ROTATE_SLEW_UP, SLEW_DOWN);
+        driveBindings = new GamepadBindings(gamepad1)
+                .onPress(GamepadBindings.BACK, () -> {
+                    fieldCentric = !fieldCentric;
+                    gamepad1.rumble(fieldCentric ? 400 : 150); // Long = field-centric, short = robot-centric
+                })
+                // Point the robot away from the driver and press it, e.g. after it got bumped
+                .onPress(GamepadBindings.DPAD_UP, () -> fieldForwardHeading = hardwareManager.localizer.getHeading());
         zeroAllServos();
+        hardwareManager.flushOutputs();
+        loopProfiler = new LoopProfiler(telemetry);
+        recorder = new TelemetryRecorder(hardwareManager, getClass().getSimpleName());
     }
 
+    @Override
+    public void start() {
+        // Only time the match itself, not the init
+        loopProfiler.reset();
+    }
+
+    @Override
+    public void stop() {
+        // Either can still be null if init() threw, don't hide that error behind a NullPointerException
+        try {
+            if (recorder != null)
+                recorder.close();
+        } finally {
+            // The IMU and localizer threads must stop even if the recording didn't close well
+            if (hardwareManager != null)
+                hardwareManager.close();
+        }
+    }
+
+    /**
+     * One control cycle. The sensors are bulk-read once here, so everything
+     * done in `runTeleOp()` reads from the same snapshot, and the outputs
+     * are only written at the very end, once, and only if they changed.
+     * Every step is timed by the `loopProfiler`.
+     */
+    @Override
+    public final void loop() {
+        loopProfiler.startCycle();
+
+        hardwareManager.refreshSensors();
+        loopProfiler.endPhase(LoopProfiler.Phase.SENSOR_READ);
+
+        runTeleOp();
+        hardwareManager.launcher.update();
+        loopProfiler.endPhase(LoopProfiler.Phase.CONTROL);
+
+        hardwareManager.flushOutputs();
+        loopProfiler.endPhase(LoopProfiler.Phase.ACTUATOR_WRITE);
+
+        recorder.record();
+        loopProfiler.report();
+        loopProfiler.endPhase(LoopProfiler.Phase.TELEMETRY);
+    }
+
+    /**
+     * Called once per control cycle, after the sensors were refreshed.
+     */
+    protected abstract void runTeleOp();
+
     protected double limitMotorPower(double input){
         // Limits the DcMotor output power within a certain interval
         return Range.clip(input, MOTOR_LOWER_POWER_LIMIT, MOTOR_UPPER_POWER_LIMIT);
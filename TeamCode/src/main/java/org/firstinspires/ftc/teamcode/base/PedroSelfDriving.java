@@ -0,0 +1,130 @@
+package org.firstinspires.ftc.teamcode.base;
+
+import com.pedropathing.follower.Follower;
+import com.pedropathing.geometry.Pose;
+import com.pedropathing.paths.PathChain;
+
+import org.firstinspires.ftc.teamcode._pedroPathing.Constants;
+import org.firstinspires.ftc.teamcode.all_purpose.Alliance;
+import org.firstinspires.ftc.teamcode.all_purpose.DeviceLocalizer;
+import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
+import org.firstinspires.ftc.teamcode.commands.Command;
+import org.firstinspires.ftc.teamcode.commands.FollowPathCommand;
+
+/**
+ * Base class for autonomous scripts that drive with Pedro Pathing instead of
+ * the encoder-averaging `move()` / `rotate()`.
+ *
+ * (init) -> createFollower() -> setStartingPose() -> buildPaths() -> (START) -> runAutonomous()
+ *                                     |                   |
+ *                                     `-------------------`-> every Pose goes through `mirror()`
+ *
+ * - ALL the paths are built during init, in `buildPaths()`, so none of that
+ *   happens while the match clock is running.
+ * - Poses are ALWAYS written for the BLUE side. On red, `mirror()` flips them
+ *   to the other side of the field, so both autos are the exact same code.
+ * - The follower is updated once per cycle, right after the sensors are bulk-read,
+ *   and everything else (launcher, commands) keeps working like in `SelfDriving`.
+ * - With a Pinpoint, Pedro reads it and OUR localizer gets Pedro's pose every cycle
+ *   instead of reading it too (see `DeviceLocalizer.useExternalReader()`), so it never
+ *   freezes, and the camera fixes keep landing on a moving pose.
+ *
+ * Pedro's field is 144 x 144 inches, with (0, 0) in the corner and the
+ * heading in radians, counter-clockwise positive.
+ */
+public abstract class PedroSelfDriving extends SelfDriving {
+    public static final double FIELD_SIZE = 144; // inches
+    private static final double METERS_PER_INCH = 0.0254;
+
+    protected final Alliance alliance;
+    protected Follower follower;
+    /** Our localizer when it takes Pedro's Pinpoint pose, null when it reads its own odometry. */
+    private DeviceLocalizer sharedPinpoint;
+
+    protected PedroSelfDriving(Alliance alliance) {
+        this.alliance = alliance;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // For the inheriting autos
+    //------------------------------------------------------------------------------------------------
+
+    /** Where the robot is placed on the field, on the BLUE side. */
+    protected abstract Pose getBlueStartingPose();
+
+    /** Build every path chain here, with `follower.pathBuilder()` and `mirror()`ed poses. */
+    protected abstract void buildPaths();
+
+    //------------------------------------------------------------------------------------------------
+    // Paths
+    //------------------------------------------------------------------------------------------------
+
+    /**
+     * Takes a pose on the BLUE side and returns where it is for OUR alliance.
+     * On red, x is flipped across the middle of the field and the heading is mirrored.
+     *
+     *      BLUE               RED
+     *   (x, y, θ)   ->  (144 - x, y, π - θ)
+     */
+    protected Pose mirror(Pose bluePose) {
+        if (alliance == Alliance.BLUE)
+            return bluePose;
+
+        return new Pose(
+                FIELD_SIZE - bluePose.getX(),
+                bluePose.getY(),
+                normalizeRadians(Math.PI - bluePose.getHeading())
+        );
+    }
+
+    private static double normalizeRadians(double radians) {
+        radians %= 2 * Math.PI;
+        if (radians < 0)
+            radians += 2 * Math.PI;
+        return radians;
+    }
+
+    /** Follows `path` and holds the robot at its end once it gets there. */
+    protected Command followCommand(PathChain path) {
+        return new FollowPathCommand(hardwareManager, follower, path, true);
+    }
+
+    protected void follow(PathChain path) {
+        run(followCommand(path));
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Inheritance
+    //------------------------------------------------------------------------------------------------
+
+    @Override
+    protected void initAutonomous() {
+        // Pedro reads the Pinpoint itself. Two readers on the same I2C device would
+        // only slow each other down, so ours stops reading and follows Pedro's pose instead
+        if (hardwareManager.odometry == HardwareManager.Odometry.PINPOINT) {
+            sharedPinpoint = (DeviceLocalizer) hardwareManager.localizer;
+            sharedPinpoint.useExternalReader();
+        }
+        follower = Constants.createFollower(hardwareMap);
+        follower.setStartingPose(mirror(getBlueStartingPose()));
+        buildPaths();
+
+        telemetry.addData("Alliance", alliance);
+        telemetry.addData("Paths", "ready");
+        telemetry.update();
+    }
+
+    @Override
+    protected void periodic() {
+        follower.update();
+
+        Pose pose = follower.getPose();
+        if (sharedPinpoint != null)
+            sharedPinpoint.feedDevicePose(
+                    pose.getX() * METERS_PER_INCH,
+                    pose.getY() * METERS_PER_INCH,
+                    pose.getHeading(),
+                    System.nanoTime());
+        recorder.setPose(pose.getX(), pose.getY(), pose.getHeading());
+    }
+}
@@ -8,6 +8,21 @@ import com.qualcomm.robotcore.util.Range;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
 import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
+import org.firstinspires.ftc.teamcode.all_purpose.LoopProfiler;
+import org.firstinspires.ftc.teamcode.all_purpose.MotionProfile;
+import org.firstinspires.ftc.teamcode.all_purpose.TelemetryRecorder;
+import org.firstinspires.ftc.teamcode.commands.Command;
+import org.firstinspires.ftc.teamcode.commands.CommandScheduler;
+import org.firstinspires.ftc.teamcode.commands.DriveDistanceCommand;
+import org.firstinspires.ftc.teamcode.commands.DriveForTimeCommand;
+import org.firstinspires.ftc.teamcode.commands.InstantCommand;
+import org.firstinspires.ftc.teamcode.commands.RaceGroup;
+import org.firstinspires.ftc.teamcode.commands.SequentialGroup;
+import org.firstinspires.ftc.teamcode.commands.TurnCommand;
+import org.firstinspires.ftc.teamcode.commands.WaitCommand;
+import org.firstinspires.ftc.teamcode.commands.WaitUntilCommand;
+import org.firstinspires.ftc.teamcode.subsystems.Limelight;
+import org.firstinspires.ftc.teamcode.subsystems.Vision;
 
 /**
  * Base class for all human-operated scripts, a.k.a TeleOp.
@@ -30,123 +45,225 @@ import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
  */
 public abstract class SelfDriving extends LinearOpMode {
     protected HardwareManager hardwareManager;
+    protected LoopProfiler loopProfiler;
+    protected TelemetryRecorder recorder;
+    protected CommandScheduler scheduler;
 
-    protected final double WHEEL_CIRCUMFERENCE = Math.PI * 0.098; // M
-    protected final int COUNTS_PER_MOTOR_REVOLUTION = 900;
-    protected final double COUNTS_PER_METER =
-            COUNTS_PER_MOTOR_REVOLUTION / WHEEL_CIRCUMFERENCE;
     protected ElapsedTime elapsedTime;
     //------------------------------------------------------------------------------------------------
     // Config
     //------------------------------------------------------------------------------------------------
-    protected final double MOVEMENT_POWER = 0.25;
-    protected final double TURN_POWER  = 0.3;
+    protected final double MOVEMENT_POWER = 0.25; // Only for moveForSeconds(), move() follows a profile
+    protected final double MOVEMENT_MAX_SPEED = 1.2;         // m/s, the wheels top out around 1.4
+    protected final double MOVEMENT_MAX_ACCELERATION = 1.5;  // m/s^2
+    protected final double MOVEMENT_MAX_JERK = 6;            // m/s^3, 0 = trapezoidal profile
+    protected final double TURN_MAX_POWER = 0.7; // The heading controller slows down by itself
+    protected boolean USE_VISION = true;          // AprilTag fixes for the localizer, if there is a webcam
+    protected boolean USE_LIMELIGHT = true;       // Same from the Limelight, if there is one
+    protected final long INIT_CYCLE_MS = 10;      // Sensor refreshes while waiting for START, like a normal cycle
     //------------------------------------------------------------------------------------------------
     // Movement
     //------------------------------------------------------------------------------------------------
-    protected void move(double metersDistance) {
-        if (!opModeIsActive())
-            return;
-
-        hardwareManager.resetWheelCounts();
-        hardwareManager.doToAllWheels((wheel) -> wheel.setPower(MOVEMENT_POWER));
+    /**
+     * Drives `metersDistance` (negative = backwards) speeding up and slowing
+     * down smoothly, see `MotionProfile`, in a straight line from wherever the robot is.
+     * The wheel sizes are in `MecanumLocalizer`, the dead wheels in `PinpointLocalizer`
+     * or `OctoQuadLocalizer` (see `HardwareManager.ODOMETRY`).
+     */
+    protected Command moveCommand(double metersDistance) {
+        MotionProfile profile = new MotionProfile(
+                metersDistance,
+                MOVEMENT_MAX_SPEED,
+                MOVEMENT_MAX_ACCELERATION,
+                MOVEMENT_MAX_JERK
+        );
+        return new DriveDistanceCommand(hardwareManager, profile);
+    }
 
-        double totalCounts = COUNTS_PER_METER * metersDistance;
-        while (opModeIsActive() && hardwareManager.getAverageWheelCounts() <= totalCounts) {
-            idle();
-        }
+    protected Command moveForSecondsCommand(double seconds) {
+        return new DriveForTimeCommand(hardwareManager, seconds, MOVEMENT_POWER);
+    }
 
-        hardwareManager.doToAllWheels((wheel) -> wheel.setPower(0));
+    protected void move(double metersDistance) {
+        run(moveCommand(metersDistance));
     }
 
     protected void moveForSeconds(double seconds){
-        if (!opModeIsActive())
-            return;
-
-
-
-        //elapsedTime.reset();
-        elapsedTime.reset();  // Start timer...
-
-        hardwareManager.doToAllWheels((wheel) -> wheel.setPower(MOVEMENT_POWER)); // Run all wheels at set power...
-        boolean running = true;
-        while (opModeIsActive() && running){ // While the timer is less than time requested
-            idle();
-            if(seconds < elapsedTime.seconds()){
-                running = false;
-                telemetry.update();
-            }
-        }
-        // Once while has stopped
-        hardwareManager.doToAllWheels((wheel) -> wheel.setPower(0)); // Set all wheels to 0 power
+        run(moveForSecondsCommand(seconds));
     }
 
     //------------------------------------------------------------------------------------------------
     // Launcher
     //------------------------------------------------------------------------------------------------
-    protected void launch(int ballsLaunched){
-        hardwareManager.wheelLauncher.setPower(1);
-        // Set timer
-        waitForSeconds(2);
+    protected final double LAUNCHER_SPIN_UP_TIMEOUT = 2; // Never wait longer than the old fixed spin-up
+    protected final double FLINGER_UP_POSITION = 0.05;
+    protected final double FLINGER_DOWN_POSITION = 0.38;
+    protected final double FLING_SECONDS = 0.5;
+    protected final double RETRACT_SECONDS = 0.5;  // The next ball only rolls in once the flinger is back down
+
+    /**
+     * Starts the launcher wheel and returns immediately, so it can
+     * spin up while the robot is still driving to the shooting spot.
+     */
+    protected Command spinUpLauncherCommand() {
+        return new InstantCommand(() -> hardwareManager.launcher.spinUp());
+    }
 
-        for(int x = 0; x < ballsLaunched; x++){
+    /**
+     * Waits for the launcher to be at speed (or LAUNCHER_SPIN_UP_TIMEOUT, whichever comes first)
+     * before EVERY ball, flings `ballsLaunched` balls, then stops the launcher.
+     *
+     *      at speed? -> flinger UP -> FLING_SECONDS -> flinger DOWN -> RETRACT_SECONDS -> next ball
+     *
+     * The wait after DOWN is a MUST: without it, a wheel already at speed lets the next
+     * UP come in the same cycle, and the servo only ever gets the last position of a cycle.
+     */
+    protected Command fireCommand(int ballsLaunched) {
+        Command[] steps = new Command[ballsLaunched * 5 + 1];
+        int i = 0;
 
-            hardwareManager.flinger.setPosition(0.05);
-            waitForSeconds(0.5);
-            hardwareManager.flinger.setPosition(0.38);
-            waitForSeconds(0.5);
+        for (int x = 0; x < ballsLaunched; x++) {
+            steps[i++] = new RaceGroup(
+                    new WaitUntilCommand(() -> hardwareManager.launcher.isAtSpeed()),
+                    new WaitCommand(LAUNCHER_SPIN_UP_TIMEOUT)
+            );
+            steps[i++] = new InstantCommand(() -> hardwareManager.flinger.setPosition(FLINGER_UP_POSITION));
+            steps[i++] = new WaitCommand(FLING_SECONDS);
+            steps[i++] = new InstantCommand(() -> hardwareManager.flinger.setPosition(FLINGER_DOWN_POSITION));
+            steps[i++] = new WaitCommand(RETRACT_SECONDS);
         }
-        hardwareManager.wheelLauncher.setPower(0);
-        // Let wheel motor run for N seconds
-        // Once timer > n seconds then
-        // set servo position to 0.05
-        // somehow find a way to make it wait for 2 seconds
-        // set motor power to 0
-        // set servo position to 0.38
+        steps[i] = new InstantCommand(() -> hardwareManager.launcher.stop());
+
+        return new SequentialGroup(steps);
+    }
+
+    protected Command launchCommand(int ballsLaunched) {
+        return new SequentialGroup(spinUpLauncherCommand(), fireCommand(ballsLaunched));
+    }
 
+    protected void launch(int ballsLaunched){
+        run(launchCommand(ballsLaunched));
     }
+
     protected void waitForSeconds(double seconds){
-        elapsedTime.reset();
-        while(opModeIsActive() && elapsedTime.seconds() <= seconds){
-            idle();
-        }
+        run(new WaitCommand(seconds));
     }
+
     //------------------------------------------------------------------------------------------------
     // Rotation
     //------------------------------------------------------------------------------------------------
+    /**
+     * Turns BY `degreeAngle` from where the robot faces now.
+     * Positive = clockwise (RIGHT), negative = counter-clockwise (LEFT).
+     */
+    protected Command rotateCommand(double degreeAngle) {
+        return new TurnCommand(hardwareManager, degreeAngle, false, TURN_MAX_POWER);
+    }
+
+    /**
+     * Turns TO a heading on the field, no matter how many turns came before.
+     * Counter-clockwise positive, 0 = where the robot faced at init (see `getCurrentDegreeHeading()`).
+     */
+    protected Command turnToHeadingCommand(double heading) {
+        return new TurnCommand(hardwareManager, heading, true, TURN_MAX_POWER);
+    }
+
     protected void rotate(double degreeAngle) {
-        if (!opModeIsActive())
-            return;
+        run(rotateCommand(degreeAngle));
+    }
 
-        hardwareManager.imu.resetYaw();
-        double initialAngle = hardwareManager.getCurrentDegreeHeading();
+    protected void turnToHeading(double heading) {
+        run(turnToHeadingCommand(heading));
+    }
 
-        double motorOffset = degreeAngle > 0 ? 1 : -1;
-        double leftPower = TURN_POWER * motorOffset;
-        double rightPower = TURN_POWER * -motorOffset;
+    //------------------------------------------------------------------------------------------------
+    // Commands
+    //------------------------------------------------------------------------------------------------
 
-        hardwareManager.frontLeftWheel.setPower(leftPower);
-        hardwareManager.frontRightWheel.setPower(rightPower);
-        hardwareManager.backLeftWheel.setPower(leftPower);
-        hardwareManager.backRightWheel.setPower(rightPower);
+    /**
+     * Runs a command until it is done (or the OpMode stops), ticking the
+     * scheduler once per cycle. Anything else scheduled keeps running too.
+     *
+     *      run(new SequentialGroup(
+     *              spinUpLauncherCommand(),
+     *              moveCommand(2.5),
+     *              fireCommand(3)
+     *      ));
+     */
+    protected void run(Command command) {
+        if (!opModeIsActive())
+            return;
 
-        while(opModeIsActive() && hasReachedDesiredAngle(initialAngle, degreeAngle)) {
-            telemetry.addData("current deg: ", hardwareManager.getCurrentDegreeHeading());
-            telemetry.update();
+        scheduler.schedule(command);
+        while (nextCycle() && scheduler.isScheduled(command)) {
             idle();
         }
 
-        hardwareManager.doToAllWheels((wheel) -> wheel.setPower(0));
+        if (scheduler.isScheduled(command))
+            scheduler.cancel(command);
+
+        // Write whatever the command did when it ended (e.g. stopping the wheels)
+        // right away, so the robot doesn't coast into the next step
+        hardwareManager.flushOutputs();
     }
 
-    protected boolean hasReachedDesiredAngle(double initialAngle, double turnAngle) {
-        double targetAngle = initialAngle - turnAngle;
-        double currentAngle = hardwareManager.getCurrentDegreeHeading();
+    //------------------------------------------------------------------------------------------------
+    // Control cycle
+    //------------------------------------------------------------------------------------------------
+
+    /**
+     * Starts a new control cycle and tells if the OpMode is still running.
+     * Every waiting loop should call this as its condition, so the outputs are
+     * written and the sensors are bulk-read once per iteration instead of once per call:
+     *      while (nextCycle() && notDoneYet) { ... }
+     * This is also the ONE place where the command scheduler gets ticked.
+     */
+    protected boolean nextCycle() {
+        // Everything since the last sensor read was the caller's loop body
+        hardwareManager.launcher.update();
+        loopProfiler.endPhase(LoopProfiler.Phase.CONTROL);
+
+        // Whatever was set during the last cycle gets written now
+        hardwareManager.flushOutputs();
+        loopProfiler.endPhase(LoopProfiler.Phase.ACTUATOR_WRITE);
 
-        return turnAngle > 0
-                ? currentAngle > targetAngle
-                : currentAngle < targetAngle;
+        recorder.record();
+        if (loopProfiler.report())
+            telemetry.update();
+        loopProfiler.endPhase(LoopProfiler.Phase.TELEMETRY);
+
+        if (!opModeIsActive())
+            return false;
+
+        loopProfiler.startCycle();
+        hardwareManager.refreshSensors();
+        loopProfiler.endPhase(LoopProfiler.Phase.SENSOR_READ);
+
+        // Things that have to run every cycle no matter what command is running
+        periodic();
+
+        // One step of every running command
+        scheduler.tick();
+        return true;
+    }
+
+    /**
+     * Waits for START, but keeps refreshing the sensors while it does: a tag seen from the
+     * starting spot puts the pose in the field frame NOW, and not in the middle of the first
+     * move, which already stored where it started and would see the robot jump.
+     *
+     *      (init) -> refreshSensors() -> vision / Limelight -> first fix -> ... -> (START)
+     *
+     * Nothing is written to the outputs, the robot can't move before START.
+     */
+    private void waitForStartWithSensors() {
+        while (opModeInInit()) {
+            hardwareManager.refreshSensors();
+            sleep(INIT_CYCLE_MS);
+        }
+        waitForStart();
     }
+
     //------------------------------------------------------------------------------------------------
     // Inheritance
     //------------------------------------------------------------------------------------------------
@@ -154,10 +271,44 @@ public abstract class SelfDriving extends LinearOpMode {
     @Override
     public void runOpMode() {
         hardwareManager = new HardwareManager(hardwareMap);
+        if (USE_VISION && !hardwareManager.enableVision())
+            telemetry.addLine("No webcam named \"" + Vision.CAMERA_NAME + "\", running without vision");
+        if (USE_LIMELIGHT && !hardwareManager.enableLimelight())
+            telemetry.addLine("No Limelight named \"" + Limelight.DEVICE_NAME + "\", running without it");
+        if (hardwareManager.odometry != HardwareManager.ODOMETRY)
+            telemetry.addLine("No " + HardwareManager.ODOMETRY + " in the configuration, using the drive encoders");
         elapsedTime = new ElapsedTime();
-        waitForStart();
-        runAutonomous();
+        loopProfiler = new LoopProfiler(telemetry);
+        scheduler = new CommandScheduler();
+        recorder = new TelemetryRecorder(hardwareManager, getClass().getSimpleName());
+        try {
+            initAutonomous();
+            waitForStartWithSensors();
+            if (hardwareManager.vision != null)
+                hardwareManager.vision.onStart();  // The camera stays open, only the live view stops
+            runAutonomous();
+            scheduler.cancelAll();
+            hardwareManager.flushOutputs();
+        } finally {
+            // Also when the OpMode gets stopped in the middle of something
+            try {
+                recorder.close();
+            } finally {
+                hardwareManager.close();
+            }
+        }
     }
 
+    /**
+     * Called once during init, before waiting for START. Anything slow
+     * (building paths, ...) belongs here instead of in the timed part of the match.
+     */
+    protected void initAutonomous() {}
+
+    /**
+     * Called every cycle right after the sensors were refreshed, before the commands run.
+     */
+    protected void periodic() {}
+
     protected abstract void runAutonomous();
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+/**
+ * One thing the robot does over time, WITHOUT blocking.
+ * Instead of spinning in its own `while` loop, a command gets called once
+ * per control cycle by the `CommandScheduler`, does a little bit of work, and returns.
+ *
+ *  initialize() -> execute() -> execute() -> ... -> isFinished() == true -> end(false)
+ *                                               `-> cancelled           -> end(true)
+ */
+public interface Command {
+    /**
+     * Called once, when the command gets scheduled (`CommandScheduler.schedule()`),
+     * or when its group gets to it. The first `execute()` comes on the next tick.
+     */
+    default void initialize() {}
+
+    /** Called every cycle while the command runs. */
+    default void execute() {}
+
+    /** Checked every cycle, right after `execute()`. */
+    boolean isFinished();
+
+    /** Called once when the command is done, or got cancelled (`interrupted` = true). */
+    default void end(boolean interrupted) {}
+}
@@ -0,0 +1,80 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+import java.util.ArrayList;
+
+/**
+ * Runs every scheduled command, one step each, every time `tick()` is called.
+ * `tick()` should be called exactly once per control cycle, which is what lets
+ * the robot drive, spin the launcher, and aim at the same time.
+ */
+public class CommandScheduler {
+    private final ArrayList<Command> running = new ArrayList<>();
+    private final ArrayList<Command> toSchedule = new ArrayList<>();
+    private boolean ticking = false;
+
+    /**
+     * Initializes a command right away (at the end of the tick if called during one),
+     * and runs it from the next tick on.
+     * Scheduling a command that is already running does nothing.
+     */
+    public void schedule(Command command) {
+        if (isScheduled(command))
+            return;
+
+        if (ticking) {
+            // Can't touch `running` while looping over it
+            toSchedule.add(command);
+        } else {
+            command.initialize();
+            running.add(command);
+        }
+    }
+
+    /** Runs one step of every running command, and removes the finished ones. */
+    public void tick() {
+        ticking = true;
+
+        // Index loop on purpose, no iterator allocated every cycle
+        for (int i = 0; i < running.size(); i++) {
+            Command command = running.get(i);
+            command.execute();
+
+            if (command.isFinished()) {
+                command.end(false);
+                running.remove(i);
+                i--;
+            }
+        }
+
+        ticking = false;
+
+        for (int i = 0; i < toSchedule.size(); i++) {
+            schedule(toSchedule.get(i));
+        }
+        toSchedule.clear();
+    }
+
+    public boolean isScheduled(Command command) {
+        return running.contains(command) || toSchedule.contains(command);
+    }
+
+    /** True while at least one command is still running. */
+    public boolean isBusy() {
+        return !running.isEmpty() || !toSchedule.isEmpty();
+    }
+
+    public void cancel(Command command) {
+        if (running.remove(command)) {
+            command.end(true);
+        }
+        toSchedule.remove(command);
+    }
+
+    public void cancelAll() {
+        for (int i = 0; i < running.size(); i++) {
+            running.get(i).end(true);
+        }
+        running.clear();
+        toSchedule.clear();
+    }
+}
@@ -0,0 +1,24 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+/**
+ * Runs all its commands at the same time. Done as soon as the `deadline`
+ * (the first command) is done, the others get cancelled.
+ *      new DeadlineGroup(driveThere, keepLauncherSpinning)
+ */
+public class DeadlineGroup extends ParallelCommands {
+    public DeadlineGroup(Command deadline, Command... others) {
+        super(prepend(deadline, others));
+    }
+
+    @Override
+    public boolean isFinished() {
+        return !isRunning[0];
+    }
+
+    private static Command[] prepend(Command first, Command[] rest) {
+        Command[] all = new Command[rest.length + 1];
+        all[0] = first;
+        System.arraycopy(rest, 0, all, 1, rest.length);
+        return all;
+    }
+}
@@ -0,0 +1,153 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.util.ElapsedTime;
+
+import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
+import org.firstinspires.ftc.teamcode.all_purpose.Localizer;
+import org.firstinspires.ftc.teamcode.all_purpose.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.all_purpose.MotionProfile;
+
+/**
+ * Drives in a straight line along a `MotionProfile` (in meters), using the
+ * `Localizer` pose to stay on it. Non-blocking version of the old `SelfDriving.move()`.
+ *
+ * The line starts where the robot is when the command starts, in the direction it faces.
+ * Every cycle the profile says where we SHOULD be along it and how fast we should be going:
+ *
+ *   forward  = kS * sign(v) + kV * v + kA * a     <- Feedforward: what it should take to follow the plan
+ *            + kP * (planned - along)              <- Feedback: fixes friction, a low battery...
+ *   sideways = -kLateral * across                  <- Pushed sideways off the line? strafe back onto it
+ *   turn     = kHeading * (startHeading - heading) <- and keep facing the same way
+ *
+ * Nothing is reset, so it works no matter what ran before.
+ * If the pose JUMPS on the way (a relocalization, see `Localizer.getRelocalizeCount()`), the line
+ * jumps with it: the robot stays as far along it, as far across it and as far off its heading as
+ * it was the cycle before, instead of driving the whole jump back in one go.
+ * It is done once the plan is over AND we are within POSITION_TOLERANCE of the end,
+ * or EXTRA_SECONDS after the plan is over, whichever comes first.
+ */
+@Configurable
+public class DriveDistanceCommand implements Command {
+    //------------------------------------------------------------------------------------------------
+    // Config (in motor power, per meter)
+    //------------------------------------------------------------------------------------------------
+    public static double kS = 0.05;
+    public static double kV = 0.7;       // per m/s, about 1 / top speed
+    public static double kA = 0.1;       // per m/s^2
+    public static double kP = 5;         // per meter behind the plan
+    public static double kLateral = 4;   // per meter off the line
+    public static double kHeading = 1.5; // per radian off the start heading
+
+    public static double POSITION_TOLERANCE = 0.007; // m
+    public static double EXTRA_SECONDS = 1;          // Time to settle after the plan is over
+
+    private final HardwareManager hardwareManager;
+    private final MotionProfile profile;
+    private final ElapsedTime timer = new ElapsedTime();
+
+    private double startX;
+    private double startY;
+    private double startHeading;
+    private double cos;
+    private double sin;
+
+    // Where the robot was from the line last cycle, to re-anchor on a relocalization
+    private long relocalizeCount;
+    private double lastAlong;
+    private double lastAcross;
+    private double lastHeadingError;
+
+    public DriveDistanceCommand(HardwareManager hardwareManager, MotionProfile profile) {
+        this.hardwareManager = hardwareManager;
+        this.profile = profile;
+    }
+
+    @Override
+    public void initialize() {
+        Localizer localizer = hardwareManager.localizer;
+        startX = localizer.getX();
+        startY = localizer.getY();
+        startHeading = localizer.getHeading();
+        cos = Math.cos(startHeading);
+        sin = Math.sin(startHeading);
+        relocalizeCount = localizer.getRelocalizeCount();
+        lastAlong = 0;
+        lastAcross = 0;
+        lastHeadingError = 0;
+        timer.reset();
+    }
+
+    /** Moves the line so the robot is where it was from it last cycle, in the pose's new frame. */
+    private void reanchor() {
+        Localizer localizer = hardwareManager.localizer;
+        relocalizeCount = localizer.getRelocalizeCount();
+        startHeading = Localizer.angleWrap(localizer.getHeading() + lastHeadingError);
+        cos = Math.cos(startHeading);
+        sin = Math.sin(startHeading);
+        startX = localizer.getX() - lastAlong * cos + lastAcross * sin;
+        startY = localizer.getY() - lastAlong * sin - lastAcross * cos;
+    }
+
+    /** How far we went along the line. */
+    private double along() {
+        return (hardwareManager.localizer.getX() - startX) * cos
+                + (hardwareManager.localizer.getY() - startY) * sin;
+    }
+
+    /** How far we are to the LEFT of the line. */
+    private double across() {
+        return -(hardwareManager.localizer.getX() - startX) * sin
+                + (hardwareManager.localizer.getY() - startY) * cos;
+    }
+
+    @Override
+    public void execute() {
+        if (hardwareManager.localizer.getRelocalizeCount() != relocalizeCount)
+            reanchor();
+
+        double t = timer.seconds();
+        double plannedVelocity = profile.getVelocity(t);
+        lastAlong = along();
+        lastAcross = across();
+        lastHeadingError = Localizer.angleWrap(startHeading - hardwareManager.localizer.getHeading());
+
+        double forward = kS * Math.signum(plannedVelocity)
+                + kV * plannedVelocity
+                + kA * profile.getAcceleration(t)
+                + kP * (profile.getPosition(t) - lastAlong);
+        double sideways = -kLateral * lastAcross;
+        double turn = kHeading * lastHeadingError;
+
+        double frontLeft = MecanumKinematics.frontLeft(forward, sideways, turn);
+        double frontRight = MecanumKinematics.frontRight(forward, sideways, turn);
+        double backLeft = MecanumKinematics.backLeft(forward, sideways, turn);
+        double backRight = MecanumKinematics.backRight(forward, sideways, turn);
+
+        // Scale everything down together if one wheel is over 1, so the robot still goes straight
+        double max = Math.max(1, Math.max(
+                Math.max(Math.abs(frontLeft), Math.abs(frontRight)),
+                Math.max(Math.abs(backLeft), Math.abs(backRight))));
+
+        // Not `doToAllWheels`, a capturing lambda would be a new object every cycle
+        hardwareManager.frontLeftWheel.setPower(frontLeft / max);
+        hardwareManager.frontRightWheel.setPower(frontRight / max);
+        hardwareManager.backLeftWheel.setPower(backLeft / max);
+        hardwareManager.backRightWheel.setPower(backRight / max);
+    }
+
+    @Override
+    public boolean isFinished() {
+        double t = timer.seconds();
+        if (t < profile.getDuration())
+            return false;
+
+        double error = profile.getDistance() - along();
+        return Math.abs(error) < POSITION_TOLERANCE || t > profile.getDuration() + EXTRA_SECONDS;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        hardwareManager.doToAllWheels((wheel) -> wheel.setPower(0));
+    }
+}
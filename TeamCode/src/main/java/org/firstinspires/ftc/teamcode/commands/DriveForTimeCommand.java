@@ -0,0 +1,38 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+import com.qualcomm.robotcore.util.ElapsedTime;
+
+import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
+
+/**
+ * Drives straight at a fixed power for a set amount of seconds.
+ * Non-blocking version of the old `SelfDriving.moveForSeconds()`.
+ */
+public class DriveForTimeCommand implements Command {
+    private final HardwareManager hardwareManager;
+    private final double seconds;
+    private final double power;
+    private final ElapsedTime timer = new ElapsedTime();
+
+    public DriveForTimeCommand(HardwareManager hardwareManager, double seconds, double power) {
+        this.hardwareManager = hardwareManager;
+        this.seconds = seconds;
+        this.power = power;
+    }
+
+    @Override
+    public void initialize() {
+        timer.reset();
+        hardwareManager.doToAllWheels((wheel) -> wheel.setPower(power));
+    }
+
+    @Override
+    public boolean isFinished() {
+        return timer.seconds() > seconds;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        hardwareManager.doToAllWheels((wheel) -> wheel.setPower(0));
+    }
+}
@@ -0,0 +1,51 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+import com.pedropathing.follower.Follower;
+import com.pedropathing.paths.PathChain;
+
+import org.firstinspires.ftc.teamcode.all_purpose.CachedMotor;
+import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
+
+/**
+ * Follows a Pedro Pathing `PathChain` until the robot reaches the end of it.
+ * The follower itself has to be updated every cycle by whoever owns it (see `PedroSelfDriving`).
+ *
+ * While a path is followed, Pedro writes the wheel powers itself and NOT
+ * through the `CachedMotor`s, so they are invalidated when we're done to
+ * make sure the next command's powers actually get written.
+ */
+public class FollowPathCommand implements Command {
+    private final HardwareManager hardwareManager;
+    private final Follower follower;
+    private final PathChain path;
+    private final boolean holdEnd;
+
+    /**
+     * @param holdEnd Keep correcting to the end of the path after it is done
+     *                (e.g. so the robot doesn't get pushed while launching)
+     */
+    public FollowPathCommand(HardwareManager hardwareManager, Follower follower, PathChain path, boolean holdEnd) {
+        this.hardwareManager = hardwareManager;
+        this.follower = follower;
+        this.path = path;
+        this.holdEnd = holdEnd;
+    }
+
+    @Override
+    public void initialize() {
+        follower.followPath(path, holdEnd);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return !follower.isBusy();
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (interrupted)
+            follower.breakFollowing();
+
+        hardwareManager.doToAllWheels(CachedMotor::invalidate);
+    }
+}
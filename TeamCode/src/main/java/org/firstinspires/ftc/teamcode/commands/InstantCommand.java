@@ -0,0 +1,23 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+/**
+ * Runs a piece of code once, and is immediately done.
+ *      new InstantCommand(() -> hardwareManager.wheelLauncher.setPower(1))
+ */
+public class InstantCommand implements Command {
+    private final Runnable action;
+
+    public InstantCommand(Runnable action) {
+        this.action = action;
+    }
+
+    @Override
+    public void initialize() {
+        action.run();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return true;
+    }
+}
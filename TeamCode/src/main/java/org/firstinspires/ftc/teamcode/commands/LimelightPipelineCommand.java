@@ -0,0 +1,33 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+import org.firstinspires.ftc.teamcode.subsystems.Limelight;
+
+/**
+ * Keeps the Limelight on `pipeline` for as long as it runs, then puts it back
+ * on the AprilTags. Never done by itself, run it NEXT to the command that needs it:
+ *      new DeadlineGroup(intakeCommand, new LimelightPipelineCommand(limelight, Limelight.Pipeline.COLOR))
+ */
+public class LimelightPipelineCommand implements Command {
+    private final Limelight limelight;
+    private final Limelight.Pipeline pipeline;
+
+    public LimelightPipelineCommand(Limelight limelight, Limelight.Pipeline pipeline) {
+        this.limelight = limelight;
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    public void initialize() {
+        limelight.setPipeline(pipeline);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return false;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        limelight.setPipeline(Limelight.Pipeline.APRILTAG);
+    }
+}
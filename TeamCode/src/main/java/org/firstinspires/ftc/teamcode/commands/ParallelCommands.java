@@ -0,0 +1,61 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+/**
+ * Shared code of the groups that run all their commands at the same time.
+ * The only thing that changes between them is WHEN the group is done:
+ *
+ *  ParallelGroup:  when ALL commands are done
+ *  RaceGroup:      when ANY command is done, the others get cancelled
+ *  DeadlineGroup:  when the FIRST command is done, the others get cancelled
+ */
+abstract class ParallelCommands implements Command {
+    protected final Command[] commands;
+    protected final boolean[] isRunning;
+
+    protected ParallelCommands(Command... commands) {
+        this.commands = commands;
+        this.isRunning = new boolean[commands.length];
+    }
+
+    @Override
+    public void initialize() {
+        for (int i = 0; i < commands.length; i++) {
+            commands[i].initialize();
+            isRunning[i] = true;
+        }
+    }
+
+    @Override
+    public void execute() {
+        for (int i = 0; i < commands.length; i++) {
+            if (!isRunning[i])
+                continue;
+
+            commands[i].execute();
+            if (commands[i].isFinished()) {
+                commands[i].end(false);
+                isRunning[i] = false;
+            }
+        }
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        // Whatever is still running did not get to finish
+        for (int i = 0; i < commands.length; i++) {
+            if (isRunning[i]) {
+                commands[i].end(true);
+                isRunning[i] = false;
+            }
+        }
+    }
+
+    protected int runningCount() {
+        int count = 0;
+        for (boolean running : isRunning) {
+            if (running)
+                count++;
+        }
+        return count;
+    }
+}
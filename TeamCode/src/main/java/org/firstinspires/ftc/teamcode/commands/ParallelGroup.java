@@ -0,0 +1,15 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+/**
+ * Runs all its commands at the same time. Done when ALL of them are done.
+ */
+public class ParallelGroup extends ParallelCommands {
+    public ParallelGroup(Command... commands) {
+        super(commands);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return runningCount() == 0;
+    }
+}
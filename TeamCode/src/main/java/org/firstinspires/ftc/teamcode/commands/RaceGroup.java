@@ -0,0 +1,17 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+/**
+ * Runs all its commands at the same time. Done as soon as ANY of them is done,
+ * the others get cancelled.
+ */
+public class RaceGroup extends ParallelCommands {
+    public RaceGroup(Command... commands) {
+        super(commands);
+    }
+
+    @Override
+    public boolean isFinished() {
+        // With no commands at all, nothing can win the race: done right away, like an empty ParallelGroup
+        return commands.length == 0 || runningCount() < commands.length;
+    }
+}
@@ -0,0 +1,52 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+/**
+ * Runs its commands one after the other. Done when the last one is done.
+ *
+ *  |-- first --|-- second --|-- third --|
+ *
+ * A command that finishes right away does not waste a cycle,
+ * the next one is started in the same cycle.
+ */
+public class SequentialGroup implements Command {
+    private final Command[] commands;
+    private int current = 0;
+
+    public SequentialGroup(Command... commands) {
+        this.commands = commands;
+    }
+
+    @Override
+    public void initialize() {
+        current = 0;
+        if (commands.length > 0)
+            commands[0].initialize();
+    }
+
+    @Override
+    public void execute() {
+        while (current < commands.length) {
+            Command command = commands[current];
+            command.execute();
+
+            if (!command.isFinished())
+                return;
+
+            command.end(false);
+            current++;
+            if (current < commands.length)
+                commands[current].initialize();
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return current >= commands.length;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (interrupted && current < commands.length)
+            commands[current].end(true);
+    }
+}
@@ -0,0 +1,76 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.util.ElapsedTime;
+
+import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
+import org.firstinspires.ftc.teamcode.all_purpose.HeadingController;
+
+/**
+ * Turns in place with a `HeadingController` until the robot has settled on the target.
+ * Non-blocking version of the old `SelfDriving.rotate()`.
+ *
+ * Two ways to give the target:
+ *      relative  -> `degreeAngle` from where the robot faces right now.
+ *                   Positive = clockwise (RIGHT), negative = counter-clockwise (LEFT), like before.
+ *      absolute  -> a heading, counter-clockwise positive, 0 = where the robot faced at init.
+ *
+ * The IMU is never reset, so small errors don't pile up from one turn to the next.
+ */
+@Configurable
+public class TurnCommand implements Command {
+    public static double TIMEOUT_SECONDS = 3;
+
+    private final HardwareManager hardwareManager;
+    private final double degreeAngle;
+    private final boolean isAbsolute;
+    private final HeadingController controller = new HeadingController();
+    private final ElapsedTime timer = new ElapsedTime();
+
+    /**
+     * @param isAbsolute false: turn BY `degreeAngle` (clockwise positive),
+     *                   true: turn TO the heading `degreeAngle` (counter-clockwise positive)
+     * @param maxPower   The wheels never go over this
+     */
+    public TurnCommand(HardwareManager hardwareManager, double degreeAngle, boolean isAbsolute, double maxPower) {
+        this.hardwareManager = hardwareManager;
+        this.degreeAngle = degreeAngle;
+        this.isAbsolute = isAbsolute;
+        controller.setMaxPower(maxPower);
+    }
+
+    @Override
+    public void initialize() {
+        double targetHeading = isAbsolute
+                ? degreeAngle
+                : hardwareManager.getCurrentDegreeHeading() - degreeAngle;
+
+        controller.reset();
+        controller.setTarget(targetHeading);
+        timer.reset();
+    }
+
+    @Override
+    public void execute() {
+        double turn = controller.update(
+                hardwareManager.getCurrentDegreeHeading(),
+                hardwareManager.sensors.getTimestampNanos()
+        );
+
+        // Counter-clockwise = left wheels backwards, right wheels forwards
+        hardwareManager.frontLeftWheel.setPower(-turn);
+        hardwareManager.frontRightWheel.setPower(turn);
+        hardwareManager.backLeftWheel.setPower(-turn);
+        hardwareManager.backRightWheel.setPower(turn);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return controller.isSettled() || timer.seconds() > TIMEOUT_SECONDS;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        hardwareManager.doToAllWheels((wheel) -> wheel.setPower(0));
+    }
+}
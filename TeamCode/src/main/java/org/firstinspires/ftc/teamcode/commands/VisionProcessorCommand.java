@@ -0,0 +1,34 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+import org.firstinspires.ftc.teamcode.subsystems.Vision;
+
+/**
+ * Keeps a `Vision` processor running for as long as it runs, it's turned back off
+ * afterwards (unless something else still needs it). Never done by itself, run it
+ * NEXT to the command that needs it:
+ *      new DeadlineGroup(intakeCommand, new VisionProcessorCommand(vision, Vision.Processor.ARTIFACTS))
+ */
+public class VisionProcessorCommand implements Command {
+    private final Vision vision;
+    private final Vision.Processor processor;
+
+    public VisionProcessorCommand(Vision vision, Vision.Processor processor) {
+        this.vision = vision;
+        this.processor = processor;
+    }
+
+    @Override
+    public void initialize() {
+        vision.require(processor);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return false;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        vision.release(processor);
+    }
+}
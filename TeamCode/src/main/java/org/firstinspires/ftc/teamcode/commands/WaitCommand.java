@@ -0,0 +1,26 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+import com.qualcomm.robotcore.util.ElapsedTime;
+
+/**
+ * Does nothing for a set amount of seconds.
+ * Mostly useful inside a `SequentialGroup`, or as the deadline of a `DeadlineGroup`.
+ */
+public class WaitCommand implements Command {
+    private final double seconds;
+    private final ElapsedTime timer = new ElapsedTime();
+
+    public WaitCommand(double seconds) {
+        this.seconds = seconds;
+    }
+
+    @Override
+    public void initialize() {
+        timer.reset();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return timer.seconds() >= seconds;
+    }
+}
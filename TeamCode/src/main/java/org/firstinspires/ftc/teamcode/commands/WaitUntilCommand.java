@@ -0,0 +1,20 @@
+package org.firstinspires.ftc.teamcode.commands;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Does nothing until the condition becomes true.
+ *      new WaitUntilCommand(() -> launcherIsReady())
+ */
+public class WaitUntilCommand implements Command {
+    private final BooleanSupplier condition;
+
+    public WaitUntilCommand(BooleanSupplier condition) {
+        this.condition = condition;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return condition.getAsBoolean();
+    }
+}
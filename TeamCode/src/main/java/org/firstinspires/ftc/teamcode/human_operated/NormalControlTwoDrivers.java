@@ -8,11 +8,11 @@ import org.firstinspires.ftc.teamcode.base.HumanOperated;
 @TeleOp(name = "Normal Two Drivers", group = "TeleOp")
 public class NormalControlTwoDrivers extends HumanOperated {
 
-    /* > The following code overrides the "loop" function
-     * > The "loop" function is constantly called as the TeleOp is running
+    /* > The following code overrides the "runTeleOp" function
+     * > The "runTeleOp" function is constantly called (once per loop) as the TeleOp is running
      */
     @Override
-    public void loop() {
+    protected void runTeleOp() {
         /* All functions you write in HumanOperated should be called here since this class
         extends HumanOperated */
 
@@ -0,0 +1,70 @@
+package org.firstinspires.ftc.teamcode.self_driving;
+
+import com.pedropathing.geometry.BezierCurve;
+import com.pedropathing.geometry.Pose;
+import com.pedropathing.paths.PathChain;
+
+import org.firstinspires.ftc.teamcode.all_purpose.Alliance;
+import org.firstinspires.ftc.teamcode.base.PedroSelfDriving;
+import org.firstinspires.ftc.teamcode.commands.ParallelGroup;
+import org.firstinspires.ftc.teamcode.commands.SequentialGroup;
+
+/**
+ * The alliance autonomous, written ONCE for the blue side. `BlueSideAuto` and
+ * `RedSideAuto` only pick the alliance, the red one gets every pose mirrored.
+ *
+ * Same route as the old move(0.3) -> rotate(45) -> move(2.5), but as a single
+ * curve: no stopping to turn, the heading changes on the way.
+ *
+ *              LAUNCH_POSE  (135°)
+ *                 \
+ *                  \
+ *                   \___
+ *                       |  <- CONTROL_POSE (0.3m in front of the start)
+ *                       |
+ *                  START_POSE (90°)
+ *
+ * The poses are in inches on Pedro's field, measure them on the real field.
+ */
+public abstract class AllianceAuto extends PedroSelfDriving {
+    //------------------------------------------------------------------------------------------------
+    // Blue side poses
+    //------------------------------------------------------------------------------------------------
+    protected static final Pose START_POSE = new Pose(88, 8, Math.toRadians(90));
+    protected static final Pose CONTROL_POSE = new Pose(88, 19.8);
+    protected static final Pose LAUNCH_POSE = new Pose(18.4, 89.4, Math.toRadians(135));
+
+    protected PathChain toLaunchZone;
+
+    protected AllianceAuto(Alliance alliance) {
+        super(alliance);
+    }
+
+    @Override
+    protected Pose getBlueStartingPose() {
+        return START_POSE;
+    }
+
+    @Override
+    protected void buildPaths() {
+        Pose start = mirror(START_POSE);
+        Pose launch = mirror(LAUNCH_POSE);
+
+        toLaunchZone = follower.pathBuilder()
+                .addPath(new BezierCurve(start, mirror(CONTROL_POSE), launch))
+                .setLinearHeadingInterpolation(start.getHeading(), launch.getHeading())
+                .build();
+    }
+
+    @Override
+    protected void runAutonomous() {
+        // The launcher spins up while we drive, so it is ready when we arrive
+        run(new SequentialGroup(
+                new ParallelGroup(
+                        spinUpLauncherCommand(),
+                        followCommand(toLaunchZone)
+                ),
+                fireCommand(3)
+        ));
+    }
+}
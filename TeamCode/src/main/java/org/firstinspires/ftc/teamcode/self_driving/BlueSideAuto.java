@@ -1,16 +1,13 @@
 package org.firstinspires.ftc.teamcode.self_driving;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
-import org.firstinspires.ftc.teamcode.base.SelfDriving;
+
+import org.firstinspires.ftc.teamcode.all_purpose.Alliance;
 
 @Autonomous(name = "Blue Side Auto", group = "Autonomous")
-public class BlueSideAuto extends SelfDriving {
+public class BlueSideAuto extends AllianceAuto {
 
-    @Override
-    protected void runAutonomous() {
-       move(0.3);
-       rotate(-45);
-       move(2.5);
-       launch(3);
+    public BlueSideAuto() {
+        super(Alliance.BLUE);
     }
-}
\ No newline at end of file
+}
@@ -2,16 +2,12 @@ package org.firstinspires.ftc.teamcode.self_driving;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 
-import org.firstinspires.ftc.teamcode.base.SelfDriving;
+import org.firstinspires.ftc.teamcode.all_purpose.Alliance;
 
 @Autonomous(name = "Red Side Auto", group = "Autonomous")
-public class RedSideAuto extends SelfDriving {
+public class RedSideAuto extends AllianceAuto {
 
-    @Override
-    protected void runAutonomous() {
-       move(0.3);
-       rotate(45);
-       move(2.5);
-       launch(3);
+    public RedSideAuto() {
+        super(Alliance.RED);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,375 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import android.graphics.Canvas;
+
+import com.bylazar.configurables.annotations.Configurable;
+
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Finds the nearest ARTIFACT (green or purple ball) in the camera image, and
+ * says where it is from the robot: how far, and at what angle (bearing).
+ *
+ *  frame (RGB) -> region of interest -> YCrCb -> green or purple? -> blobs -> widest = nearest
+ *
+ * Runs on the VisionPortal's camera thread, once per frame, so it has to stay
+ * cheap or the whole Control Hub slows down:
+ *
+ * - Region of interest: once an artifact was found, the next frame is only searched
+ *   around it (ROI_MARGIN artifact widths on each side). Lost it? The next frame is
+ *   searched whole again.
+ *
+ *        +------------------------+
+ *        |        +------+        |
+ *        |        |  ()  | <- only this part is searched
+ *        |        +------+        |
+ *        +------------------------+
+ *
+ *   The ROI is rounded UP to one of a few fixed sizes (ROI_CELLS, in 1/GRID of the frame),
+ *   placed on that same grid. So every size has its own buffers, allocated in `init()`,
+ *   and each spot of the grid its own view on the frame, made the first time it's used:
+ *   after a few frames nothing is allocated anymore, not even a Mat header.
+ *
+ * - Frame skipping: `setLoopPeriod()` tells it how long the control loop's cycles take.
+ *   Over LOOP_BUDGET_MS, it skips one more frame out of every few (up to MAX_SKIP),
+ *   under, one less. The control loop always wins.
+ * - `connectedComponentsWithStats()` is used instead of `findContours()`, which makes a
+ *   new list of new Mats every frame. Only its `stats` and `centroids` still get resized
+ *   by OpenCV when the number of blobs changes (a few bytes per blob, natively).
+ *
+ * Distance from how wide the artifact looks: distance = DIAMETER * focal length / width in pixels.
+ * Bearing: radians, counter-clockwise positive (artifact to the LEFT = positive), like the heading.
+ *
+ * The result is handed to the control loop the same way as in `ImuReader`
+ * (one writer, never blocks), read it with `read()`.
+ */
+@Configurable
+public class ArtifactDetector implements VisionProcessor {
+    //------------------------------------------------------------------------------------------------
+    // Config
+    //------------------------------------------------------------------------------------------------
+    public static double DIAMETER = 0.127;                 // m, 5 inches
+    public static double HORIZONTAL_FOV_DEGREES = 70;      // Only if the camera has no calibration
+    // YCrCb, same as the SDK's ColorRange.ARTIFACT_GREEN / ARTIFACT_PURPLE
+    public static double[] GREEN_MIN = {32, 50, 118};
+    public static double[] GREEN_MAX = {255, 105, 145};
+    public static double[] PURPLE_MIN = {32, 135, 135};
+    public static double[] PURPLE_MAX = {255, 155, 169};
+    public static int MIN_AREA = 150;                      // Pixels, smaller blobs are noise
+    public static double ROI_MARGIN = 1;                   // Artifact widths searched around the last one
+    public static double LOOP_BUDGET_MS = 20;              // Control loop cycles longer than this = under load
+    public static int MAX_SKIP = 4;                        // At most, 1 frame out of MAX_SKIP + 1 is processed
+
+    /** The frame is cut in GRID x GRID cells, the ROI is always made of whole cells. */
+    public static final int GRID = 8;
+    /** ROI sizes, in cells per side, smallest first. The last one is the whole frame. */
+    private static final int[] ROI_CELLS = {2, 4, GRID};
+
+    /** One result, filled by `read()`. */
+    public static class Sample {
+        public boolean found;
+        public double bearing;         // Radians, counter-clockwise positive
+        public double distance;        // m
+        public long frameNanos;        // When the frame was taken, 0 = nothing processed yet
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Camera thread only
+    //------------------------------------------------------------------------------------------------
+    /** Everything one ROI size needs, the views on the frame are made on first use. */
+    private static class RoiBuffers {
+        final int cells;
+        final Mat yCrCb = new Mat();
+        final Mat mask = new Mat();
+        final Mat purpleMask = new Mat();
+        final Mat labels = new Mat();
+        final Mat[] frameViews;  // [row * GRID + column] of the ROI's top left cell
+
+        RoiBuffers(int cells) {
+            this.cells = cells;
+            frameViews = new Mat[GRID * GRID];
+        }
+    }
+
+    private final RoiBuffers[] roiBuffers = new RoiBuffers[ROI_CELLS.length];
+    private final Mat stats = new Mat();
+    private final Mat centroids = new Mat();
+    private final int[] blobStats = new int[Imgproc.CC_STAT_MAX];
+    private final Scalar min = new Scalar(0, 0, 0);
+    private final Scalar max = new Scalar(0, 0, 0);
+
+    private int imageWidth;
+    private int imageHeight;
+    private int cellWidth;
+    private int cellHeight;
+    private double focalLength;
+    private double centerX;
+    private long frameAddress = 0;  // The views are only valid on the same pixels
+
+    private int framesToSkip = 0;
+    private int skip = 0;
+    // Region of interest, in cells. The last size = the whole frame
+    private int roiSize = ROI_CELLS.length - 1;
+    private int roiColumn = 0;
+    private int roiRow = 0;
+
+    //------------------------------------------------------------------------------------------------
+    // Slot (only the camera thread writes these)
+    //------------------------------------------------------------------------------------------------
+    private volatile long version = 0;
+    private volatile boolean found = false;
+    private volatile double bearing = 0;
+    private volatile double distance = 0;
+    private volatile long frameNanos = 0;
+
+    //------------------------------------------------------------------------------------------------
+    // Metrics
+    //------------------------------------------------------------------------------------------------
+    private volatile long loopPeriodNanos = 0;  // Written by the control loop
+    private volatile long processedCount = 0;
+    private volatile long skippedCount = 0;
+    private volatile long lastProcessNanos = 0;
+
+    @Override
+    public void init(int width, int height, CameraCalibration calibration) {
+        imageWidth = width;
+        imageHeight = height;
+        cellWidth = width / GRID;
+        cellHeight = height / GRID;
+
+        for (int i = 0; i < ROI_CELLS.length; i++) {
+            if (roiBuffers[i] != null)
+                releaseBuffers(roiBuffers[i]);
+            RoiBuffers buffers = new RoiBuffers(ROI_CELLS[i]);
+            boolean whole = ROI_CELLS[i] == GRID;
+            int roiWidth = whole ? width : ROI_CELLS[i] * cellWidth;
+            int roiHeight = whole ? height : ROI_CELLS[i] * cellHeight;
+            buffers.yCrCb.create(roiHeight, roiWidth, CvType.CV_8UC3);
+            buffers.mask.create(roiHeight, roiWidth, CvType.CV_8UC1);
+            buffers.purpleMask.create(roiHeight, roiWidth, CvType.CV_8UC1);
+            buffers.labels.create(roiHeight, roiWidth, CvType.CV_32SC1);
+            roiBuffers[i] = buffers;
+        }
+        roiSize = ROI_CELLS.length - 1;
+        frameAddress = 0;
+
+        if (calibration != null && !calibration.isDegenerate()) {
+            focalLength = calibration.focalLengthX;
+            centerX = calibration.principalPointX;
+        } else {
+            focalLength = width / 2.0 / Math.tan(Math.toRadians(HORIZONTAL_FOV_DEGREES) / 2);
+            centerX = width / 2.0;
+        }
+    }
+
+    @Override
+    public Object processFrame(Mat frame, long captureTimeNanos) {
+        if (framesToSkip > 0) {
+            framesToSkip--;
+            skippedCount++;
+            return null;
+        }
+        long start = System.nanoTime();
+
+        // The portal normally hands the same Mat every frame. New pixels? The old views point to nothing
+        long address = frame.dataAddr();
+        if (address != frameAddress) {
+            for (RoiBuffers buffers : roiBuffers)
+                releaseViews(buffers);
+            frameAddress = address;
+        }
+
+        // Only the ROI, a view on the same pixels (no copy)
+        RoiBuffers buffers = roiBuffers[roiSize];
+        Mat view = getFrameView(frame, buffers);
+        int offsetX = view != frame ? roiColumn * cellWidth : 0;
+        int offsetY = view != frame ? roiRow * cellHeight : 0;
+        Mat yCrCb = buffers.yCrCb;
+        Mat mask = buffers.mask;
+        Mat purpleMask = buffers.purpleMask;
+
+        Imgproc.cvtColor(view, yCrCb, Imgproc.COLOR_RGB2YCrCb);
+        setScalars(GREEN_MIN, GREEN_MAX);
+        Core.inRange(yCrCb, min, max, mask);
+        setScalars(PURPLE_MIN, PURPLE_MAX);
+        Core.inRange(yCrCb, min, max, purpleMask);
+        Core.bitwise_or(mask, purpleMask, mask);
+
+        // Label 0 is the background
+        int count = Imgproc.connectedComponentsWithStats(mask, buffers.labels, stats, centroids);
+        int bestLeft = 0;
+        int bestTop = 0;
+        int bestWidth = 0;
+        int bestHeight = 0;
+        for (int label = 1; label < count; label++) {
+            stats.get(label, 0, blobStats);
+            if (blobStats[Imgproc.CC_STAT_AREA] < MIN_AREA || blobStats[Imgproc.CC_STAT_WIDTH] <= bestWidth)
+                continue;
+            bestLeft = blobStats[Imgproc.CC_STAT_LEFT] + offsetX;
+            bestTop = blobStats[Imgproc.CC_STAT_TOP] + offsetY;
+            bestWidth = blobStats[Imgproc.CC_STAT_WIDTH];
+            bestHeight = blobStats[Imgproc.CC_STAT_HEIGHT];
+        }
+
+        if (bestWidth > 0) {
+            double blobCenterX = bestLeft + bestWidth / 2.0;
+            publish(true,
+                    Math.atan2(centerX - blobCenterX, focalLength),
+                    DIAMETER * focalLength / bestWidth,
+                    captureTimeNanos);
+            setRoi(bestLeft, bestTop, bestWidth, bestHeight);
+        } else {
+            publish(false, 0, 0, captureTimeNanos);
+            roiSize = ROI_CELLS.length - 1;  // Search the whole frame again
+        }
+
+        long end = System.nanoTime();
+        lastProcessNanos = end - start;
+        processedCount++;
+        adaptSkip();
+        return null;
+    }
+
+    private void setScalars(double[] low, double[] high) {
+        for (int i = 0; i < 3; i++) {
+            min.val[i] = low[i];
+            max.val[i] = high[i];
+        }
+    }
+
+    /**
+     * The artifact's box, grown by ROI_MARGIN of its size on each side, rounded up to the
+     * smallest ROI size that still holds it once its corner is moved back onto the grid.
+     */
+    private void setRoi(int left, int top, int width, int height) {
+        int margin = (int) (ROI_MARGIN * Math.max(width, height));
+        int wantedLeft = Math.max(0, left - margin);
+        int wantedTop = Math.max(0, top - margin);
+        int wantedWidth = Math.min(imageWidth, left + width + margin) - wantedLeft;
+        int wantedHeight = Math.min(imageHeight, top + height + margin) - wantedTop;
+
+        roiSize = ROI_CELLS.length - 1;
+        roiColumn = 0;
+        roiRow = 0;
+        if (cellWidth == 0 || cellHeight == 0)
+            return;  // A tiny frame, always searched whole
+        for (int i = 0; i < ROI_CELLS.length - 1; i++) {
+            int cells = ROI_CELLS[i];
+            // One cell more than wanted: snapping the corner down can cost up to one
+            if (cells * cellWidth >= wantedWidth + cellWidth && cells * cellHeight >= wantedHeight + cellHeight) {
+                roiSize = i;
+                roiColumn = Math.min(wantedLeft / cellWidth, GRID - cells);
+                roiRow = Math.min(wantedTop / cellHeight, GRID - cells);
+                return;
+            }
+        }
+    }
+
+    /** The view on the ROI of `frame`, or the frame itself for the whole-frame size. */
+    private Mat getFrameView(Mat frame, RoiBuffers buffers) {
+        if (buffers.cells == GRID)
+            return frame;
+
+        int index = roiRow * GRID + roiColumn;
+        Mat view = buffers.frameViews[index];
+        if (view == null) {
+            int left = roiColumn * cellWidth;
+            int top = roiRow * cellHeight;
+            view = frame.submat(top, top + buffers.cells * cellHeight, left, left + buffers.cells * cellWidth);
+            buffers.frameViews[index] = view;
+        }
+        return view;
+    }
+
+    /** Only the headers, the pixels are the frame's. */
+    private static void releaseViews(RoiBuffers buffers) {
+        for (int i = 0; i < buffers.frameViews.length; i++) {
+            if (buffers.frameViews[i] != null) {
+                buffers.frameViews[i].release();
+                buffers.frameViews[i] = null;
+            }
+        }
+    }
+
+    private static void releaseBuffers(RoiBuffers buffers) {
+        releaseViews(buffers);
+        buffers.yCrCb.release();
+        buffers.mask.release();
+        buffers.purpleMask.release();
+        buffers.labels.release();
+    }
+
+    private void adaptSkip() {
+        double loopMs = loopPeriodNanos / 1e6;
+        if (loopMs > LOOP_BUDGET_MS)
+            skip = Math.min(MAX_SKIP, skip + 1);
+        else if (loopMs < LOOP_BUDGET_MS * 0.8)  // Some room, so it doesn't flip every frame
+            skip = Math.max(0, skip - 1);
+        framesToSkip = skip;
+    }
+
+    private void publish(boolean found, double bearing, double distance, long frameNanos) {
+        version++;   // Odd: readers will wait
+        this.found = found;
+        this.bearing = bearing;
+        this.distance = distance;
+        this.frameNanos = frameNanos;
+        version++;   // Even: done
+    }
+
+    @Override
+    public void onDrawFrame(Canvas canvas, int onscreenWidth, int onscreenHeight,
+                            float scaleBmpPxToCanvasPx, float scaleCanvasDensity, Object userContext) {
+        // Nothing drawn, the live view is off in matches
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Control loop
+    //------------------------------------------------------------------------------------------------
+
+    /** How long the control loop's last cycle took. Call it once per cycle. */
+    public void setLoopPeriod(long nanos) {
+        loopPeriodNanos = nanos;
+    }
+
+    /** Copies the latest result into `sample`, tries again if it was being written. */
+    public void read(Sample sample) {
+        while (true) {
+            long before = version;
+            if ((before & 1) == 0) {
+                boolean found = this.found;
+                double bearing = this.bearing;
+                double distance = this.distance;
+                long frameNanos = this.frameNanos;
+                if (version == before) {
+                    sample.found = found;
+                    sample.bearing = bearing;
+                    sample.distance = distance;
+                    sample.frameNanos = frameNanos;
+                    return;
+                }
+            }
+            Thread.yield();
+        }
+    }
+
+    public long getProcessedCount() {
+        return processedCount;
+    }
+
+    /** Frames skipped because the control loop was under load. */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /** How long the last processed frame took, in ns. */
+    public long getLastProcessNanos() {
+        return lastProcessNanos;
+    }
+}
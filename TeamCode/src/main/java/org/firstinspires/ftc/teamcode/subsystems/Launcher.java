@@ -0,0 +1,193 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.util.ElapsedTime;
+import com.qualcomm.robotcore.util.Range;
+
+import org.firstinspires.ftc.teamcode.all_purpose.BatteryMonitor;
+import org.firstinspires.ftc.teamcode.all_purpose.CachedMotor;
+import org.firstinspires.ftc.teamcode.all_purpose.SensorSnapshot;
+
+/**
+ * Closed-loop velocity control of the launcher flywheel.
+ *
+ * Instead of `setPower(1)` and hoping the wheel is fast enough after 2 seconds,
+ * we tell it how fast we WANT it to spin, and every cycle the power is corrected
+ * using the velocity measured by the encoder:
+ *
+ *   volts = kS * sign(v) + kV * v + kA * a          <- Feedforward: what it SHOULD take
+ *         + kP * error + kI * ∫error + kD * d(error) <- PID: fixes whatever is left
+ *
+ *   power = volts / batteryVoltage                   <- same speed at 13V or at 11.5V
+ *                                                       (BatteryMonitor.voltsToPower(), which honors its COMPENSATE)
+ *
+ * The target is ramped at MAX_ACCELERATION so that `a` is meaningful and the
+ * wheel does not get slammed. `isAtSpeed()` tells when it's safe to fire.
+ *
+ * All the constants are `public static` so they can be tuned live from Panels.
+ */
+@Configurable
+public class Launcher {
+    //------------------------------------------------------------------------------------------------
+    // Config (velocities in encoder ticks per second)
+    //------------------------------------------------------------------------------------------------
+    public static double LAUNCH_VELOCITY = 1800;
+    public static double MAX_ACCELERATION = 4000; // ticks/s^2
+
+    public static double kS = 0.25;   // V
+    public static double kV = 0.0042; // V per tick/s
+    public static double kA = 0.0004; // V per tick/s^2
+
+    public static double kP = 0.004;
+    public static double kI = 0.0005;
+    public static double kD = 0.0;
+    public static double MAX_INTEGRAL_VOLTS = 2;
+
+    /** How far from the target the wheel may be and still count as "at speed". */
+    public static double VELOCITY_TOLERANCE = 60;
+    /** How long it has to stay within tolerance before `isAtSpeed()` is true. */
+    public static double SETTLE_SECONDS = 0.1;
+
+    //------------------------------------------------------------------------------------------------
+    // Hardware
+    //------------------------------------------------------------------------------------------------
+    private final CachedMotor wheel;
+    private final SensorSnapshot sensors;
+    private final BatteryMonitor battery;
+
+    //------------------------------------------------------------------------------------------------
+    // State
+    //------------------------------------------------------------------------------------------------
+    private enum Mode {
+        VELOCITY,
+        OPEN_LOOP
+    }
+
+    private Mode mode = Mode.OPEN_LOOP;
+    private double openLoopPower = 0;
+    private double targetVelocity = 0;
+    private double rampedVelocity = 0;
+    private double integral = 0;
+    private double lastError = 0;
+
+    private final ElapsedTime cycleTimer = new ElapsedTime();
+    private final ElapsedTime inToleranceTimer = new ElapsedTime();
+    private boolean inTolerance = false;
+
+    public Launcher(CachedMotor wheel, SensorSnapshot sensors, BatteryMonitor battery) {
+        this.wheel = wheel;
+        this.sensors = sensors;
+        this.battery = battery;
+
+        // We do our own velocity control, the hub only needs to report the encoder
+        wheel.motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        wheel.motor.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.FLOAT);
+        wheel.invalidate();
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Commands
+    //------------------------------------------------------------------------------------------------
+
+    /** Spin at this velocity (ticks/s), holding it with feedback. */
+    public void setTargetVelocity(double ticksPerSecond) {
+        if (mode != Mode.VELOCITY) {
+            // Start the ramp from wherever the wheel is right now
+            rampedVelocity = getVelocity();
+            integral = 0;
+            lastError = 0;
+        }
+        mode = Mode.VELOCITY;
+        targetVelocity = ticksPerSecond;
+    }
+
+    /** Spin at LAUNCH_VELOCITY. */
+    public void spinUp() {
+        setTargetVelocity(LAUNCH_VELOCITY);
+    }
+
+    /** Raw power with no feedback, like the joystick control in TeleOp. */
+    public void setPower(double power) {
+        mode = Mode.OPEN_LOOP;
+        openLoopPower = power;
+        targetVelocity = 0;
+        inTolerance = false;
+    }
+
+    public void stop() {
+        setPower(0);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Control loop
+    //------------------------------------------------------------------------------------------------
+
+    /**
+     * Must be called once per control cycle, after the sensors were refreshed
+     * and before the outputs are flushed.
+     */
+    public void update() {
+        double dt = cycleTimer.seconds();
+        cycleTimer.reset();
+
+        if (mode == Mode.OPEN_LOOP) {
+            // Same joystick position = same speed, whatever the battery
+            wheel.setPower(battery.compensate(openLoopPower));
+            return;
+        }
+
+        // Ramp the setpoint towards the target
+        double maxStep = MAX_ACCELERATION * dt;
+        double previousRamped = rampedVelocity;
+        rampedVelocity += Range.clip(targetVelocity - rampedVelocity, -maxStep, maxStep);
+        double acceleration = dt > 0 ? (rampedVelocity - previousRamped) / dt : 0;
+
+        // Feedforward
+        double volts = kS * Math.signum(rampedVelocity)
+                + kV * rampedVelocity
+                + kA * acceleration;
+
+        // Feedback
+        double error = rampedVelocity - getVelocity();
+        if (dt > 0) {
+            integral += error * dt;
+            volts += kD * (error - lastError) / dt;
+        }
+        if (kI > 0) {
+            // Anti wind-up: the integral term alone can never push more than MAX_INTEGRAL_VOLTS
+            double integralLimit = MAX_INTEGRAL_VOLTS / kI;
+            integral = Range.clip(integral, -integralLimit, integralLimit);
+        }
+        volts += kP * error + kI * integral;
+        lastError = error;
+
+        wheel.setPower(battery.voltsToPower(volts));
+
+        // Readiness is measured against the REAL target, not the ramp
+        boolean nowInTolerance = Math.abs(targetVelocity - getVelocity()) <= VELOCITY_TOLERANCE;
+        if (nowInTolerance && !inTolerance)
+            inToleranceTimer.reset();
+        inTolerance = nowInTolerance;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Getters
+    //------------------------------------------------------------------------------------------------
+
+    /** True once the wheel has been within VELOCITY_TOLERANCE for SETTLE_SECONDS. */
+    public boolean isAtSpeed() {
+        return mode == Mode.VELOCITY
+                && targetVelocity != 0
+                && inTolerance
+                && inToleranceTimer.seconds() >= SETTLE_SECONDS;
+    }
+
+    public double getVelocity() {
+        return sensors.getVelocity(SensorSnapshot.LAUNCHER);
+    }
+
+    public double getTargetVelocity() {
+        return targetVelocity;
+    }
+}
@@ -0,0 +1,289 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.hardware.limelightvision.LLResult;
+import com.qualcomm.hardware.limelightvision.Limelight3A;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose3D;
+import org.firstinspires.ftc.robotcore.external.navigation.Position;
+import org.firstinspires.ftc.teamcode.all_purpose.Localizer;
+
+/**
+ * The Limelight 3A: a camera with its OWN computer, so all the image work
+ * happens on it and not on the Control Hub. We only pick up its results.
+ *
+ *  (Limelight)       frame -> pipeline -> result ---(USB network)---.
+ *  (SDK thread)                                   polls it at POLL_RATE_HZ -> latest result
+ *                                                                                 |
+ *  (control loop)    update() -> getLatestResult() -----------------------------'
+ *                        |-> AprilTag pipeline: botpose -> localizer.addPoseFix()
+ *                        `-> color pipeline:    where the target is (tx, ty)
+ *
+ * It runs ONE pipeline at a time, numbered on the Limelight's web page.
+ * `setPipeline()` picks which one, e.g. the color one while intaking (see
+ * `LimelightPipelineCommand`). Switching is an HTTP request that waits for the
+ * Limelight's answer, so it is sent from its OWN thread, never from the control loop:
+ *
+ *  (control loop)     update() -> wanted index + index the results come from --.
+ *                                                                             |
+ *  (switcher thread)  different? <--------------------------------------------'
+ *                        `-> pipelineSwitch() (blocks) -> again after PIPELINE_RETRY_SECONDS
+ *
+ * A result is only used if it's NEW and FRESH: older than MAX_RESULT_AGE_MS
+ * (camera + processing + network) it says where the robot was, not where it is.
+ * Even the fresh ones are timestamped with when the frame was taken, so the
+ * localizer compares them with the odometry of that moment.
+ *
+ * The botpose is worked out by the Limelight from the field map uploaded to it
+ * (FTC field frame: meters from the center of the field). Leave the obelisk tags
+ * out of that map, they aren't on a fixed spot.
+ */
+@Configurable
+public class Limelight {
+    //------------------------------------------------------------------------------------------------
+    // Config
+    //------------------------------------------------------------------------------------------------
+    public static String DEVICE_NAME = "limelight";
+    public static int APRILTAG_PIPELINE = 0;
+    public static int COLOR_PIPELINE = 1;
+    public static int POLL_RATE_HZ = 100;
+    public static double MAX_RESULT_AGE_MS = 100;
+    public static double MAX_RANGE = 2.5;                 // m, average distance to the tags used
+    public static double PIPELINE_RETRY_SECONDS = 0.5;    // Sends the switch again if it didn't happen
+    public static long SWITCH_CHECK_MS = 10;              // How often the switcher thread looks for work
+
+    public enum Pipeline {
+        APRILTAG,
+        COLOR;
+
+        int getIndex() {
+            return this == APRILTAG ? APRILTAG_PIPELINE : COLOR_PIPELINE;
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // State
+    //------------------------------------------------------------------------------------------------
+    private final Limelight3A limelight;
+    private final Localizer localizer;
+
+    private Pipeline pipeline = Pipeline.APRILTAG;
+    private int activePipelineIndex = -1;  // From the results, -1 = no result yet
+
+    // Switcher thread, the two indexes are written by the control loop
+    private Thread switcher;
+    private volatile boolean running = false;
+    private volatile int wantedIndex = APRILTAG_PIPELINE;
+    private volatile int reportedIndex = -1;
+    private volatile long switchCount = 0;
+    private volatile long switchErrorCount = 0;
+
+    private long lastResultStamp = 0;  // The SDK hands the same result again until a new one arrives
+    private long fixCount = 0;
+    private long staleCount = 0;
+
+    private boolean hasTarget = false;
+    private double targetX = 0;
+    private double targetY = 0;
+    private double targetArea = 0;
+    private long targetNanos = 0;
+
+    public Limelight(Limelight3A limelight, Localizer localizer) {
+        this.limelight = limelight;
+        this.localizer = localizer;
+
+        limelight.setPollRateHz(POLL_RATE_HZ);
+        limelight.start();
+
+        // Also sends the first switch, to the AprilTags
+        running = true;
+        switcher = new Thread(this::switchLoop, "LimelightSwitcher");
+        switcher.setDaemon(true);  // Never keeps the app alive on its own
+        switcher.start();
+    }
+
+    /**
+     * Which pipeline the Limelight should run. Only remembered here, the switcher
+     * thread sends it once `update()` passed it on.
+     */
+    public void setPipeline(Pipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Switcher thread
+    //------------------------------------------------------------------------------------------------
+
+    /** Sends the wanted pipeline when it changes, and again every PIPELINE_RETRY_SECONDS until the results show it. */
+    private void switchLoop() {
+        int sentIndex = -1;
+        long sentNanos = 0;
+        while (running && !Thread.currentThread().isInterrupted()) {
+            int wanted = wantedIndex;
+            long now = System.nanoTime();
+            if (reportedIndex != wanted
+                    && (wanted != sentIndex || now - sentNanos > PIPELINE_RETRY_SECONDS * 1e9)) {
+                try {
+                    limelight.pipelineSwitch(wanted);
+                    switchCount++;
+                } catch (RuntimeException e) {
+                    // Tried again after PIPELINE_RETRY_SECONDS
+                    if (switchErrorCount == 0)
+                        RobotLog.ee("Limelight", e, "Could not switch the pipeline");
+                    switchErrorCount++;
+                }
+                sentIndex = wanted;
+                sentNanos = now;
+            }
+
+            try {
+                Thread.sleep(SWITCH_CHECK_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Control loop
+    //------------------------------------------------------------------------------------------------
+
+    /**
+     * Picks up the newest result (if any) and uses it. Call it once per cycle,
+     * after the localizer was updated. Never waits for the camera.
+     */
+    public void update() {
+        long now = System.nanoTime();
+        // Only handed over, the switcher thread does the sending
+        wantedIndex = pipeline.getIndex();
+
+        LLResult result = limelight.getLatestResult();
+        if (result == null || result.getControlHubTimeStamp() == lastResultStamp)
+            return;
+        lastResultStamp = result.getControlHubTimeStamp();
+        activePipelineIndex = result.getPipelineIndex();
+        reportedIndex = activePipelineIndex;
+
+        // The result's own time is the wall clock, everything here runs on System.nanoTime()
+        double ageMs = result.getStaleness() + result.getCaptureLatency() + result.getTargetingLatency();
+        if (ageMs > MAX_RESULT_AGE_MS) {
+            staleCount++;
+            hasTarget = false;
+            return;
+        }
+        long frameNanos = now - (long) (ageMs * 1e6);
+
+        hasTarget = false;
+        if (activePipelineIndex == APRILTAG_PIPELINE)
+            useBotpose(result, frameNanos);
+        else if (activePipelineIndex == COLOR_PIPELINE)
+            useTarget(result, frameNanos);
+    }
+
+    private void useBotpose(LLResult result, long frameNanos) {
+        if (!result.isValid() || result.getBotposeTagCount() == 0 || result.getBotposeAvgDist() > MAX_RANGE)
+            return;
+        Pose3D botpose = result.getBotpose();
+        if (botpose == null)
+            return;
+
+        Position position = botpose.getPosition();
+        double x = DistanceUnit.METER.fromUnit(position.unit, position.x);
+        double y = DistanceUnit.METER.fromUnit(position.unit, position.y);
+        double heading = botpose.getOrientation().getYaw(AngleUnit.RADIANS);
+
+        localizer.addPoseFix(x, y, heading, frameNanos, result.getBotposeAvgDist());
+        fixCount++;
+    }
+
+    private void useTarget(LLResult result, long frameNanos) {
+        hasTarget = result.isValid();
+        if (!hasTarget)
+            return;
+        targetX = result.getTx();
+        targetY = result.getTy();
+        targetArea = result.getTa();
+        targetNanos = frameNanos;
+    }
+
+    /** Stops the switcher thread and the polling, MUST be called when the OpMode ends. */
+    public void close() {
+        running = false;
+        if (switcher != null) {
+            switcher.interrupt();
+            try {
+                switcher.join(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            switcher = null;
+        }
+        try {
+            limelight.stop();
+        } catch (RuntimeException e) {
+            RobotLog.ee("Limelight", e, "Could not stop the Limelight");
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Getters
+    //------------------------------------------------------------------------------------------------
+
+    /** The pipeline asked for with `setPipeline()`. */
+    public Pipeline getPipeline() {
+        return pipeline;
+    }
+
+    /** True once the results actually come from the pipeline asked for. */
+    public boolean isPipelineActive() {
+        return activePipelineIndex == pipeline.getIndex();
+    }
+
+    /** How many pose fixes were sent to the localizer. */
+    public long getFixCount() {
+        return fixCount;
+    }
+
+    /** New results thrown away because they were older than MAX_RESULT_AGE_MS. */
+    public long getStaleCount() {
+        return staleCount;
+    }
+
+    /** Pipeline switches sent, retries included. */
+    public long getSwitchCount() {
+        return switchCount;
+    }
+
+    /** Pipeline switches that threw, the first one is also written to the robot log. */
+    public long getSwitchErrorCount() {
+        return switchErrorCount;
+    }
+
+    /** Color pipeline: whether the last fresh result saw a target. */
+    public boolean hasTarget() {
+        return hasTarget;
+    }
+
+    /** Color pipeline: degrees right (+) of the crosshair. */
+    public double getTargetX() {
+        return targetX;
+    }
+
+    /** Color pipeline: degrees above (+) the crosshair. */
+    public double getTargetY() {
+        return targetY;
+    }
+
+    /** Color pipeline: % of the image the target covers. */
+    public double getTargetArea() {
+        return targetArea;
+    }
+
+    /** `System.nanoTime()` of the frame the target was seen in. */
+    public long getTargetNanos() {
+        return targetNanos;
+    }
+}
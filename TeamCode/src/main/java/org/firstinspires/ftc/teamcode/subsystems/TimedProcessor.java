@@ -0,0 +1,103 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import android.graphics.Canvas;
+
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.opencv.core.Mat;
+
+/**
+ * Wraps a `VisionProcessor` to measure what it costs: how many frames per second
+ * it actually processes, and how much of the camera thread it takes.
+ *
+ *      portal -> TimedProcessor.processFrame() -> start clock -> processor.processFrame() -> stop clock
+ *
+ * Give the WRAPPER to the portal (`addProcessor`, `setProcessorEnabled`), and keep
+ * using the processor itself for its results. The numbers are worked out over
+ * WINDOW_SECONDS, a disabled processor drops to 0 once its window is over.
+ */
+public class TimedProcessor implements VisionProcessor {
+    public static final double WINDOW_SECONDS = 1;
+
+    private final VisionProcessor processor;
+
+    // Camera thread only
+    private long windowStartNanos = 0;
+    private int windowFrames = 0;
+    private long windowBusyNanos = 0;
+
+    // Written by the camera thread, read by anyone
+    private volatile double fps = 0;
+    private volatile double averageMs = 0;
+    private volatile double cpuFraction = 0;
+    private volatile long lastFrameNanos = 0;
+
+    public TimedProcessor(VisionProcessor processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    public void init(int width, int height, CameraCalibration calibration) {
+        processor.init(width, height, calibration);
+    }
+
+    @Override
+    public Object processFrame(Mat frame, long captureTimeNanos) {
+        long start = System.nanoTime();
+        Object userContext = processor.processFrame(frame, captureTimeNanos);
+        long end = System.nanoTime();
+
+        // First frame, or first one after being disabled a while: a new window
+        if (windowStartNanos == 0 || start - lastFrameNanos > WINDOW_SECONDS * 1e9) {
+            windowStartNanos = start;
+            windowFrames = 0;
+            windowBusyNanos = 0;
+        }
+        windowFrames++;
+        windowBusyNanos += end - start;
+        lastFrameNanos = end;
+
+        long windowNanos = end - windowStartNanos;
+        if (windowNanos >= WINDOW_SECONDS * 1e9) {
+            fps = windowFrames / (windowNanos / 1e9);
+            averageMs = windowBusyNanos / 1e6 / windowFrames;
+            cpuFraction = (double) windowBusyNanos / windowNanos;
+            windowStartNanos = end;
+            windowFrames = 0;
+            windowBusyNanos = 0;
+        }
+        return userContext;
+    }
+
+    @Override
+    public void onDrawFrame(Canvas canvas, int onscreenWidth, int onscreenHeight,
+                            float scaleBmpPxToCanvasPx, float scaleCanvasDensity, Object userContext) {
+        processor.onDrawFrame(canvas, onscreenWidth, onscreenHeight, scaleBmpPxToCanvasPx, scaleCanvasDensity, userContext);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Getters
+    //------------------------------------------------------------------------------------------------
+    public VisionProcessor getProcessor() {
+        return processor;
+    }
+
+    /** Frames processed per second, over the last window. 0 if it didn't run for a whole window. */
+    public double getFps(long nowNanos) {
+        return isIdle(nowNanos) ? 0 : fps;
+    }
+
+    /** Average time per frame, in ms, over the last window. */
+    public double getAverageMs(long nowNanos) {
+        return isIdle(nowNanos) ? 0 : averageMs;
+    }
+
+    /** 0 to 1, the part of the time the camera thread spent in this processor. */
+    public double getCpuFraction(long nowNanos) {
+        return isIdle(nowNanos) ? 0 : cpuFraction;
+    }
+
+    private boolean isIdle(long nowNanos) {
+        return nowNanos - lastFrameNanos > 2 * WINDOW_SECONDS * 1e9;
+    }
+}
@@ -0,0 +1,317 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import android.util.Size;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose3D;
+import org.firstinspires.ftc.robotcore.external.navigation.Position;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+import org.firstinspires.ftc.teamcode.all_purpose.Localizer;
+import org.firstinspires.ftc.vision.VisionPortal;
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+import org.firstinspires.ftc.vision.apriltag.AprilTagGameDatabase;
+import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
+
+import java.util.ArrayList;
+
+/**
+ * Finds the goal AprilTags with the webcam and tells the localizer where the
+ * robot REALLY is on the field, so long drives don't slowly drift away.
+ *
+ *  (camera thread)  frame -> AprilTagProcessor -> detections (with robotPose)
+ *                                                       |
+ *  (control loop)   update() -> getFreshDetections() ---' -> best tag -> localizer.addPoseFix()
+ *
+ * Only clean detections are used: sure it's a tag (decision margin, no fixed bits),
+ * close enough, and not seen too much from the side. The localizer then also
+ * checks the pose against the odometry of when the frame was taken.
+ *
+ * The detection runs on the VisionPortal's own thread, `update()` only picks up
+ * what it found since the last call, so the control loop never waits for a frame.
+ *
+ * To keep that thread fast (and the Control Hub cool):
+ * - the camera runs at RESOLUTION_WIDTH x RESOLUTION_HEIGHT,
+ * - the tag search runs on an image DECIMATION times smaller (the pose is still
+ *   worked out at full resolution once a tag is found). Higher = faster, but
+ *   tags are lost from closer. Can be changed live from Panels,
+ * - no live view on the Driver Station.
+ *
+ * The same frames can also go through the `ArtifactDetector`, which finds the
+ * nearest artifact for the intake, see `getArtifacts()`.
+ *
+ * Lifecycle: opening the camera takes SECONDS, so the portal is opened once in
+ * init and stays open until `close()`. What runs on it is switched instead:
+ *
+ *      processor ON  = some command asked for it (`require()` / `release()`, see
+ *                      `VisionProcessorCommand`), or APRILTAG_ALWAYS_ON for the tags
+ *      processor OFF = the portal doesn't call it at all, it costs nothing
+ *      all OFF       = the stream itself stops too, until one is needed again
+ *
+ * The live view (LIVE_VIEW_IN_INIT, to aim the camera) is stopped by `onStart()`.
+ * `getFps(Processor)` / `getCpuFraction(Processor)` say what each processor costs.
+ *
+ * Poses are in the FTC field frame: meters from the CENTER of the field,
+ * radians, counter-clockwise positive. The obelisk tags are not on a fixed
+ * spot of the field, only the goal tags are used.
+ */
+@Configurable
+public class Vision {
+    //------------------------------------------------------------------------------------------------
+    // Config
+    //------------------------------------------------------------------------------------------------
+    public static String CAMERA_NAME = "Webcam 1";
+    public static int RESOLUTION_WIDTH = 640;
+    public static int RESOLUTION_HEIGHT = 480;
+    public static double DECIMATION = 2;
+
+    /** Where the camera is on the robot, inches from the center: x = right, y = forward, z = up. */
+    public static double CAMERA_X = 0;
+    public static double CAMERA_Y = 0;
+    public static double CAMERA_Z = 0;
+    /** Degrees. Pitch -90 = looking straight ahead (the SDK counts from looking straight up). */
+    public static double CAMERA_YAW = 0;
+    public static double CAMERA_PITCH = -90;
+    public static double CAMERA_ROLL = 0;
+
+    public static double MAX_RANGE = 2.5;              // m, farther tags are too noisy to trust
+    public static double MIN_DECISION_MARGIN = 20;     // How sure the detector is that it's a tag
+    public static int MAX_HAMMING = 0;                 // Bits that had to be fixed to read the ID, >0 = maybe another tag
+    /**
+     * Seen this much from the side, a square tag looks almost the same tilted either way,
+     * and the pose can flip between the two (the "ambiguity" of the pose solver).
+     */
+    public static double MAX_VIEW_ANGLE_DEGREES = 60;
+
+    public static boolean APRILTAG_ALWAYS_ON = true;   // false = only while a command requires it
+    public static boolean STOP_STREAM_WHEN_IDLE = true;
+    public static boolean LIVE_VIEW_IN_INIT = false;   // Only read when the camera opens
+
+    public enum Processor {
+        APRILTAG,
+        ARTIFACTS
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // State
+    //------------------------------------------------------------------------------------------------
+    private final VisionPortal portal;
+    private final AprilTagProcessor aprilTag;
+    private final ArtifactDetector artifacts;
+    /** What the portal actually gets, by `Processor.ordinal()`. */
+    private final TimedProcessor[] processors;
+    private final int[] demand = new int[Processor.values().length];
+    private final boolean[] enabled = new boolean[Processor.values().length];
+    private boolean streamStopped = false;
+    private final Localizer localizer;
+    private double appliedDecimation;
+
+    private long fixCount = 0;
+    private long lastFixNanos = 0;
+    private long lastUpdateNanos = 0;
+
+    public Vision(WebcamName camera, Localizer localizer) {
+        this.localizer = localizer;
+
+        aprilTag = new AprilTagProcessor.Builder()
+                .setTagLibrary(AprilTagGameDatabase.getDecodeTagLibrary())
+                .setOutputUnits(DistanceUnit.METER, AngleUnit.RADIANS)
+                .setCameraPose(
+                        new Position(DistanceUnit.INCH, CAMERA_X, CAMERA_Y, CAMERA_Z, 0),
+                        new YawPitchRollAngles(AngleUnit.DEGREES, CAMERA_YAW, CAMERA_PITCH, CAMERA_ROLL, 0))
+                // Nobody watches the drawings during a match
+                .setDrawAxes(false)
+                .setDrawCubeProjection(false)
+                .setDrawTagOutline(false)
+                .build();
+        appliedDecimation = DECIMATION;
+        aprilTag.setDecimation((float) DECIMATION);
+
+        artifacts = new ArtifactDetector();
+        processors = new TimedProcessor[] {
+                new TimedProcessor(aprilTag),
+                new TimedProcessor(artifacts)
+        };
+
+        portal = new VisionPortal.Builder()
+                .setCamera(camera)
+                .setCameraResolution(new Size(RESOLUTION_WIDTH, RESOLUTION_HEIGHT))
+                .setStreamFormat(VisionPortal.StreamFormat.MJPEG)  // Less USB bandwidth than YUY2
+                .enableLiveView(LIVE_VIEW_IN_INIT)
+                .addProcessors(processors)
+                .build();
+
+        // Everything starts enabled, only keep what's wanted
+        for (Processor processor : Processor.values()) {
+            enabled[processor.ordinal()] = true;
+        }
+        applyDemand();
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Lifecycle
+    //------------------------------------------------------------------------------------------------
+
+    /** Some command needs `processor`, it runs until every `require()` got its `release()`. */
+    public void require(Processor processor) {
+        demand[processor.ordinal()]++;
+    }
+
+    public void release(Processor processor) {
+        if (demand[processor.ordinal()] > 0)
+            demand[processor.ordinal()]--;
+    }
+
+    /** Call it when the match starts: the live view only costs CPU from there on. */
+    public void onStart() {
+        if (LIVE_VIEW_IN_INIT)
+            portal.stopLiveView();
+    }
+
+    /** Turns every processor on or off as wanted, and the stream with them. */
+    private void applyDemand() {
+        boolean anyEnabled = false;
+        for (Processor processor : Processor.values()) {
+            int i = processor.ordinal();
+            boolean wanted = demand[i] > 0 || (processor == Processor.APRILTAG && APRILTAG_ALWAYS_ON);
+            if (wanted != enabled[i]) {
+                portal.setProcessorEnabled(processors[i], wanted);
+                enabled[i] = wanted;
+            }
+            anyEnabled |= wanted;
+        }
+
+        // Only once the camera is up, it refuses both while opening
+        VisionPortal.CameraState state = portal.getCameraState();
+        if (!anyEnabled && STOP_STREAM_WHEN_IDLE && !streamStopped && state == VisionPortal.CameraState.STREAMING) {
+            portal.stopStreaming();
+            streamStopped = true;
+        } else if (anyEnabled && streamStopped && state == VisionPortal.CameraState.CAMERA_DEVICE_READY) {
+            portal.resumeStreaming();
+            streamStopped = false;
+        }
+    }
+
+    /**
+     * Switches the processors as the commands want, and hands the newest usable tag
+     * (if any) to the localizer. Call it once per cycle, after the localizer was updated.
+     * Never waits for the camera.
+     */
+    public void update() {
+        applyDemand();
+
+        // The detector skips frames by itself when the cycles get long
+        long now = System.nanoTime();
+        if (lastUpdateNanos != 0)
+            artifacts.setLoopPeriod(now - lastUpdateNanos);
+        lastUpdateNanos = now;
+
+        if (!enabled[Processor.APRILTAG.ordinal()])
+            return;
+
+        if (DECIMATION != appliedDecimation) {
+            appliedDecimation = DECIMATION;
+            aprilTag.setDecimation((float) DECIMATION);
+        }
+
+        // null when nothing new was processed since the last call
+        ArrayList<AprilTagDetection> detections = aprilTag.getFreshDetections();
+        if (detections == null)
+            return;
+
+        // The closest tag gives the best pose
+        AprilTagDetection best = null;
+        for (int i = 0; i < detections.size(); i++) {
+            AprilTagDetection detection = detections.get(i);
+            if (!isUsable(detection))
+                continue;
+            if (best == null || detection.ftcPose.range < best.ftcPose.range)
+                best = detection;
+        }
+        if (best == null)
+            return;
+
+        Pose3D robotPose = best.robotPose;
+        Position position = robotPose.getPosition();
+        double x = DistanceUnit.METER.fromUnit(position.unit, position.x);
+        double y = DistanceUnit.METER.fromUnit(position.unit, position.y);
+        double heading = robotPose.getOrientation().getYaw(AngleUnit.RADIANS);
+
+        // Timestamped with when the frame was TAKEN, not now: the localizer compares it
+        // with where the odometry was at that moment, and rejects it if it's way off
+        localizer.addPoseFix(x, y, heading, best.frameAcquisitionNanoTime, best.ftcPose.range);
+        fixCount++;
+        lastFixNanos = best.frameAcquisitionNanoTime;
+    }
+
+    private static boolean isUsable(AprilTagDetection detection) {
+        return detection.metadata != null
+                && detection.robotPose != null
+                && detection.ftcPose != null
+                && !detection.metadata.name.startsWith("Obelisk")
+                && detection.decisionMargin >= MIN_DECISION_MARGIN
+                && detection.hamming <= MAX_HAMMING
+                && detection.ftcPose.range <= MAX_RANGE
+                && Math.abs(detection.ftcPose.yaw) <= Math.toRadians(MAX_VIEW_ANGLE_DEGREES);
+    }
+
+    /** Turns the camera off, MUST be called when the OpMode ends. */
+    public void close() {
+        try {
+            portal.close();
+        } catch (RuntimeException e) {
+            RobotLog.ee("Vision", e, "Could not close the VisionPortal");
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Getters
+    //------------------------------------------------------------------------------------------------
+
+    /** How many pose fixes were sent to the localizer. */
+    public long getFixCount() {
+        return fixCount;
+    }
+
+    /** `System.nanoTime()` of the frame of the last fix, 0 = none yet. */
+    public long getLastFixNanos() {
+        return lastFixNanos;
+    }
+
+    /** The nearest artifact, only updated while `ARTIFACTS` is required. */
+    public ArtifactDetector getArtifacts() {
+        return artifacts;
+    }
+
+    public boolean isEnabled(Processor processor) {
+        return enabled[processor.ordinal()];
+    }
+
+    /** Frames per second the camera delivers. */
+    public float getFps() {
+        return portal.getFps();
+    }
+
+    /** Frames per second `processor` processed, 0 while it's off. */
+    public double getFps(Processor processor) {
+        return processors[processor.ordinal()].getFps(System.nanoTime());
+    }
+
+    /** Average ms `processor` takes per frame. */
+    public double getAverageMs(Processor processor) {
+        return processors[processor.ordinal()].getAverageMs(System.nanoTime());
+    }
+
+    /** 0 to 1, the part of the camera thread's time spent in `processor`. */
+    public double getCpuFraction(Processor processor) {
+        return processors[processor.ordinal()].getCpuFraction(System.nanoTime());
+    }
+
+    public VisionPortal getPortal() {
+        return portal;
+    }
+}